@@ -0,0 +1,68 @@
+import javax.swing.JComponent;
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import org.knowm.xchart.CategoryChart;
+import org.knowm.xchart.CategoryChartBuilder;
+import org.knowm.xchart.CategorySeries;
+import org.knowm.xchart.XChartPanel;
+import org.knowm.xchart.style.Styler;
+import test.chart.ChartBackend;
+
+/**
+ * XChart {@link ChartBackend}: one bar chart of average attendance by grade, with a separate series
+ * per grade. The chart and its panel are built once and later analyses update the series in place.
+ */
+class XChartBackend implements ChartBackend {
+
+    private final CategoryChart chart;
+    private final XChartPanel<CategoryChart> chartView;
+
+    XChartBackend() {
+        chart = new CategoryChartBuilder()
+                .width(800)
+                .height(400)
+                .title("Average Attendance (%) by Grade")
+                .xAxisTitle("GRADES")
+                .yAxisTitle("AVERAGE ATTENDANCE (%)")
+                .build();
+
+        // Customize the chart's style
+        chart.getStyler().setLegendPosition(Styler.LegendPosition.InsideNW);
+        chart.getStyler().setDefaultSeriesRenderStyle(CategorySeries.CategorySeriesRenderStyle.Bar);
+        chart.getStyler().setSeriesColors(new Color[]{Color.BLUE, Color.GREEN, Color.ORANGE, Color.RED, Color.MAGENTA});
+
+        // Set Y-axis range to 0-100
+        chart.getStyler().setYAxisMax(100.0);
+        chart.getStyler().setYAxisMin(0.0);
+
+        chartView = new XChartPanel<>(chart);
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return chartView;
+    }
+
+    @Override
+    public void setValues(Map<String, Double> averages) {
+        // Drop grades that are gone, then update or add a separate series for each grade
+        for (String grade : new ArrayList<>(chart.getSeriesMap().keySet())) {
+            if (!averages.containsKey(grade)) {
+                chart.removeSeries(grade);
+            }
+        }
+        for (Map.Entry<String, Double> entry : averages.entrySet()) {
+            String grade = entry.getKey();
+            if (chart.getSeriesMap().containsKey(grade)) {
+                chart.updateCategorySeries(grade, Collections.singletonList(grade), Collections.singletonList(entry.getValue()), null);
+            } else {
+                chart.addSeries(grade, Collections.singletonList(grade), Collections.singletonList(entry.getValue()));
+            }
+        }
+
+        // XChart draws on paint only, so one repaint shows all of the changes
+        chartView.repaint();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,125 @@
+package test.bench;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import javax.swing.table.DefaultTableModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import test.analysis.Aggregate;
+import test.analysis.GradeAggregator;
+import test.analysis.GradeSummary;
+import test.analysis.GroupBy;
+import test.analysis.GroupByResult;
+import test.data.StudentDataset;
+
+/**
+ * Analysis path: the original {@code processCSV()} scan over a {@link DefaultTableModel} against the
+ * columnar aggregation on one thread and on the common pool, plus a group-by query.
+ * <p>
+ * The table-model baseline keeps every cell as a String and needs roughly 1.5 KB of heap per row,
+ * so it stops at a million rows; the columnar side also runs at fifty million.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class AggregateBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Columnar {
+        @Param({"5000", "1000000", "50000000"})
+        public int rows;
+
+        StudentDataset dataset;
+        ForkJoinPool singleThread;
+
+        @Setup
+        public void setUp() throws IOException {
+            dataset = SyntheticData.dataset(rows);
+            singleThread = new ForkJoinPool(1);
+        }
+
+        @TearDown
+        public void tearDown() {
+            singleThread.shutdown();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Legacy {
+        @Param({"5000", "1000000"})
+        public int rows;
+
+        DefaultTableModel tableModel;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            tableModel = SyntheticData.tableModel(rows);
+        }
+    }
+
+    @Benchmark
+    public Map<String, Double> tableModelScan(Legacy state) {
+        DefaultTableModel tableModel = state.tableModel;
+        Map<String, double[]> grades = new HashMap<>();
+        for (String grade : GradeAggregator.GRADES) {
+            grades.put(grade, new double[2]);
+        }
+        int attendanceIndex = tableModel.findColumn(GradeAggregator.ATTENDANCE_COLUMN);
+        int gradeIndex = tableModel.findColumn(GradeAggregator.GRADE_COLUMN);
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            String grade = (String) tableModel.getValueAt(i, gradeIndex);
+            try {
+                double attendance = Double.parseDouble((String) tableModel.getValueAt(i, attendanceIndex));
+                if (grades.containsKey(grade)) {
+                    grades.get(grade)[0] += attendance;
+                    grades.get(grade)[1]++;
+                }
+            } catch (NumberFormatException e) {
+                // The original printed one stderr line here; left out so the benchmark measures the scan
+            }
+        }
+        Map<String, Double> averages = new HashMap<>();
+        for (Map.Entry<String, double[]> entry : grades.entrySet()) {
+            double[] data = entry.getValue();
+            averages.put(entry.getKey(), data[1] > 0 ? data[0] / data[1] : 0.0);
+        }
+        return averages;
+    }
+
+    @Benchmark
+    public GradeSummary columnarSingleThread(Columnar state) {
+        return GradeAggregator.aggregate(state.dataset, state.singleThread);
+    }
+
+    @Benchmark
+    public GradeSummary columnarParallel(Columnar state) {
+        return GradeAggregator.aggregate(state.dataset);
+    }
+
+    @Benchmark
+    public GroupByResult groupByDepartmentAndGrade(Columnar state) {
+        return GroupBy.compute(state.dataset, new String[]{"Department", GradeAggregator.GRADE_COLUMN},
+                "Study Hours", Aggregate.MEAN, 0);
+    }
+
+    @Benchmark
+    public GroupByResult medianByDepartment(Columnar state) {
+        return GroupBy.compute(state.dataset, new String[]{"Department"}, "Study Hours", Aggregate.MEDIAN, 0);
+    }
+}
@@ -0,0 +1,129 @@
+package test.bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import test.analysis.GradeAggregator;
+import test.analysis.GradeReport;
+import test.data.DatasetExporter;
+import test.data.ExportFormat;
+import test.data.StudentDataset;
+
+/**
+ * {@code downloadCSV()} output: the original unbuffered {@link FileWriter} loop against
+ * {@link GradeReport#writeCsv} on a buffered writer, and full-dataset export in each
+ * {@link ExportFormat} against a {@code String.join} per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ExportBenchmark {
+
+    private Map<String, Double> averages;
+    private File target;
+
+    @Setup
+    public void setUp() throws IOException {
+        averages = GradeAggregator.aggregate(SyntheticData.dataset(5000)).getAverages();
+        target = File.createTempFile("GradevsAttendance", ".csv");
+    }
+
+    @TearDown
+    public void tearDown() {
+        target.delete();
+    }
+
+    @State(Scope.Benchmark)
+    public static class Dataset {
+        @Param({"5000", "1000000", "50000000"})
+        public int rows;
+
+        StudentDataset dataset;
+        File target;
+
+        @Setup
+        public void setUp() throws IOException {
+            dataset = SyntheticData.dataset(rows);
+            target = File.createTempFile("students", ".export");
+        }
+
+        @TearDown
+        public void tearDown() {
+            target.delete();
+        }
+    }
+
+    @Benchmark
+    public void unbufferedFileWriter() throws IOException {
+        try (FileWriter writer = new FileWriter(target)) {
+            writer.write("Grades,Average Attendance (%)\n");
+            for (Map.Entry<String, Double> entry : averages.entrySet()) {
+                writer.write(entry.getKey() + "," + String.format("%.3f", entry.getValue()) + "\n");
+            }
+            writer.write("\n\n");
+            writer.write(GradeReport.formatSummary(averages));
+        }
+    }
+
+    @Benchmark
+    public void gradeReport() throws IOException {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8))) {
+            GradeReport.writeCsv(writer, averages);
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void joinedRows(Dataset state) throws IOException {
+        StudentDataset dataset = state.dataset;
+        try (Writer writer = new BufferedWriter(new FileWriter(state.target))) {
+            String[] cells = new String[dataset.getColumnCount()];
+            for (int row = 0; row < dataset.getRowCount(); row++) {
+                for (int column = 0; column < cells.length; column++) {
+                    cells[column] = String.valueOf(dataset.getValue(row, column));
+                }
+                writer.write(String.join(",", cells));
+                writer.write("\n");
+            }
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int exportCsv(Dataset state) throws IOException {
+        return DatasetExporter.export(state.dataset, null, state.target, ExportFormat.CSV, percent -> { });
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int exportGzip(Dataset state) throws IOException {
+        return DatasetExporter.export(state.dataset, null, state.target, ExportFormat.CSV_GZIP, percent -> { });
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int exportColumnar(Dataset state) throws IOException {
+        return DatasetExporter.export(state.dataset, null, state.target, ExportFormat.COLUMNAR, percent -> { });
+    }
+}
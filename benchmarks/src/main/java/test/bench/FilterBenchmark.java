@@ -0,0 +1,99 @@
+package test.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.swing.table.DefaultTableModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import test.analysis.GradeAggregator;
+import test.data.NumberColumn;
+import test.data.StudentDataset;
+import test.data.StudentFields;
+
+/**
+ * Missing-attendance filter: the original per-cell parse with {@code NumberFormatException} as
+ * control flow against a scan of the primitive attendance column. Both collect the matching rows
+ * into a two-column {@link DefaultTableModel}, as {@code filterMissingAttendance()} does.
+ * <p>
+ * Like the other table-model baselines, the per-cell filter stops at a million rows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FilterBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Columnar {
+        @Param({"5000", "1000000", "50000000"})
+        public int rows;
+
+        StudentDataset dataset;
+
+        @Setup
+        public void setUp() throws IOException {
+            dataset = SyntheticData.dataset(rows);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Legacy {
+        @Param({"5000", "1000000"})
+        public int rows;
+
+        DefaultTableModel tableModel;
+
+        @Setup
+        public void setUp() throws IOException {
+            tableModel = SyntheticData.tableModel(rows);
+        }
+    }
+
+    @Benchmark
+    public DefaultTableModel tableModelFilter(Legacy state) {
+        DefaultTableModel tableModel = state.tableModel;
+        int attendanceIndex = tableModel.findColumn(GradeAggregator.ATTENDANCE_COLUMN);
+        int studentIdIndex = tableModel.findColumn("Student ID");
+        int gradeIndex = tableModel.findColumn(GradeAggregator.GRADE_COLUMN);
+        DefaultTableModel missingDataModel = new DefaultTableModel(new String[]{"Student ID", "Grade"}, 0);
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            Object attendanceValueObj = tableModel.getValueAt(i, attendanceIndex);
+            String attendanceValue = attendanceValueObj != null ? attendanceValueObj.toString().trim() : "";
+            try {
+                if (attendanceValue.isEmpty() || Double.parseDouble(attendanceValue) < 0) {
+                    missingDataModel.addRow(new Object[]{tableModel.getValueAt(i, studentIdIndex), tableModel.getValueAt(i, gradeIndex)});
+                }
+            } catch (NumberFormatException e) {
+                missingDataModel.addRow(new Object[]{tableModel.getValueAt(i, studentIdIndex), tableModel.getValueAt(i, gradeIndex)});
+            }
+        }
+        return missingDataModel;
+    }
+
+    @Benchmark
+    public DefaultTableModel columnarFilter(Columnar state) {
+        StudentDataset dataset = state.dataset;
+        StudentFields fields = dataset.getFields();
+        NumberColumn attendanceColumn = fields.attendance();
+        int studentIdIndex = fields.studentIdIndex();
+        int gradeIndex = fields.gradeIndex();
+        DefaultTableModel missingDataModel = new DefaultTableModel(new String[]{"Student ID", "Grade"}, 0);
+        for (int i = 0; i < dataset.getRowCount(); i++) {
+            double attendance = attendanceColumn.get(i);
+            if (Double.isNaN(attendance) || attendance < 0) {
+                missingDataModel.addRow(new Object[]{dataset.getValue(i, studentIdIndex), dataset.getValue(i, gradeIndex)});
+            }
+        }
+        return missingDataModel;
+    }
+}
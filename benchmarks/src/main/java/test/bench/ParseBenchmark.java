@@ -0,0 +1,89 @@
+package test.bench;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import test.analysis.GradeAggregator;
+import test.data.CsvParser;
+import test.data.StudentDataset;
+
+/**
+ * Load path: the original {@code readLine()} + {@code split(",")} loop against the memory-mapped
+ * parser, and full versus projected loads into a {@link StudentDataset}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ParseBenchmark {
+
+    private static final int ATTENDANCE_FIELD = 7;
+
+    @Param({"5000", "1000000", "50000000"})
+    public int rows;
+
+    private File file;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = SyntheticData.csv(rows);
+    }
+
+    @Benchmark
+    public double splitLines() throws IOException {
+        double sum = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",");
+                try {
+                    sum += Double.parseDouble(values[ATTENDANCE_FIELD]);
+                } catch (NumberFormatException e) {
+                    // Blank attendance, as in the original processCSV()
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double mappedParser() throws IOException {
+        double[] sum = new double[1];
+        CsvParser.parse(file, record -> {
+            double value = record.getDouble(ATTENDANCE_FIELD);
+            if (!Double.isNaN(value)) {
+                sum[0] += value;
+            }
+            return true;
+        });
+        return sum[0];
+    }
+
+    @Benchmark
+    public StudentDataset loadDataset() throws IOException {
+        return StudentDataset.read(file);
+    }
+
+    @Benchmark
+    public StudentDataset loadProjected() throws IOException {
+        return StudentDataset.read(file,
+                StudentDataset.forStudentSchema(GradeAggregator.GRADE_COLUMN, GradeAggregator.ATTENDANCE_COLUMN));
+    }
+}
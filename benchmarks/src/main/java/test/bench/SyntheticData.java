@@ -0,0 +1,126 @@
+package test.bench;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import javax.swing.table.DefaultTableModel;
+import test.data.StudentDataset;
+
+/**
+ * Generates synthetic student grading exports with the 23 columns of
+ * {@code Students_Grading_Dataset(in).csv}, including the blank cells the real exports contain
+ * (about 10% of attendance, assignment and parent education values). Output is deterministic and
+ * cached in {@code java.io.tmpdir} per row count, so a 50M-row file (about 7 GB) is only written once.
+ */
+final class SyntheticData {
+
+    private static final String HEADER = "Student_ID,First_Name,Last_Name,Email,Gender,Age,Department,Attendance (%),"
+            + "Midterm_Score,Final_Score,Assignments_Avg,Quizzes_Avg,Participation_Score,Projects_Score,Total_Score,"
+            + "Grade,Study_Hours_per_Week,Extracurricular_Activities,Internet_Access_at_Home,Parent_Education_Level,"
+            + "Family_Income_Level,Stress_Level (1-10),Sleep_Hours_per_Night";
+    private static final String[] FIRST_NAMES = {"Omar", "Maria", "Ahmed", "John", "Liam", "Sara", "Emma", "Ali", "Noah", "Ava"};
+    private static final String[] LAST_NAMES = {"Williams", "Brown", "Jones", "Smith", "Davis", "Johnson", "Kim", "Garcia"};
+    private static final String[] DEPARTMENTS = {"Engineering", "CS", "Business", "Mathematics"};
+    private static final String[] GRADES = {"A", "B", "C", "D", "F"};
+    private static final String[] EDUCATION = {"None", "High School", "Bachelor's", "Master's", "PhD"};
+    private static final String[] INCOME = {"Low", "Medium", "High"};
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Returns a CSV file with a header and {@code rows} data rows, generating it on first use.
+     */
+    static File csv(int rows) throws IOException {
+        File file = new File(System.getProperty("java.io.tmpdir"), "students-" + rows + ".csv");
+        if (file.isFile()) {
+            return file;
+        }
+        File partial = new File(file.getPath() + ".tmp");
+        Random random = new Random(rows);
+        StringBuilder line = new StringBuilder(256);
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(partial.toPath(), StandardCharsets.UTF_8), 1 << 20)) {
+            writer.write(HEADER);
+            writer.write("\r\n");
+            for (int i = 0; i < rows; i++) {
+                line.setLength(0);
+                appendRow(line, i, random);
+                writer.append(line);
+            }
+        }
+        Files.move(partial.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    /**
+     * Loads {@code rows} synthetic rows into a new dataset.
+     */
+    static StudentDataset dataset(int rows) throws IOException {
+        return StudentDataset.read(csv(rows));
+    }
+
+    /**
+     * Loads {@code rows} synthetic rows into a {@link DefaultTableModel} the way the original
+     * {@code loadCSV()} did. Needs roughly 1.5 KB of heap per row.
+     */
+    static DefaultTableModel tableModel(int rows) throws IOException {
+        DefaultTableModel model = new DefaultTableModel(StudentDataset.STUDENT_COLUMNS, 0);
+        try (java.io.BufferedReader reader = Files.newBufferedReader(csv(rows).toPath(), StandardCharsets.UTF_8)) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                model.addRow(line.split(","));
+            }
+        }
+        return model;
+    }
+
+    private static void appendRow(StringBuilder line, int i, Random random) {
+        line.append('S').append(1000 + i).append(',');
+        line.append(pick(FIRST_NAMES, random)).append(',');
+        line.append(pick(LAST_NAMES, random)).append(',');
+        line.append("student").append(i).append("@university.com,");
+        line.append(random.nextBoolean() ? "Male" : "Female").append(',');
+        line.append(18 + random.nextInt(7)).append(',');
+        line.append(pick(DEPARTMENTS, random)).append(',');
+        appendOptional(line, random, 5000, 10000);
+        appendFixed(line, random, 4000, 10000);
+        appendFixed(line, random, 4000, 10000);
+        appendOptional(line, random, 6000, 10000);
+        appendFixed(line, random, 5000, 10000);
+        appendFixed(line, random, 0, 1000);
+        appendFixed(line, random, 5000, 10000);
+        appendFixed(line, random, 5000, 10000);
+        line.append(pick(GRADES, random)).append(',');
+        appendFixed(line, random, 500, 3000);
+        line.append(random.nextBoolean() ? "Yes" : "No").append(',');
+        line.append(random.nextInt(10) == 0 ? "No" : "Yes").append(',');
+        line.append(random.nextInt(10) == 0 ? "" : pick(EDUCATION, random)).append(',');
+        line.append(pick(INCOME, random)).append(',');
+        line.append(1 + random.nextInt(10)).append(',');
+        line.append(4 + random.nextInt(6)).append('.').append(random.nextInt(10)).append("\r\n");
+    }
+
+    private static void appendOptional(StringBuilder line, Random random, int minHundredths, int maxHundredths) {
+        if (random.nextInt(10) == 0) {
+            line.append(',');
+        } else {
+            appendFixed(line, random, minHundredths, maxHundredths);
+        }
+    }
+
+    private static void appendFixed(StringBuilder line, Random random, int minHundredths, int maxHundredths) {
+        int value = minHundredths + random.nextInt(maxHundredths - minHundredths + 1);
+        int fraction = value % 100;
+        line.append(value / 100).append('.').append(fraction < 10 ? "0" : "").append(fraction).append(',');
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,33 @@
+package test.analysis;
+
+/**
+ * Aggregate functions supported by {@link GroupBy}.
+ */
+public enum Aggregate {
+    COUNT("Count"),
+    SUM("Sum"),
+    MEAN("Mean"),
+    MIN("Min"),
+    MAX("Max"),
+    STDDEV("Std. deviation"),
+    MEDIAN("Median"),
+    PERCENTILE("Percentile");
+
+    private final String label;
+
+    Aggregate(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns true if the function needs every value of a group rather than running totals.
+     */
+    public boolean isOrderStatistic() {
+        return this == MEDIAN || this == PERCENTILE;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,42 @@
+package test.analysis;
+
+/**
+ * Distribution of the attendance values of one grade: running statistics, a histogram over
+ * 0-100 % in {@link #BIN_COUNT} bins and a {@link QuantileSketch}. Partial results computed over
+ * separate row ranges can be combined with {@link #merge(AttendanceDistribution)}.
+ */
+public class AttendanceDistribution {
+
+    public static final int BIN_COUNT = 20;
+
+    private final GradeData statistics = new GradeData();
+    private final Histogram histogram = new Histogram(0.0, 100.0, BIN_COUNT);
+    private final QuantileSketch quantiles = new QuantileSketch();
+
+    public void add(double attendance) {
+        statistics.add(attendance);
+        histogram.add(attendance);
+        quantiles.add(attendance);
+    }
+
+    public void merge(AttendanceDistribution other) {
+        statistics.merge(other.statistics);
+        histogram.merge(other.histogram);
+        quantiles.merge(other.quantiles);
+    }
+
+    public GradeData getStatistics() {
+        return statistics;
+    }
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Returns an estimate of the {@code q}-quantile of attendance, or NaN if there are no values.
+     */
+    public double getQuantile(double q) {
+        return quantiles.quantile(q);
+    }
+}
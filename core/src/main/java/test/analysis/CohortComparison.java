@@ -0,0 +1,78 @@
+package test.analysis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import test.data.DatasetCatalog;
+import test.data.StudentDataset;
+
+/**
+ * Attendance by grade for each dataset of a {@link DatasetCatalog}, taken as successive terms in
+ * catalog order, with the change of each grade's average from the term before.
+ * <p>
+ * The terms are aggregated by {@link GradeAggregator} in parallel, and the chunks of every term
+ * share the common fork-join pool, so a small term does not wait for a large one.
+ */
+public final class CohortComparison {
+
+    private final List<String> terms;
+    private final GradeSummary[] summaries;
+
+    private CohortComparison(List<String> terms, GradeSummary[] summaries) {
+        this.terms = Collections.unmodifiableList(terms);
+        this.summaries = summaries;
+    }
+
+    /**
+     * Aggregates every dataset of the catalog.
+     *
+     * @throws IllegalArgumentException if a dataset has no grade or attendance column
+     */
+    public static CohortComparison compute(DatasetCatalog catalog) {
+        Map<String, StudentDataset> datasets = catalog.getDatasets();
+        List<String> terms = new ArrayList<>(datasets.keySet());
+        List<StudentDataset> values = new ArrayList<>(datasets.values());
+        GradeSummary[] summaries = IntStream.range(0, values.size()).parallel()
+                .mapToObj(term -> GradeAggregator.aggregate(values.get(term)))
+                .toArray(GradeSummary[]::new);
+        return new CohortComparison(terms, summaries);
+    }
+
+    /**
+     * Returns the term names, oldest first.
+     */
+    public List<String> getTerms() {
+        return terms;
+    }
+
+    public GradeSummary getSummary(int term) {
+        return summaries[term];
+    }
+
+    public long getCount(int term, String grade) {
+        GradeData data = summaries[term].getGrades().get(grade);
+        return data != null ? data.getCount() : 0;
+    }
+
+    /**
+     * Returns the average attendance of {@code grade} in {@code term}, or NaN if the term has no
+     * valid attendance for it.
+     */
+    public double getAverage(int term, String grade) {
+        GradeData data = summaries[term].getGrades().get(grade);
+        return data != null && data.getCount() > 0 ? data.getAverage() : Double.NaN;
+    }
+
+    /**
+     * Returns how much the average attendance of {@code grade} changed from the term before
+     * {@code term}, or NaN for the first term or if either term has no average for it.
+     */
+    public double getDelta(int term, String grade) {
+        if (term == 0) {
+            return Double.NaN;
+        }
+        return getAverage(term, grade) - getAverage(term - 1, grade);
+    }
+}
@@ -0,0 +1,134 @@
+package test.analysis;
+
+/**
+ * Streaming Pearson and Spearman correlation of paired values in bounded memory. Pearson's r is
+ * computed exactly from running co-moments. Spearman's rho is computed from a joint histogram of
+ * {@link #RANK_BINS} by {@link #RANK_BINS} cells over a fixed range: values in the same bin share
+ * their mid-rank as if tied, which is close to the exact coefficient when the bins are narrow
+ * compared to the spread of the data. Values outside the range are ranked with the first or last
+ * bin. Correlations of separate row ranges can be combined with {@link #merge(Correlation)}.
+ */
+public class Correlation {
+
+    public static final int RANK_BINS = 200;
+
+    private final double min;
+    private final double max;
+    private final long[] joint = new long[RANK_BINS * RANK_BINS];
+    private long count;
+    private double meanX;
+    private double meanY;
+    private double m2X;
+    private double m2Y;
+    private double coMoment;
+
+    /**
+     * Creates a correlation whose Spearman ranks are binned over {@code [min, max]} for both values.
+     */
+    public Correlation(double min, double max) {
+        this.min = min;
+        this.max = max;
+    }
+
+    public void add(double x, double y) {
+        count++;
+        double dx = x - meanX;
+        meanX += dx / count;
+        double dy = y - meanY;
+        meanY += dy / count;
+        m2X += dx * (x - meanX);
+        m2Y += dy * (y - meanY);
+        coMoment += dx * (y - meanY);
+        joint[bin(x) * RANK_BINS + bin(y)]++;
+    }
+
+    /**
+     * Adds the pairs of {@code other}, which must have the same range.
+     */
+    public void merge(Correlation other) {
+        if (other.min != min || other.max != max) {
+            throw new IllegalArgumentException("Correlations have different ranges");
+        }
+        if (other.count == 0) {
+            return;
+        }
+        long n = count + other.count;
+        double dx = other.meanX - meanX;
+        double dy = other.meanY - meanY;
+        double weight = (double) count * other.count / n;
+        m2X += other.m2X + dx * dx * weight;
+        m2Y += other.m2Y + dy * dy * weight;
+        coMoment += other.coMoment + dx * dy * weight;
+        meanX += dx * other.count / n;
+        meanY += dy * other.count / n;
+        count = n;
+        for (int i = 0; i < joint.length; i++) {
+            joint[i] += other.joint[i];
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns Pearson's r, or NaN if there are fewer than two pairs or either value is constant.
+     */
+    public double getPearson() {
+        return count > 1 && m2X > 0 && m2Y > 0 ? coMoment / Math.sqrt(m2X * m2Y) : Double.NaN;
+    }
+
+    /**
+     * Returns Spearman's rho over the binned ranks, or NaN if there are fewer than two pairs or
+     * either value falls in a single bin.
+     */
+    public double getSpearman() {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        long[] xCounts = new long[RANK_BINS];
+        long[] yCounts = new long[RANK_BINS];
+        for (int i = 0; i < RANK_BINS; i++) {
+            for (int j = 0; j < RANK_BINS; j++) {
+                long cell = joint[i * RANK_BINS + j];
+                xCounts[i] += cell;
+                yCounts[j] += cell;
+            }
+        }
+        double meanRank = (count + 1) / 2.0;
+        double[] xRanks = midRanks(xCounts, meanRank);
+        double[] yRanks = midRanks(yCounts, meanRank);
+        double sumXY = 0;
+        double sumXX = 0;
+        double sumYY = 0;
+        for (int i = 0; i < RANK_BINS; i++) {
+            sumXX += xCounts[i] * xRanks[i] * xRanks[i];
+            sumYY += yCounts[i] * yRanks[i] * yRanks[i];
+            for (int j = 0; j < RANK_BINS; j++) {
+                long cell = joint[i * RANK_BINS + j];
+                if (cell != 0) {
+                    sumXY += cell * xRanks[i] * yRanks[j];
+                }
+            }
+        }
+        return sumXX > 0 && sumYY > 0 ? sumXY / Math.sqrt(sumXX * sumYY) : Double.NaN;
+    }
+
+    /**
+     * Returns each bin's mid-rank minus the mean rank.
+     */
+    private static double[] midRanks(long[] counts, double meanRank) {
+        double[] ranks = new double[counts.length];
+        long before = 0;
+        for (int i = 0; i < counts.length; i++) {
+            ranks[i] = before + (counts[i] + 1) / 2.0 - meanRank;
+            before += counts[i];
+        }
+        return ranks;
+    }
+
+    private int bin(double value) {
+        int bin = (int) ((value - min) / (max - min) * RANK_BINS);
+        return Math.max(0, Math.min(RANK_BINS - 1, bin));
+    }
+}
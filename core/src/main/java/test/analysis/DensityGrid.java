@@ -0,0 +1,273 @@
+package test.analysis;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import test.data.CategoryColumn;
+import test.data.NumberColumn;
+import test.data.StudentDataset;
+import test.data.StudentFields;
+
+/**
+ * Counts of students in a grid of equal-size cells over a range of attendance and
+ * {@link DistributionAggregator#SCORE_COLUMN}, kept per grade so a cell can be coloured by the
+ * grades in it. A chart draws one cell per few pixels instead of one shape per student, so it stays
+ * responsive however many rows there are; re-binning the visible range on zoom, through a
+ * {@link DensitySource}, brings back the detail.
+ * <p>
+ * Unlike {@link Histogram}, points outside the range are not counted, since a zoomed view should
+ * not pile them up on its edges. Rows with missing or non-numeric attendance or score are skipped.
+ * A dataset is binned in parallel in one slice of rows per thread of the pool, each into a grid of
+ * its own, and the grids are merged; a grid takes as much memory as several thousand rows, so it is
+ * not worth one per chunk as {@link GradeAggregator} has.
+ */
+public final class DensityGrid {
+
+    /** Bounds of both axes that take in every valid attendance and score. */
+    public static final double MIN_PERCENT = 0.0;
+    public static final double MAX_PERCENT = 100.0;
+
+    // Smaller datasets are binned by fewer threads than the pool has
+    private static final int MIN_SLICE_SIZE = 1 << 18;
+
+    private final double xMin;
+    private final double xMax;
+    private final double yMin;
+    private final double yMax;
+    private final int columns;
+    private final int rows;
+    private final int[][] counts;
+    private final int[] cellCounts;
+    private int maxCount;
+    private long total;
+
+    /**
+     * Creates an empty grid of {@code columns} cells across attendance {@code xMin} to {@code xMax}
+     * and {@code rows} cells across score {@code yMin} to {@code yMax}.
+     */
+    public DensityGrid(double xMin, double xMax, double yMin, double yMax, int columns, int rows) {
+        if (!(xMax > xMin) || !(yMax > yMin) || columns < 1 || rows < 1) {
+            throw new IllegalArgumentException("Invalid density grid range or size");
+        }
+        this.xMin = xMin;
+        this.xMax = xMax;
+        this.yMin = yMin;
+        this.yMax = yMax;
+        this.columns = columns;
+        this.rows = rows;
+        this.counts = new int[GradeAggregator.GRADES.length + 1][columns * rows];
+        this.cellCounts = new int[columns * rows];
+    }
+
+    /**
+     * Bins the rows of the dataset that fall in the given range on the common pool.
+     *
+     * @throws IllegalArgumentException if the dataset has no grade, attendance or score column
+     */
+    public static DensityGrid compute(StudentDataset dataset, double xMin, double xMax, double yMin, double yMax, int columns, int rows) {
+        return compute(dataset, xMin, xMax, yMin, yMax, columns, rows, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Bins the rows of the dataset that fall in the given range on the given pool.
+     *
+     * @throws IllegalArgumentException if the dataset has no grade, attendance or score column
+     */
+    public static DensityGrid compute(StudentDataset dataset, double xMin, double xMax, double yMin, double yMax, int columns, int rows,
+                                      ForkJoinPool pool) {
+        StudentFields fields = dataset.getFields();
+        CategoryColumn gradeColumn = fields.grade();
+        NumberColumn attendanceColumn = fields.attendance();
+        NumberColumn scoreColumn = fields.score();
+        if (gradeColumn == null || attendanceColumn == null || scoreColumn == null) {
+            throw new IllegalArgumentException("Missing required columns: " + GradeAggregator.GRADE_COLUMN + ", "
+                    + GradeAggregator.ATTENDANCE_COLUMN + ", " + DistributionAggregator.SCORE_COLUMN);
+        }
+
+        int codeCount = gradeColumn.getDictionary().size();
+        int[] gradeOfCode = new int[codeCount];
+        for (int code = 0; code < codeCount; code++) {
+            gradeOfCode[code] = gradeIndex(gradeColumn.getDictionary().get(code));
+        }
+        DensityGrid shape = new DensityGrid(xMin, xMax, yMin, yMax, columns, rows);
+        int rowCount = dataset.getRowCount();
+        int slices = Math.max(1, Math.min(pool.getParallelism(), (rowCount + MIN_SLICE_SIZE - 1) / MIN_SLICE_SIZE));
+        return pool.invoke(new SliceTask(shape, gradeColumn, attendanceColumn, scoreColumn, gradeOfCode, 0, rowCount, slices));
+    }
+
+    /**
+     * Returns a source that bins the dataset afresh for each range asked for. The dataset is read on
+     * the thread that asks, so it must not change meanwhile; pass a {@link StudentDataset#snapshot()}
+     * of a dataset that does.
+     */
+    public static DensitySource sourceOf(StudentDataset dataset) {
+        return (xMin, xMax, yMin, yMax, columns, rows) -> compute(dataset, xMin, xMax, yMin, yMax, columns, rows);
+    }
+
+    /**
+     * Returns a source that always answers with this grid, for data that cannot be binned again,
+     * such as a file that was streamed once.
+     */
+    public DensitySource asSource() {
+        return (xMin, xMax, yMin, yMax, columns, rows) -> this;
+    }
+
+    /**
+     * Returns the position of {@code grade} in {@link GradeAggregator#GRADES}, or -1 for any other
+     * grade.
+     */
+    public static int gradeIndex(String grade) {
+        for (int i = 0; i < GradeAggregator.GRADES.length; i++) {
+            if (GradeAggregator.GRADES[i].equals(grade)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds one point; {@code grade} is its position in {@link GradeAggregator#GRADES}, or -1 for any
+     * other grade. Points that are NaN or outside the range are ignored.
+     */
+    public void add(double attendance, double score, int grade) {
+        if (!(attendance >= xMin && attendance <= xMax && score >= yMin && score <= yMax)) {
+            return;
+        }
+        int column = Math.min(columns - 1, (int) ((attendance - xMin) / (xMax - xMin) * columns));
+        int row = Math.min(rows - 1, (int) ((score - yMin) / (yMax - yMin) * rows));
+        int cell = row * columns + column;
+        counts[grade >= 0 ? grade : GradeAggregator.GRADES.length][cell]++;
+        maxCount = Math.max(maxCount, ++cellCounts[cell]);
+        total++;
+    }
+
+    /**
+     * Adds the counts of {@code other}, which must have the same range and cells.
+     */
+    public void merge(DensityGrid other) {
+        if (other.xMin != xMin || other.xMax != xMax || other.yMin != yMin || other.yMax != yMax
+                || other.columns != columns || other.rows != rows) {
+            throw new IllegalArgumentException("Density grids have different cells");
+        }
+        for (int grade = 0; grade < counts.length; grade++) {
+            int[] target = counts[grade];
+            int[] source = other.counts[grade];
+            for (int cell = 0; cell < target.length; cell++) {
+                target[cell] += source[cell];
+            }
+        }
+        maxCount = 0;
+        for (int cell = 0; cell < cellCounts.length; cell++) {
+            cellCounts[cell] += other.cellCounts[cell];
+            maxCount = Math.max(maxCount, cellCounts[cell]);
+        }
+        total += other.total;
+    }
+
+    public double getMinAttendance() {
+        return xMin;
+    }
+
+    public double getMaxAttendance() {
+        return xMax;
+    }
+
+    public double getMinScore() {
+        return yMin;
+    }
+
+    public double getMaxScore() {
+        return yMax;
+    }
+
+    /**
+     * Returns the number of cells across attendance.
+     */
+    public int getColumnCount() {
+        return columns;
+    }
+
+    /**
+     * Returns the number of cells across score; row 0 holds the lowest scores.
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of points in a cell.
+     */
+    public int getCount(int column, int row) {
+        return cellCounts[row * columns + column];
+    }
+
+    /**
+     * Returns the number of points of one grade in a cell; {@code grade} is a position in
+     * {@link GradeAggregator#GRADES}, or -1 for the other grades.
+     */
+    public int getCount(int grade, int column, int row) {
+        return counts[grade >= 0 ? grade : GradeAggregator.GRADES.length][row * columns + column];
+    }
+
+    /**
+     * Returns the number of points in the fullest cell.
+     */
+    public int getMaxCount() {
+        return maxCount;
+    }
+
+    /**
+     * Returns the number of points in the grid.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    private static final class SliceTask extends RecursiveTask<DensityGrid> {
+
+        private final DensityGrid shape;
+        private final CategoryColumn gradeColumn;
+        private final NumberColumn attendanceColumn;
+        private final NumberColumn scoreColumn;
+        private final int[] gradeOfCode;
+        private final int from;
+        private final int to;
+        private final int slices;
+
+        SliceTask(DensityGrid shape, CategoryColumn gradeColumn, NumberColumn attendanceColumn, NumberColumn scoreColumn,
+                  int[] gradeOfCode, int from, int to, int slices) {
+            this.shape = shape;
+            this.gradeColumn = gradeColumn;
+            this.attendanceColumn = attendanceColumn;
+            this.scoreColumn = scoreColumn;
+            this.gradeOfCode = gradeOfCode;
+            this.from = from;
+            this.to = to;
+            this.slices = slices;
+        }
+
+        @Override
+        protected DensityGrid compute() {
+            if (slices == 1) {
+                return accumulate();
+            }
+            int leftSlices = slices / 2;
+            int middle = (int) (from + (long) (to - from) * leftSlices / slices);
+            SliceTask left = new SliceTask(shape, gradeColumn, attendanceColumn, scoreColumn, gradeOfCode, from, middle, leftSlices);
+            SliceTask right = new SliceTask(shape, gradeColumn, attendanceColumn, scoreColumn, gradeOfCode, middle, to, slices - leftSlices);
+            left.fork();
+            DensityGrid result = right.compute();
+            DensityGrid leftResult = left.join();
+            leftResult.merge(result);
+            return leftResult;
+        }
+
+        private DensityGrid accumulate() {
+            DensityGrid grid = new DensityGrid(shape.xMin, shape.xMax, shape.yMin, shape.yMax, shape.columns, shape.rows);
+            for (int i = from; i < to; i++) {
+                int code = gradeColumn.getCode(i);
+                grid.add(attendanceColumn.get(i), scoreColumn.get(i), code < gradeOfCode.length ? gradeOfCode[code] : -1);
+            }
+            return grid;
+        }
+    }
+}
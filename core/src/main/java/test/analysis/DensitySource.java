@@ -0,0 +1,15 @@
+package test.analysis;
+
+/**
+ * Supplies the {@link DensityGrid} of a range of attendance and score, so a chart can ask for finer
+ * cells as it zooms in.
+ */
+@FunctionalInterface
+public interface DensitySource {
+
+    /**
+     * Returns a grid of about {@code columns} by {@code rows} cells over the given range. A source
+     * that cannot re-bin may return a grid of another range or size.
+     */
+    DensityGrid getGrid(double xMin, double xMax, double yMin, double yMax, int columns, int rows);
+}
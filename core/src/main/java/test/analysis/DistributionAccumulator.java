@@ -0,0 +1,55 @@
+package test.analysis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Accumulates the same distributions as {@link DistributionAggregator} one row at a time, for files
+ * that are streamed rather than loaded into a {@link test.data.StudentDataset}. Memory stays fixed
+ * however many rows are added.
+ */
+public class DistributionAccumulator {
+
+    private final Map<String, AttendanceDistribution> grades = new LinkedHashMap<>();
+    private final Correlation correlation = DistributionAggregator.newCorrelation();
+    private long invalidRows;
+
+    public DistributionAccumulator() {
+        for (String grade : GradeAggregator.GRADES) {
+            grades.put(grade, new AttendanceDistribution());
+        }
+    }
+
+    /**
+     * Adds one row; {@code attendance} and {@code score} are NaN if the value was missing or not a
+     * number.
+     */
+    public void add(String grade, double attendance, double score) {
+        if (Double.isNaN(attendance)) {
+            invalidRows++;
+            return;
+        }
+        AttendanceDistribution distribution = grades.get(grade);
+        if (distribution != null) {
+            distribution.add(attendance);
+        }
+        if (!Double.isNaN(score)) {
+            correlation.add(attendance, score);
+        }
+    }
+
+    /**
+     * Returns a summary of the rows added so far. Later additions do not affect it.
+     */
+    public DistributionSummary toSummary() {
+        Map<String, AttendanceDistribution> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, AttendanceDistribution> entry : grades.entrySet()) {
+            AttendanceDistribution distribution = new AttendanceDistribution();
+            distribution.merge(entry.getValue());
+            copy.put(entry.getKey(), distribution);
+        }
+        Correlation correlationCopy = DistributionAggregator.newCorrelation();
+        correlationCopy.merge(correlation);
+        return new DistributionSummary(copy, correlationCopy, invalidRows);
+    }
+}
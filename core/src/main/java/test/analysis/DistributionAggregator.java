@@ -0,0 +1,153 @@
+package test.analysis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import test.data.CategoryColumn;
+import test.data.NumberColumn;
+import test.data.StudentDataset;
+import test.data.StudentFields;
+
+/**
+ * Computes the attendance distribution of each grade and the correlation between attendance and
+ * {@link #SCORE_COLUMN} over a {@link StudentDataset} in a single pass. As in {@link DensityGrid},
+ * the rows are split into one slice per thread of the {@link ForkJoinPool}, each accumulated into a
+ * partial result of its own, and the partials merged. A partial holds a joint histogram and a sketch
+ * buffer per grade, which cost as much to fill and merge as tens of thousands of rows, so there are
+ * no more of them than threads; every partial has a fixed size, so memory does not grow with the
+ * number of rows.
+ * <p>
+ * Rows with missing or non-numeric attendance are counted as invalid and skipped, and rows without
+ * a numeric score are left out of the correlation only.
+ */
+public final class DistributionAggregator {
+
+    public static final String SCORE_COLUMN = StudentFields.SCORE;
+
+    // Smaller datasets are accumulated by fewer threads than the pool has
+    private static final int MIN_SLICE_SIZE = 1 << 18;
+
+    private DistributionAggregator() {
+    }
+
+    /**
+     * Aggregates the dataset on the common pool.
+     *
+     * @throws IllegalArgumentException if the dataset has no grade or attendance column
+     */
+    public static DistributionSummary aggregate(StudentDataset dataset) {
+        return aggregate(dataset, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Aggregates the dataset on the given pool. Without a score column the correlation is empty.
+     *
+     * @throws IllegalArgumentException if the dataset has no grade or attendance column
+     */
+    public static DistributionSummary aggregate(StudentDataset dataset, ForkJoinPool pool) {
+        StudentFields fields = dataset.getFields();
+        CategoryColumn gradeColumn = fields.grade();
+        NumberColumn attendanceColumn = fields.attendance();
+        NumberColumn scoreColumn = fields.score();
+        if (gradeColumn == null || attendanceColumn == null) {
+            throw new IllegalArgumentException("Missing required columns: " + GradeAggregator.GRADE_COLUMN + ", " + GradeAggregator.ATTENDANCE_COLUMN);
+        }
+
+        int codeCount = gradeColumn.getDictionary().size();
+        int rowCount = dataset.getRowCount();
+        int slices = Math.max(1, Math.min(pool.getParallelism(), (rowCount + MIN_SLICE_SIZE - 1) / MIN_SLICE_SIZE));
+        Partial total = pool.invoke(new SliceTask(gradeColumn, attendanceColumn, scoreColumn, codeCount, 0, rowCount, slices));
+
+        Map<String, AttendanceDistribution> grades = new LinkedHashMap<>();
+        for (String grade : GradeAggregator.GRADES) {
+            int code = gradeColumn.getDictionary().indexOf(grade);
+            grades.put(grade, code >= 0 && code < codeCount ? total.byCode[code] : new AttendanceDistribution());
+        }
+        return new DistributionSummary(grades, total.correlation, total.invalidRows);
+    }
+
+    static Correlation newCorrelation() {
+        return new Correlation(0.0, 100.0);
+    }
+
+    private static final class Partial {
+        final AttendanceDistribution[] byCode;
+        final Correlation correlation = newCorrelation();
+        long invalidRows;
+
+        Partial(int codeCount) {
+            byCode = new AttendanceDistribution[codeCount];
+            for (int i = 0; i < codeCount; i++) {
+                byCode[i] = new AttendanceDistribution();
+            }
+        }
+
+        void merge(Partial other) {
+            for (int i = 0; i < byCode.length; i++) {
+                byCode[i].merge(other.byCode[i]);
+            }
+            correlation.merge(other.correlation);
+            invalidRows += other.invalidRows;
+        }
+    }
+
+    private static final class SliceTask extends RecursiveTask<Partial> {
+
+        private final CategoryColumn gradeColumn;
+        private final NumberColumn attendanceColumn;
+        private final NumberColumn scoreColumn;
+        private final int codeCount;
+        private final int from;
+        private final int to;
+        private final int slices;
+
+        SliceTask(CategoryColumn gradeColumn, NumberColumn attendanceColumn, NumberColumn scoreColumn, int codeCount, int from, int to,
+                  int slices) {
+            this.gradeColumn = gradeColumn;
+            this.attendanceColumn = attendanceColumn;
+            this.scoreColumn = scoreColumn;
+            this.codeCount = codeCount;
+            this.from = from;
+            this.to = to;
+            this.slices = slices;
+        }
+
+        @Override
+        protected Partial compute() {
+            if (slices == 1) {
+                return accumulate();
+            }
+            int leftSlices = slices / 2;
+            int middle = (int) (from + (long) (to - from) * leftSlices / slices);
+            SliceTask left = new SliceTask(gradeColumn, attendanceColumn, scoreColumn, codeCount, from, middle, leftSlices);
+            SliceTask right = new SliceTask(gradeColumn, attendanceColumn, scoreColumn, codeCount, middle, to, slices - leftSlices);
+            left.fork();
+            Partial result = right.compute();
+            Partial leftResult = left.join();
+            leftResult.merge(result);
+            return leftResult;
+        }
+
+        private Partial accumulate() {
+            Partial partial = new Partial(codeCount);
+            AttendanceDistribution[] byCode = partial.byCode;
+            for (int i = from; i < to; i++) {
+                double attendance = attendanceColumn.get(i);
+                if (Double.isNaN(attendance)) {
+                    partial.invalidRows++;
+                    continue;
+                }
+                int code = gradeColumn.getCode(i);
+                if (code < codeCount) {
+                    byCode[code].add(attendance);
+                }
+                double score = scoreColumn != null ? scoreColumn.get(i) : Double.NaN;
+                if (!Double.isNaN(score)) {
+                    partial.correlation.add(attendance, score);
+                }
+            }
+            return partial;
+        }
+    }
+}
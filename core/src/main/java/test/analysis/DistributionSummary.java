@@ -0,0 +1,35 @@
+package test.analysis;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Result of {@link DistributionAggregator} or {@link DistributionAccumulator}: the attendance
+ * distribution of each grade, in grade order, the correlation between attendance and
+ * {@link DistributionAggregator#SCORE_COLUMN}, and the number of rows skipped because their
+ * attendance was missing or not a number.
+ */
+public class DistributionSummary {
+
+    private final Map<String, AttendanceDistribution> grades;
+    private final Correlation correlation;
+    private final long invalidRows;
+
+    DistributionSummary(Map<String, AttendanceDistribution> grades, Correlation correlation, long invalidRows) {
+        this.grades = Collections.unmodifiableMap(grades);
+        this.correlation = correlation;
+        this.invalidRows = invalidRows;
+    }
+
+    public Map<String, AttendanceDistribution> getGrades() {
+        return grades;
+    }
+
+    public Correlation getCorrelation() {
+        return correlation;
+    }
+
+    public long getInvalidRows() {
+        return invalidRows;
+    }
+}
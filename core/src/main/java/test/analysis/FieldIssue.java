@@ -0,0 +1,26 @@
+package test.analysis;
+
+/**
+ * Ways a field of the student export can fail validation, in the order they are checked; a field
+ * only ever gets the first issue that applies.
+ */
+public enum FieldIssue {
+
+    MISSING("Missing"),
+    MALFORMED("Not a number"),
+    OUT_OF_RANGE("Out of range"),
+    UNKNOWN_GRADE("Unknown grade");
+
+    private final String label;
+
+    FieldIssue(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Returns the column heading used in reports.
+     */
+    public String getLabel() {
+        return label;
+    }
+}
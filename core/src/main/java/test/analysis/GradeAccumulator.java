@@ -0,0 +1,49 @@
+package test.analysis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Accumulates attendance by grade one row at a time, for files that are streamed rather than
+ * loaded into a {@link test.data.StudentDataset}. Rows are counted the same way as in
+ * {@link GradeAggregator}: a missing or non-numeric attendance value makes the row invalid, and
+ * rows with a grade outside {@link GradeAggregator#GRADES} are ignored.
+ */
+public class GradeAccumulator {
+
+    private final Map<String, GradeData> grades = new LinkedHashMap<>();
+    private long invalidRows;
+
+    public GradeAccumulator() {
+        for (String grade : GradeAggregator.GRADES) {
+            grades.put(grade, new GradeData());
+        }
+    }
+
+    /**
+     * Adds one row; {@code attendance} is NaN if the value was missing or not a number.
+     */
+    public void add(String grade, double attendance) {
+        if (Double.isNaN(attendance)) {
+            invalidRows++;
+            return;
+        }
+        GradeData data = grades.get(grade);
+        if (data != null) {
+            data.add(attendance);
+        }
+    }
+
+    /**
+     * Returns a summary of the rows added so far. Later additions do not affect it.
+     */
+    public GradeSummary toSummary() {
+        Map<String, GradeData> copy = new LinkedHashMap<>();
+        for (Map.Entry<String, GradeData> entry : grades.entrySet()) {
+            GradeData data = new GradeData();
+            data.merge(entry.getValue());
+            copy.put(entry.getKey(), data);
+        }
+        return new GradeSummary(copy, invalidRows);
+    }
+}
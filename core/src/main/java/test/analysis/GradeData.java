@@ -0,0 +1,74 @@
+package test.analysis;
+
+/**
+ * Running statistics of the attendance values of one grade. Partial results computed over separate
+ * row ranges can be combined with {@link #merge(GradeData)}.
+ */
+public class GradeData {
+
+    double sum;
+    double sumOfSquares;
+    long count;
+    double min = Double.POSITIVE_INFINITY;
+    double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        sum += value;
+        sumOfSquares += value * value;
+        count++;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public void merge(GradeData other) {
+        sum += other.sum;
+        sumOfSquares += other.sumOfSquares;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Returns the mean, or 0 if no values were added.
+     */
+    public double getAverage() {
+        return count > 0 ? sum / count : 0.0;
+    }
+
+    /**
+     * Returns the population variance, or 0 if no values were added.
+     */
+    public double getVariance() {
+        if (count == 0) {
+            return 0.0;
+        }
+        double mean = sum / count;
+        return Math.max(0.0, sumOfSquares / count - mean * mean);
+    }
+
+    /**
+     * Returns the smallest value, or NaN if no values were added.
+     */
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+
+    /**
+     * Returns the largest value, or NaN if no values were added.
+     */
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+}
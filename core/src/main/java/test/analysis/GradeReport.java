@@ -0,0 +1,90 @@
+package test.analysis;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * Text formats of the grade-vs-attendance result shared by the window and the batch report.
+ */
+public final class GradeReport {
+
+    private GradeReport() {
+    }
+
+    /**
+     * Returns the human-readable summary shown by the Summary button.
+     */
+    public static String formatSummary(Map<String, Double> attendanceAverages) {
+        StringBuilder summary = new StringBuilder("Summary:\n");
+        for (Map.Entry<String, Double> entry : attendanceAverages.entrySet()) {
+            summary.append("Students with grade ").append(entry.getKey())
+                    .append(" had an average attendance of ")
+                    .append(String.format("%.3f", entry.getValue())).append("%.\n");
+        }
+        return summary.toString();
+    }
+
+    /**
+     * Returns the attendance distribution of each grade and the attendance/score correlation as a
+     * fixed-width table, shown below the averages in the Summary dialog.
+     */
+    public static String formatDistribution(DistributionSummary distribution) {
+        StringBuilder text = new StringBuilder("Attendance distribution:\n");
+        text.append(String.format("%-6s%9s%8s%8s%8s%8s%8s%8s%8s%n",
+                "Grade", "Students", "Mean", "StdDev", "Min", "P25", "Median", "P75", "Max"));
+        for (Map.Entry<String, AttendanceDistribution> entry : distribution.getGrades().entrySet()) {
+            AttendanceDistribution grade = entry.getValue();
+            GradeData statistics = grade.getStatistics();
+            text.append(String.format("%-6s%9d%8.2f%8.2f%8.2f%8.2f%8.2f%8.2f%8.2f%n",
+                    entry.getKey(), statistics.getCount(), statistics.getAverage(), Math.sqrt(statistics.getVariance()),
+                    statistics.getMin(), grade.getQuantile(0.25), grade.getQuantile(0.5), grade.getQuantile(0.75),
+                    statistics.getMax()));
+        }
+        Correlation correlation = distribution.getCorrelation();
+        text.append(String.format("%nAttendance vs. %s (%d students):%n", DistributionAggregator.SCORE_COLUMN, correlation.getCount()));
+        text.append(String.format("Pearson r = %.4f, Spearman rho = %.4f%n", correlation.getPearson(), correlation.getSpearman()));
+        return text.toString();
+    }
+
+    /**
+     * Returns the counts of invalid fields per column and issue followed by the sampled fields, shown
+     * in the Summary dialog and written to the batch report's summary.
+     */
+    public static String formatValidation(ValidationSummary validation) {
+        StringBuilder text = new StringBuilder(String.format("Validation (%d rows, %d with invalid fields):%n",
+                validation.getRowCount(), validation.getInvalidRows()));
+        text.append(String.format("%-16s", "Column"));
+        for (FieldIssue issue : FieldIssue.values()) {
+            text.append(String.format("%15s", issue.getLabel()));
+        }
+        text.append(String.format("%n"));
+        for (String column : validation.getColumns()) {
+            text.append(String.format("%-16s", column));
+            for (FieldIssue issue : FieldIssue.values()) {
+                text.append(String.format("%15d", validation.getCount(column, issue)));
+            }
+            text.append(String.format("%n"));
+        }
+        if (!validation.getSamples().isEmpty()) {
+            text.append(String.format("%nFirst %d invalid fields:%n", validation.getSamples().size()));
+            for (ValidationSummary.Sample sample : validation.getSamples()) {
+                text.append(String.format("Row %d, %s: %s \"%s\"%n",
+                        sample.getRow(), sample.getColumn(), sample.getIssue().getLabel(), sample.getText()));
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the {@code GradevsAttendance.csv} content: one row per grade followed by the summary.
+     */
+    public static void writeCsv(Writer writer, Map<String, Double> attendanceAverages) throws IOException {
+        writer.write("Grades,Average Attendance (%)\n");
+        for (Map.Entry<String, Double> entry : attendanceAverages.entrySet()) {
+            writer.write(entry.getKey() + "," + String.format("%.3f", entry.getValue()) + "\n");
+        }
+        writer.write("\n\n");
+        writer.write(formatSummary(attendanceAverages));
+    }
+}
@@ -0,0 +1,39 @@
+package test.analysis;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of {@link GradeAggregator}: attendance statistics per grade, in grade order, plus the number
+ * of rows skipped because their attendance was missing or not a number.
+ */
+public class GradeSummary {
+
+    private final Map<String, GradeData> grades;
+    private final long invalidRows;
+
+    GradeSummary(Map<String, GradeData> grades, long invalidRows) {
+        this.grades = Collections.unmodifiableMap(grades);
+        this.invalidRows = invalidRows;
+    }
+
+    public Map<String, GradeData> getGrades() {
+        return grades;
+    }
+
+    /**
+     * Returns the average attendance of each grade; grades without any rows average 0.
+     */
+    public Map<String, Double> getAverages() {
+        Map<String, Double> averages = new LinkedHashMap<>();
+        for (Map.Entry<String, GradeData> entry : grades.entrySet()) {
+            averages.put(entry.getKey(), entry.getValue().getAverage());
+        }
+        return averages;
+    }
+
+    public long getInvalidRows() {
+        return invalidRows;
+    }
+}
@@ -0,0 +1,378 @@
+package test.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+import test.data.CategoryColumn;
+import test.data.NumberColumn;
+import test.data.StudentDataset;
+
+/**
+ * Group-by engine over a {@link StudentDataset}: one or more categorical key columns, one numeric
+ * metric column and an {@link Aggregate} function.
+ * <p>
+ * Because categorical columns are dictionary-encoded, a row's group is a mixed-radix number built
+ * from its key codes. With up to {@link #DENSE_GROUPS} key combinations the accumulators are plain
+ * arrays indexed by that number, and a query is a single primitive pass over the columns with no
+ * hashing; with more, each chunk only keeps the groups it meets, found through an open-addressing
+ * table. Running totals are accumulated in parallel chunks like {@link GradeAggregator}; medians
+ * and percentiles bucket the values by group with a counting sort and then sort each group
+ * independently.
+ * <p>
+ * The radix of each key is its dictionary size when the query starts. As in {@link GradeAggregator},
+ * rows holding a code added after that, as by rows appended meanwhile, are left out.
+ */
+public final class GroupBy {
+
+    /** Upper bound on the number of key combinations a query may produce. */
+    static final int MAX_GROUPS = 1 << 20;
+
+    /** Largest number of key combinations whose accumulators are allocated for every group. */
+    static final int DENSE_GROUPS = 1 << 16;
+
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private GroupBy() {
+    }
+
+    /**
+     * Runs a query on the common pool. {@code percentile} (0-100) is only used by
+     * {@link Aggregate#PERCENTILE}.
+     *
+     * @throws IllegalArgumentException if a key column is missing or not categorical, the metric
+     * column is missing or not numeric, or the keys have too many combinations
+     */
+    public static GroupByResult compute(StudentDataset dataset, String[] keyColumns, String metricColumn,
+                                        Aggregate aggregate, double percentile) {
+        if (keyColumns.length == 0) {
+            throw new IllegalArgumentException("At least one key column is required");
+        }
+        CategoryColumn[] keys = new CategoryColumn[keyColumns.length];
+        int[] radix = new int[keys.length];
+        long groupCount = 1;
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = dataset.getCategoryColumn(keyColumns[i]);
+            if (keys[i] == null) {
+                throw new IllegalArgumentException("Not a categorical column: " + keyColumns[i]);
+            }
+            radix[i] = Math.max(1, keys[i].getDictionary().size());
+            groupCount *= radix[i];
+            if (groupCount > MAX_GROUPS) {
+                throw new IllegalArgumentException("Too many key combinations for " + Arrays.toString(keyColumns));
+            }
+        }
+        NumberColumn metric = dataset.getNumberColumn(metricColumn);
+        if (metric == null) {
+            throw new IllegalArgumentException("Not a numeric column: " + metricColumn);
+        }
+
+        int rowCount = dataset.getRowCount();
+        Accumulator totals = ForkJoinPool.commonPool().invoke(
+                new ChunkTask(keys, radix, metric, (int) groupCount, 0, rowCount));
+        double[] values = aggregate.isOrderStatistic()
+                ? orderStatistics(keys, radix, metric, rowCount, totals,
+                aggregate == Aggregate.MEDIAN ? 50.0 : percentile)
+                : totals.evaluate(aggregate);
+
+        // Keep only non-empty groups, sorted by label
+        List<Integer> slots = new ArrayList<>();
+        String[] allLabels = new String[totals.size];
+        for (int slot = 0; slot < totals.size; slot++) {
+            if (totals.count[slot] > 0) {
+                slots.add(slot);
+                allLabels[slot] = label(keys, radix, totals.group(slot));
+            }
+        }
+        slots.sort(Comparator.comparing(slot -> allLabels[slot]));
+
+        String[] labels = new String[slots.size()];
+        double[] result = new double[slots.size()];
+        long[] counts = new long[slots.size()];
+        for (int i = 0; i < labels.length; i++) {
+            int slot = slots.get(i);
+            labels[i] = allLabels[slot];
+            result[i] = values[slot];
+            counts[i] = totals.count[slot];
+        }
+        return new GroupByResult(keyColumns.clone(), metricColumn, aggregate, labels, result, counts);
+    }
+
+    /**
+     * Returns the group of {@code row}, or -1 if one of its codes is outside the key's radix.
+     */
+    static int groupOf(CategoryColumn[] keys, int[] radix, int row) {
+        int group = 0;
+        for (int k = 0; k < keys.length; k++) {
+            int code = keys[k].getCode(row);
+            if (code >= radix[k]) {
+                return -1;
+            }
+            group = group * radix[k] + code;
+        }
+        return group;
+    }
+
+    private static String label(CategoryColumn[] keys, int[] radix, int group) {
+        String[] parts = new String[keys.length];
+        for (int k = keys.length - 1; k >= 0; k--) {
+            parts[k] = keys[k].getDictionary().get(group % radix[k]);
+            group /= radix[k];
+        }
+        return String.join(" / ", parts);
+    }
+
+    /**
+     * Returns the percentile of every slot of {@code totals}.
+     */
+    private static double[] orderStatistics(CategoryColumn[] keys, int[] radix, NumberColumn metric, int rowCount,
+                                            Accumulator totals, double percentile) {
+        // Counting sort: lay out each group's values contiguously, then sort every group on its own
+        int slotCount = totals.size;
+        int[] offsets = new int[slotCount + 1];
+        for (int slot = 0; slot < slotCount; slot++) {
+            offsets[slot + 1] = offsets[slot] + (int) totals.count[slot];
+        }
+        int[] cursor = Arrays.copyOf(offsets, slotCount);
+        double[] sorted = new double[offsets[slotCount]];
+        for (int row = 0; row < rowCount; row++) {
+            double value = metric.get(row);
+            int group;
+            if (!Double.isNaN(value) && (group = groupOf(keys, radix, row)) >= 0) {
+                sorted[cursor[totals.slot(group)]++] = value;
+            }
+        }
+
+        double[] values = new double[slotCount];
+        IntStream.range(0, slotCount).parallel().forEach(slot -> {
+            int from = offsets[slot];
+            int to = offsets[slot + 1];
+            Arrays.sort(sorted, from, to);
+            values[slot] = percentileOfSorted(sorted, from, to, percentile);
+        });
+        return values;
+    }
+
+    /**
+     * Returns the percentile of {@code sorted[from, to)} using linear interpolation between closest ranks.
+     */
+    static double percentileOfSorted(double[] sorted, int from, int to, double percentile) {
+        int n = to - from;
+        if (n == 0) {
+            return Double.NaN;
+        }
+        double rank = Math.max(0.0, Math.min(100.0, percentile)) / 100.0 * (n - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, n - 1);
+        double fraction = rank - lower;
+        return sorted[from + lower] + (sorted[from + upper] - sorted[from + lower]) * fraction;
+    }
+
+    /**
+     * Running totals per group, stored column-wise in primitive arrays indexed by slot. With up to
+     * {@link #DENSE_GROUPS} groups the slot is the group itself. Above that a slot is added for each
+     * group the chunk meets, in an open-addressing table from group to slot, so a chunk of
+     * {@link #CHUNK_SIZE} rows never allocates totals for a million combinations it does not have.
+     */
+    private static final class Accumulator {
+        private static final int INITIAL_SLOTS = 256;
+
+        final boolean dense;
+        int size;
+        long[] count;
+        double[] sum;
+        double[] sumOfSquares;
+        double[] min;
+        double[] max;
+        // Group of each slot and slot + 1 per table position (0 if free); both null when dense
+        private int[] groups;
+        private int[] table;
+
+        Accumulator(int groupCount) {
+            dense = groupCount <= DENSE_GROUPS;
+            allocate(dense ? groupCount : INITIAL_SLOTS);
+            if (dense) {
+                size = groupCount;
+                Arrays.fill(min, Double.POSITIVE_INFINITY);
+                Arrays.fill(max, Double.NEGATIVE_INFINITY);
+            } else {
+                groups = new int[INITIAL_SLOTS];
+                table = new int[INITIAL_SLOTS * 2];
+            }
+        }
+
+        private void allocate(int capacity) {
+            count = count == null ? new long[capacity] : Arrays.copyOf(count, capacity);
+            sum = sum == null ? new double[capacity] : Arrays.copyOf(sum, capacity);
+            sumOfSquares = sumOfSquares == null ? new double[capacity] : Arrays.copyOf(sumOfSquares, capacity);
+            min = min == null ? new double[capacity] : Arrays.copyOf(min, capacity);
+            max = max == null ? new double[capacity] : Arrays.copyOf(max, capacity);
+        }
+
+        /**
+         * Returns the group counted in {@code slot}.
+         */
+        int group(int slot) {
+            return dense ? slot : groups[slot];
+        }
+
+        /**
+         * Returns the slot of {@code group}, adding one if the group has none yet.
+         */
+        int slot(int group) {
+            if (dense) {
+                return group;
+            }
+            int mask = table.length - 1;
+            int position = mix(group) & mask;
+            while (table[position] != 0) {
+                int slot = table[position] - 1;
+                if (groups[slot] == group) {
+                    return slot;
+                }
+                position = (position + 1) & mask;
+            }
+            if (size == groups.length) {
+                grow();
+                return slot(group);
+            }
+            int slot = size++;
+            groups[slot] = group;
+            min[slot] = Double.POSITIVE_INFINITY;
+            max[slot] = Double.NEGATIVE_INFINITY;
+            table[position] = slot + 1;
+            return slot;
+        }
+
+        private void grow() {
+            int capacity = groups.length * 2;
+            allocate(capacity);
+            groups = Arrays.copyOf(groups, capacity);
+            table = new int[capacity * 2];
+            int mask = table.length - 1;
+            for (int slot = 0; slot < size; slot++) {
+                int position = mix(groups[slot]) & mask;
+                while (table[position] != 0) {
+                    position = (position + 1) & mask;
+                }
+                table[position] = slot + 1;
+            }
+        }
+
+        private static int mix(int group) {
+            int hash = group * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+
+        void add(int group, double value) {
+            int slot = slot(group);
+            count[slot]++;
+            sum[slot] += value;
+            sumOfSquares[slot] += value * value;
+            if (value < min[slot]) {
+                min[slot] = value;
+            }
+            if (value > max[slot]) {
+                max[slot] = value;
+            }
+        }
+
+        void merge(Accumulator other) {
+            for (int otherSlot = 0; otherSlot < other.size; otherSlot++) {
+                if (other.count[otherSlot] == 0) {
+                    continue;
+                }
+                int slot = slot(other.group(otherSlot));
+                count[slot] += other.count[otherSlot];
+                sum[slot] += other.sum[otherSlot];
+                sumOfSquares[slot] += other.sumOfSquares[otherSlot];
+                min[slot] = Math.min(min[slot], other.min[otherSlot]);
+                max[slot] = Math.max(max[slot], other.max[otherSlot]);
+            }
+        }
+
+        double[] evaluate(Aggregate aggregate) {
+            double[] values = new double[size];
+            for (int g = 0; g < values.length; g++) {
+                long n = count[g];
+                if (n == 0) {
+                    values[g] = aggregate == Aggregate.COUNT ? 0.0 : Double.NaN;
+                    continue;
+                }
+                switch (aggregate) {
+                    case COUNT:
+                        values[g] = n;
+                        break;
+                    case SUM:
+                        values[g] = sum[g];
+                        break;
+                    case MIN:
+                        values[g] = min[g];
+                        break;
+                    case MAX:
+                        values[g] = max[g];
+                        break;
+                    case STDDEV:
+                        double mean = sum[g] / n;
+                        values[g] = Math.sqrt(Math.max(0.0, sumOfSquares[g] / n - mean * mean));
+                        break;
+                    default:
+                        values[g] = sum[g] / n;
+                }
+            }
+            return values;
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveTask<Accumulator> {
+
+        private final CategoryColumn[] keys;
+        private final int[] radix;
+        private final NumberColumn metric;
+        private final int groupCount;
+        private final int from;
+        private final int to;
+
+        ChunkTask(CategoryColumn[] keys, int[] radix, NumberColumn metric, int groupCount, int from, int to) {
+            this.keys = keys;
+            this.radix = radix;
+            this.metric = metric;
+            this.groupCount = groupCount;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= CHUNK_SIZE) {
+                return accumulate();
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(keys, radix, metric, groupCount, from, middle);
+            ChunkTask right = new ChunkTask(keys, radix, metric, groupCount, middle, to);
+            left.fork();
+            Accumulator rightResult = right.compute();
+            Accumulator leftResult = left.join();
+            leftResult.merge(rightResult);
+            return leftResult;
+        }
+
+        private Accumulator accumulate() {
+            Accumulator accumulator = new Accumulator(groupCount);
+            for (int row = from; row < to; row++) {
+                double value = metric.get(row);
+                if (Double.isNaN(value)) {
+                    continue;
+                }
+                int group = groupOf(keys, radix, row);
+                if (group >= 0) {
+                    accumulator.add(group, value);
+                }
+            }
+            return accumulator;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package test.analysis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import test.data.ColumnType;
+import test.data.StudentDataset;
+
+/**
+ * Output of a {@link GroupBy} query: one row per non-empty group, sorted by group label.
+ */
+public class GroupByResult {
+
+    private final String[] keyColumns;
+    private final String metricColumn;
+    private final Aggregate aggregate;
+    private final String[] labels;
+    private final double[] values;
+    private final long[] counts;
+
+    GroupByResult(String[] keyColumns, String metricColumn, Aggregate aggregate,
+                  String[] labels, double[] values, long[] counts) {
+        this.keyColumns = keyColumns;
+        this.metricColumn = metricColumn;
+        this.aggregate = aggregate;
+        this.labels = labels;
+        this.values = values;
+        this.counts = counts;
+    }
+
+    public String[] getKeyColumns() {
+        return keyColumns.clone();
+    }
+
+    public String getMetricColumn() {
+        return metricColumn;
+    }
+
+    public Aggregate getAggregate() {
+        return aggregate;
+    }
+
+    public int size() {
+        return labels.length;
+    }
+
+    /**
+     * Returns the label of a group; compound keys are joined with " / ".
+     */
+    public String getLabel(int group) {
+        return labels[group];
+    }
+
+    /**
+     * Returns the aggregated metric of a group, or NaN if none of its rows had a valid metric value.
+     */
+    public double getValue(int group) {
+        return values[group];
+    }
+
+    /**
+     * Returns the number of rows of a group that had a valid metric value.
+     */
+    public long getCount(int group) {
+        return counts[group];
+    }
+
+    /**
+     * Returns the result as a three-column dataset (group, aggregated metric, row count), so it can
+     * be exported like loaded data.
+     */
+    public StudentDataset toDataset() {
+        StudentDataset dataset = new StudentDataset(
+                new String[]{String.join(" / ", keyColumns), aggregate + " of " + metricColumn, "Rows"},
+                new ColumnType[]{ColumnType.CATEGORY, ColumnType.NUMBER, ColumnType.NUMBER});
+        for (int i = 0; i < labels.length; i++) {
+            dataset.appendRow(new String[]{labels[i], Double.isNaN(values[i]) ? "" : Double.toString(values[i]), Long.toString(counts[i])});
+        }
+        return dataset;
+    }
+
+    public Map<String, Double> toMap() {
+        Map<String, Double> map = new LinkedHashMap<>();
+        for (int i = 0; i < labels.length; i++) {
+            map.put(labels[i], values[i]);
+        }
+        return map;
+    }
+}
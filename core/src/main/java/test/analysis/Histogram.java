@@ -0,0 +1,65 @@
+package test.analysis;
+
+/**
+ * Counts of values in equal-width bins over a fixed range. Values outside the range are counted in
+ * the first or last bin, so the memory used does not depend on the data. Histograms over the same
+ * bins can be combined with {@link #merge(Histogram)}.
+ */
+public class Histogram {
+
+    private final double min;
+    private final double max;
+    private final long[] counts;
+    private long total;
+
+    public Histogram(double min, double max, int binCount) {
+        if (!(max > min) || binCount < 1) {
+            throw new IllegalArgumentException("Invalid histogram range or bin count");
+        }
+        this.min = min;
+        this.max = max;
+        this.counts = new long[binCount];
+    }
+
+    public void add(double value) {
+        int bin = (int) ((value - min) / (max - min) * counts.length);
+        counts[Math.max(0, Math.min(counts.length - 1, bin))]++;
+        total++;
+    }
+
+    /**
+     * Adds the counts of {@code other}, which must have the same range and bins.
+     */
+    public void merge(Histogram other) {
+        if (other.min != min || other.max != max || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Histograms have different bins");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    public int getBinCount() {
+        return counts.length;
+    }
+
+    public double getBinWidth() {
+        return (max - min) / counts.length;
+    }
+
+    /**
+     * Returns the lower bound of {@code bin}.
+     */
+    public double getBinStart(int bin) {
+        return min + bin * getBinWidth();
+    }
+
+    public long getCount(int bin) {
+        return counts[bin];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+}
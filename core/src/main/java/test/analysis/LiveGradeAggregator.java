@@ -0,0 +1,202 @@
+package test.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+import test.data.CategoryColumn;
+import test.data.DatasetTableModel;
+import test.data.NumberColumn;
+import test.data.StudentDataset;
+import test.data.StudentFields;
+
+/**
+ * Keeps the per-grade attendance totals of a {@link DatasetTableModel} up to date as rows are
+ * inserted, edited and deleted, so the averages can be read at any time without rescanning the data.
+ * Each change is applied as a delta in O(changed rows); a full rebuild only happens when the model's
+ * whole content or structure changes, for example when a new file is loaded.
+ * <p>
+ * The model reports rows about to be deleted or edited through its
+ * {@link DatasetTableModel.PendingChangeListener}, so their old contribution is read from the
+ * dataset and subtracted before it changes, and no copy of the columns is kept. The totals are
+ * compensated sums, so however many deltas are applied they stay within rounding of a fresh
+ * {@link GradeAggregator#aggregate(StudentDataset)}. Like the model, this class must only be used on
+ * the event dispatch thread.
+ */
+public class LiveGradeAggregator implements TableModelListener, DatasetTableModel.PendingChangeListener {
+
+    private static final byte OTHER_GRADE = -1;
+
+    private final DatasetTableModel model;
+    private final List<ChangeListener> listeners = new ArrayList<>();
+    private final double[] sums = new double[GradeAggregator.GRADES.length];
+    private final double[] compensations = new double[GradeAggregator.GRADES.length];
+    private final long[] counts = new long[GradeAggregator.GRADES.length];
+    private long invalidRows;
+
+    private CategoryColumn gradeColumn;
+    private NumberColumn attendanceColumn;
+    private int gradeColumnIndex;
+    private int attendanceColumnIndex;
+    private byte[] gradeIndexByCode = new byte[0];
+
+    // The row whose contribution was subtracted by cellChanging, until its update event adds it back
+    private int changingRow = -1;
+
+    public LiveGradeAggregator(DatasetTableModel model) {
+        this.model = model;
+        rebuild();
+        model.addTableModelListener(this);
+        model.addPendingChangeListener(this);
+    }
+
+    /**
+     * Returns true if the current dataset has both a grade and an attendance column.
+     */
+    public boolean isAvailable() {
+        return gradeColumn != null && attendanceColumn != null;
+    }
+
+    /**
+     * Returns the average attendance of each grade in A-F order; grades without rows average 0.
+     */
+    public Map<String, Double> getAverages() {
+        Map<String, Double> averages = new LinkedHashMap<>();
+        for (int i = 0; i < GradeAggregator.GRADES.length; i++) {
+            averages.put(GradeAggregator.GRADES[i], counts[i] > 0 ? (sums[i] + compensations[i]) / counts[i] : 0.0);
+        }
+        return averages;
+    }
+
+    /**
+     * Returns the number of rows whose attendance is missing or not a number.
+     */
+    public long getInvalidRows() {
+        return invalidRows;
+    }
+
+    /**
+     * Registers a listener notified after every change to the totals.
+     */
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void rowsRemoving(int firstRow, int lastRow) {
+        if (isAvailable()) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                apply(row, -1);
+            }
+        }
+    }
+
+    @Override
+    public void cellChanging(int row, int column) {
+        if (isAvailable() && (column == gradeColumnIndex || column == attendanceColumnIndex)) {
+            apply(row, -1);
+            changingRow = row;
+        }
+    }
+
+    @Override
+    public void tableChanged(TableModelEvent e) {
+        int firstRow = e.getFirstRow();
+        int lastRow = e.getLastRow();
+        if (firstRow == TableModelEvent.HEADER_ROW || lastRow == Integer.MAX_VALUE) {
+            rebuild();
+        } else if (!isAvailable()) {
+            return;
+        } else if (e.getType() == TableModelEvent.INSERT) {
+            for (int row = firstRow; row <= lastRow; row++) {
+                apply(row, 1);
+            }
+        } else if (e.getType() == TableModelEvent.DELETE) {
+            // Subtracted by rowsRemoving
+        } else if (e.getColumn() == TableModelEvent.ALL_COLUMNS
+                || e.getColumn() == gradeColumnIndex || e.getColumn() == attendanceColumnIndex) {
+            if (changingRow >= 0 && firstRow == changingRow && lastRow == changingRow) {
+                apply(changingRow, 1);
+                changingRow = -1;
+            } else {
+                // Rows changed without being announced, so their old contribution is unknown
+                rebuild();
+            }
+        } else {
+            return;
+        }
+        ChangeEvent event = new ChangeEvent(this);
+        for (ChangeListener listener : listeners) {
+            listener.stateChanged(event);
+        }
+    }
+
+    private void rebuild() {
+        StudentDataset dataset = model.getDataset();
+        StudentFields fields = dataset.getFields();
+        gradeColumnIndex = fields.gradeIndex();
+        attendanceColumnIndex = fields.attendanceIndex();
+        gradeColumn = fields.grade();
+        attendanceColumn = fields.attendance();
+        gradeIndexByCode = new byte[0];
+        changingRow = -1;
+        Arrays.fill(sums, 0.0);
+        Arrays.fill(compensations, 0.0);
+        Arrays.fill(counts, 0);
+        invalidRows = 0;
+        if (isAvailable()) {
+            for (int row = 0; row < model.getRowCount(); row++) {
+                apply(row, 1);
+            }
+        }
+    }
+
+    /**
+     * Adds the row's current grade and attendance to the totals, or subtracts them if {@code sign}
+     * is -1.
+     */
+    private void apply(int row, int sign) {
+        double attendance = attendanceColumn.get(row);
+        if (Double.isNaN(attendance)) {
+            invalidRows += sign;
+            return;
+        }
+        int grade = gradeIndex(gradeColumn.getCode(row));
+        if (grade == OTHER_GRADE) {
+            return;
+        }
+        counts[grade] += sign;
+        if (counts[grade] == 0) {
+            // Reset exactly once a grade is empty so no rounding residue is left behind
+            sums[grade] = 0.0;
+            compensations[grade] = 0.0;
+            return;
+        }
+        // Neumaier's summation keeps the rounding error of every delta in the compensation term
+        double value = sign * attendance;
+        double sum = sums[grade];
+        double total = sum + value;
+        compensations[grade] += Math.abs(sum) >= Math.abs(value) ? (sum - total) + value : (value - total) + sum;
+        sums[grade] = total;
+    }
+
+    private byte gradeIndex(int code) {
+        if (code >= gradeIndexByCode.length) {
+            // Edits may add new values to the grade dictionary
+            gradeIndexByCode = new byte[gradeColumn.getDictionary().size()];
+            Arrays.fill(gradeIndexByCode, OTHER_GRADE);
+            for (int i = 0; i < GradeAggregator.GRADES.length; i++) {
+                int gradeCode = gradeColumn.getDictionary().indexOf(GradeAggregator.GRADES[i]);
+                if (gradeCode >= 0 && gradeCode < gradeIndexByCode.length) {
+                    gradeIndexByCode[gradeCode] = (byte) i;
+                }
+            }
+        }
+        return gradeIndexByCode[code];
+    }
+}
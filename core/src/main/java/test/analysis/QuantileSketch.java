@@ -0,0 +1,171 @@
+package test.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Streaming quantile estimate in bounded memory, after Dunning's merging t-digest. Values are
+ * buffered and periodically merged into a sorted list of weighted centroids whose size is limited
+ * by the compression: centroids stay small near the tails and grow towards the median, so extreme
+ * quantiles are the most accurate. Sketches of separate row ranges can be combined with
+ * {@link #merge(QuantileSketch)}.
+ * <p>
+ * Queries compress the sketch first, so a sketch must not be read and written concurrently.
+ */
+public class QuantileSketch {
+
+    public static final int DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private final double[] buffer;
+    private int buffered;
+    private double[] means = new double[0];
+    private double[] weights = new double[0];
+    private int centroidCount;
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Creates a sketch that keeps at most about {@code 2 * compression} centroids.
+     */
+    public QuantileSketch(double compression) {
+        this.compression = compression;
+        this.buffer = new double[(int) (5 * compression)];
+    }
+
+    public void add(double value) {
+        if (buffered == buffer.length) {
+            compress();
+        }
+        buffer[buffered++] = value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Adds the values summarized by {@code other}.
+     */
+    public void merge(QuantileSketch other) {
+        compress();
+        other.compress();
+        mergeCentroids(other.means, other.weights, other.centroidCount);
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the number of values added.
+     */
+    public long getCount() {
+        return (long) totalWeight + buffered;
+    }
+
+    /**
+     * Returns an estimate of the {@code q}-quantile, 0 &lt;= q &lt;= 1, or NaN if no values were added.
+     */
+    public double quantile(double q) {
+        compress();
+        if (centroidCount == 0) {
+            return Double.NaN;
+        }
+        if (centroidCount == 1) {
+            return means[0];
+        }
+        double index = Math.max(0.0, Math.min(1.0, q)) * totalWeight;
+        // Each centroid's mean sits at the middle of its weight; interpolate between neighbours
+        double cumulative = weights[0] / 2;
+        if (index < cumulative) {
+            return min + (means[0] - min) * index / cumulative;
+        }
+        for (int i = 0; i < centroidCount - 1; i++) {
+            double gap = (weights[i] + weights[i + 1]) / 2;
+            if (index < cumulative + gap) {
+                return means[i] + (means[i + 1] - means[i]) * (index - cumulative) / gap;
+            }
+            cumulative += gap;
+        }
+        int last = centroidCount - 1;
+        double tail = totalWeight - cumulative;
+        return Math.min(max, means[last] + (max - means[last]) * (index - cumulative) / tail);
+    }
+
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        int count = buffered;
+        buffered = 0;
+        mergeCentroids(buffer, null, count);
+    }
+
+    /**
+     * Merges sorted centroids, or unit values if {@code otherWeights} is null, into this sketch's.
+     */
+    private void mergeCentroids(double[] otherMeans, double[] otherWeights, int otherCount) {
+        if (otherCount == 0) {
+            return;
+        }
+        int total = centroidCount + otherCount;
+        double newTotalWeight = totalWeight;
+        for (int i = 0; i < otherCount; i++) {
+            newTotalWeight += otherWeights != null ? otherWeights[i] : 1.0;
+        }
+        double[] mergedMeans = new double[total];
+        double[] mergedWeights = new double[total];
+        int merged = 0;
+        double currentMean = 0;
+        double currentWeight = 0;
+        double weightSoFar = 0;
+        int i = 0;
+        int j = 0;
+        while (i < centroidCount || j < otherCount) {
+            double mean;
+            double weight;
+            if (j == otherCount || i < centroidCount && means[i] <= otherMeans[j]) {
+                mean = means[i];
+                weight = weights[i];
+                i++;
+            } else {
+                mean = otherMeans[j];
+                weight = otherWeights != null ? otherWeights[j] : 1.0;
+                j++;
+            }
+            if (currentWeight == 0) {
+                currentMean = mean;
+                currentWeight = weight;
+                continue;
+            }
+            double proposed = currentWeight + weight;
+            double q0 = weightSoFar / newTotalWeight;
+            double q2 = (weightSoFar + proposed) / newTotalWeight;
+            double limit = newTotalWeight * 4 * Math.min(q0 * (1 - q0), q2 * (1 - q2)) / compression;
+            if (proposed <= limit) {
+                currentMean += (mean - currentMean) * weight / proposed;
+                currentWeight = proposed;
+            } else {
+                mergedMeans[merged] = currentMean;
+                mergedWeights[merged] = currentWeight;
+                merged++;
+                weightSoFar += currentWeight;
+                currentMean = mean;
+                currentWeight = weight;
+            }
+        }
+        mergedMeans[merged] = currentMean;
+        mergedWeights[merged] = currentWeight;
+        merged++;
+        means = mergedMeans;
+        weights = mergedWeights;
+        centroidCount = merged;
+        totalWeight = newTotalWeight;
+    }
+}
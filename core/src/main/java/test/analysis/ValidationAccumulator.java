@@ -0,0 +1,188 @@
+package test.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import test.data.CategoryColumn;
+import test.data.CsvRecord;
+import test.data.NumberColumn;
+import test.data.StudentDataset;
+import test.data.StudentFields;
+
+/**
+ * Checks the fields the analysis depends on and counts what is wrong with them, replacing a message
+ * per bad row with one {@link ValidationSummary}. Attendance and {@link DistributionAggregator#SCORE_COLUMN}
+ * must be numbers from {@link #MIN_PERCENT} to {@link #MAX_PERCENT}, and the grade one of
+ * {@link GradeAggregator#GRADES}.
+ * <p>
+ * Checking a field only compares values that are already parsed, so valid rows cost no allocation;
+ * the original text of an invalid field is only decoded while fewer than {@link #MAX_SAMPLES} have
+ * been kept. Validation only reports: rows out of range still count towards the averages as before.
+ */
+public class ValidationAccumulator {
+
+    public static final int MAX_SAMPLES = 20;
+    public static final double MIN_PERCENT = 0;
+    public static final double MAX_PERCENT = 100;
+
+    private static final String[] COLUMNS = {StudentFields.ATTENDANCE, StudentFields.SCORE, StudentFields.GRADE};
+    private static final int ATTENDANCE = 0;
+    private static final int SCORE = 1;
+    private static final int GRADE = 2;
+    private static final int ATTENDANCE_FIELD = Arrays.asList(StudentDataset.STUDENT_COLUMNS).indexOf(COLUMNS[ATTENDANCE]);
+    private static final int SCORE_FIELD = Arrays.asList(StudentDataset.STUDENT_COLUMNS).indexOf(COLUMNS[SCORE]);
+    private static final int GRADE_FIELD = Arrays.asList(StudentDataset.STUDENT_COLUMNS).indexOf(COLUMNS[GRADE]);
+
+    private final int attendanceField;
+    private final int scoreField;
+    private final boolean[] present = new boolean[COLUMNS.length];
+    private final long[][] counts = new long[COLUMNS.length][FieldIssue.values().length];
+    private final List<ValidationSummary.Sample> samples = new ArrayList<>();
+    private long rowCount;
+    private long invalidRows;
+
+    /**
+     * Creates an accumulator for rows in the layout of {@link StudentDataset#STUDENT_COLUMNS}.
+     */
+    public ValidationAccumulator() {
+        this(ATTENDANCE_FIELD, SCORE_FIELD, GRADE_FIELD);
+    }
+
+    /**
+     * Creates an accumulator for rows that hold attendance, score and grade in the given fields.
+     * Columns whose field is negative, as when the file's header does not name them, are left out of
+     * the summary.
+     */
+    public ValidationAccumulator(int attendanceField, int scoreField, int gradeField) {
+        this.attendanceField = attendanceField;
+        this.scoreField = scoreField;
+        present[ATTENDANCE] = attendanceField >= 0;
+        present[SCORE] = scoreField >= 0;
+        present[GRADE] = gradeField >= 0;
+    }
+
+    /**
+     * Checks every row of {@code dataset}. Validated columns that the dataset does not have are
+     * left out of the summary.
+     */
+    public static ValidationSummary validate(StudentDataset dataset) {
+        StudentFields fields = dataset.getFields();
+        NumberColumn attendanceColumn = fields.attendance();
+        NumberColumn scoreColumn = fields.score();
+        CategoryColumn gradeColumn = fields.grade();
+        ValidationAccumulator accumulator = new ValidationAccumulator();
+        accumulator.present[ATTENDANCE] = attendanceColumn != null;
+        accumulator.present[SCORE] = scoreColumn != null;
+        accumulator.present[GRADE] = gradeColumn != null;
+
+        // Classify each dictionary entry once, so grades are checked by code
+        FieldIssue[] gradeIssues = new FieldIssue[gradeColumn != null ? gradeColumn.getDictionary().size() : 0];
+        for (int code = 0; code < gradeIssues.length; code++) {
+            gradeIssues[code] = checkGrade(gradeColumn.getDictionary().get(code));
+        }
+
+        int rows = dataset.getRowCount();
+        for (int row = 0; row < rows; row++) {
+            boolean invalid = false;
+            if (attendanceColumn != null) {
+                invalid |= accumulator.checkColumn(row, ATTENDANCE, attendanceColumn);
+            }
+            if (scoreColumn != null) {
+                invalid |= accumulator.checkColumn(row, SCORE, scoreColumn);
+            }
+            if (gradeColumn != null) {
+                FieldIssue issue = gradeIssues[gradeColumn.getCode(row)];
+                if (issue != null && accumulator.count(GRADE, issue)) {
+                    accumulator.sample(row, GRADE, issue, (String) gradeColumn.getValue(row));
+                }
+                invalid |= issue != null;
+            }
+            accumulator.endRow(invalid);
+        }
+        return accumulator.toSummary();
+    }
+
+    /**
+     * Checks one data row of a streamed file; {@code grade} is the record's already decoded grade.
+     */
+    public void add(CsvRecord record, String grade) {
+        long row = rowCount;
+        boolean invalid = present[ATTENDANCE] && checkField(row, ATTENDANCE, record, attendanceField);
+        invalid |= present[SCORE] && checkField(row, SCORE, record, scoreField);
+        FieldIssue issue = present[GRADE] ? checkGrade(grade) : null;
+        if (issue != null && count(GRADE, issue)) {
+            sample(row, GRADE, issue, grade);
+        }
+        endRow(invalid || issue != null);
+    }
+
+    /**
+     * Returns a summary of the rows added so far. Later additions do not affect it.
+     */
+    public ValidationSummary toSummary() {
+        long[][] copy = new long[counts.length][];
+        for (int i = 0; i < counts.length; i++) {
+            copy[i] = counts[i].clone();
+        }
+        return new ValidationSummary(COLUMNS, present.clone(), copy, rowCount, invalidRows, new ArrayList<>(samples));
+    }
+
+    private boolean checkColumn(int row, int column, NumberColumn values) {
+        double value = values.get(row);
+        FieldIssue issue = checkNumber(value, Double.isNaN(value) && !values.isInvalid(row));
+        if (issue != null && count(column, issue)) {
+            sample(row, column, issue, values.getValue(row).toString());
+        }
+        return issue != null;
+    }
+
+    private boolean checkField(long row, int column, CsvRecord record, int field) {
+        double value = record.getDouble(field);
+        FieldIssue issue = checkNumber(value, Double.isNaN(value) && record.isBlank(field));
+        if (issue != null && count(column, issue)) {
+            sample(row, column, issue, record.getString(field));
+        }
+        return issue != null;
+    }
+
+    /**
+     * Counts an issue and returns true if it should also be sampled.
+     */
+    private boolean count(int column, FieldIssue issue) {
+        counts[column][issue.ordinal()]++;
+        return samples.size() < MAX_SAMPLES;
+    }
+
+    private void sample(long row, int column, FieldIssue issue, String text) {
+        samples.add(new ValidationSummary.Sample(row + 1, COLUMNS[column], issue, text));
+    }
+
+    private void endRow(boolean invalid) {
+        rowCount++;
+        if (invalid) {
+            invalidRows++;
+        }
+    }
+
+    private static FieldIssue checkNumber(double value, boolean missing) {
+        if (missing) {
+            return FieldIssue.MISSING;
+        }
+        if (Double.isNaN(value)) {
+            return FieldIssue.MALFORMED;
+        }
+        return value < MIN_PERCENT || value > MAX_PERCENT ? FieldIssue.OUT_OF_RANGE : null;
+    }
+
+    private static FieldIssue checkGrade(String grade) {
+        if (grade == null || grade.trim().isEmpty()) {
+            return FieldIssue.MISSING;
+        }
+        for (String known : GradeAggregator.GRADES) {
+            if (known.equals(grade)) {
+                return null;
+            }
+        }
+        return FieldIssue.UNKNOWN_GRADE;
+    }
+}
@@ -0,0 +1,115 @@
+package test.analysis;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of {@link ValidationAccumulator}: how many fields of each validated column had each
+ * {@link FieldIssue}, how many rows had at least one, and the first few offending fields in row
+ * order as examples.
+ */
+public class ValidationSummary {
+
+    private final String[] columns;
+    private final boolean[] present;
+    private final long[][] counts;
+    private final long rowCount;
+    private final long invalidRows;
+    private final List<Sample> samples;
+
+    ValidationSummary(String[] columns, boolean[] present, long[][] counts, long rowCount, long invalidRows, List<Sample> samples) {
+        this.columns = columns;
+        this.present = present;
+        this.counts = counts;
+        this.rowCount = rowCount;
+        this.invalidRows = invalidRows;
+        this.samples = Collections.unmodifiableList(samples);
+    }
+
+    /**
+     * Returns the validated columns that the data had, in report order.
+     */
+    public List<String> getColumns() {
+        String[] found = new String[columns.length];
+        int n = 0;
+        for (int i = 0; i < columns.length; i++) {
+            if (present[i]) {
+                found[n++] = columns[i];
+            }
+        }
+        return Arrays.asList(Arrays.copyOf(found, n));
+    }
+
+    /**
+     * Returns the number of fields of {@code column} with the given issue, or 0 for a column that
+     * is not validated.
+     */
+    public long getCount(String column, FieldIssue issue) {
+        int index = Arrays.asList(columns).indexOf(column);
+        return index >= 0 ? counts[index][issue.ordinal()] : 0;
+    }
+
+    /**
+     * Returns the number of fields of all columns with the given issue.
+     */
+    public long getCount(FieldIssue issue) {
+        long total = 0;
+        for (long[] columnCounts : counts) {
+            total += columnCounts[issue.ordinal()];
+        }
+        return total;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the number of rows with at least one invalid field.
+     */
+    public long getInvalidRows() {
+        return invalidRows;
+    }
+
+    /**
+     * Returns at most {@link ValidationAccumulator#MAX_SAMPLES} invalid fields, in row order.
+     */
+    public List<Sample> getSamples() {
+        return samples;
+    }
+
+    /**
+     * One invalid field: its 1-based data row, column, issue and original text.
+     */
+    public static final class Sample {
+
+        private final long row;
+        private final String column;
+        private final FieldIssue issue;
+        private final String text;
+
+        Sample(long row, String column, FieldIssue issue, String text) {
+            this.row = row;
+            this.column = column;
+            this.issue = issue;
+            this.text = text;
+        }
+
+        public long getRow() {
+            return row;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public FieldIssue getIssue() {
+            return issue;
+        }
+
+        public String getText() {
+            return text;
+        }
+    }
+}
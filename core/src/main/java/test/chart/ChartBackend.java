@@ -0,0 +1,53 @@
+package test.chart;
+
+import javax.swing.JComponent;
+import java.util.Map;
+import java.util.function.Consumer;
+import test.analysis.DensitySource;
+import test.analysis.DistributionSummary;
+
+/**
+ * A charting library's view of the analysis results, so a front-end shares the analysis core and
+ * only differs in how the results are drawn. A backend keeps one long-lived component and updates
+ * it in place; like any Swing component, it must only be used on the event dispatch thread.
+ */
+public interface ChartBackend {
+
+    /**
+     * Returns the component that shows the charts; the same component on every call.
+     */
+    JComponent getComponent();
+
+    /**
+     * Shows the average attendance of each grade.
+     */
+    void setValues(Map<String, Double> averages);
+
+    /**
+     * Shows the given averages with an animation, if the backend has one.
+     */
+    default void animate(Map<String, Double> averages) {
+        setValues(averages);
+    }
+
+    /**
+     * Shows the attendance distributions and correlation, if the backend has a view for them.
+     */
+    default void setDistribution(DistributionSummary distribution) {
+    }
+
+    /**
+     * Shows the density of students by attendance and score, binned by {@code source} for the range
+     * in view, if the backend has a view for it. The source may be asked on a background thread,
+     * so it must not read data that changes meanwhile.
+     */
+    default void setDensitySource(DensitySource source) {
+    }
+
+    /**
+     * Registers a listener called with the grade of a bar the user clicks, if the backend supports
+     * picking bars.
+     */
+    default void addGradeSelectionListener(Consumer<String> listener) {
+    }
+}
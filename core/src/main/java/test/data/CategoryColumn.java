@@ -0,0 +1,192 @@
+package test.data;
+
+import java.util.Arrays;
+
+/**
+ * Dictionary-encoded column for low-cardinality text. Codes are stored one byte per row and widened
+ * to ints only if the column turns out to have more than 256 distinct values.
+ */
+public final class CategoryColumn extends Column {
+
+    private Dictionary dictionary = new Dictionary();
+    private byte[] byteCodes = new byte[INITIAL_CAPACITY];
+    private int[] intCodes;
+
+    CategoryColumn(String name) {
+        super(name);
+    }
+
+    @Override
+    public ColumnType getType() {
+        return ColumnType.CATEGORY;
+    }
+
+    public Dictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Returns the dictionary code stored at {@code row}.
+     */
+    public int getCode(int row) {
+        int[] codes = intCodes;
+        return codes != null ? codes[row] : byteCodes[row] & 0xFF;
+    }
+
+    @Override
+    public Object getValue(int row) {
+        return dictionary.get(getCode(row));
+    }
+
+    /**
+     * Fills the empty column with {@code count} codes into the given dictionary values. Exactly one
+     * of {@code loadedBytes} and {@code loadedInts} holds the codes; the column takes it over.
+     *
+     * @throws IllegalArgumentException if the dictionary values are not distinct
+     */
+    void load(String[] dictionaryValues, byte[] loadedBytes, int[] loadedInts, int count) {
+        for (int code = 0; code < dictionaryValues.length; code++) {
+            if (dictionary.intern(dictionaryValues[code]) != code) {
+                throw new IllegalArgumentException("Duplicate dictionary value: " + dictionaryValues[code]);
+            }
+        }
+        byteCodes = loadedBytes;
+        intCodes = loadedInts;
+        size = count;
+    }
+
+    @Override
+    CategoryColumn snapshot() {
+        CategoryColumn snapshot = new CategoryColumn(getName());
+        // Codes never change meaning, so the dictionary can go on growing underneath the snapshot
+        snapshot.dictionary = dictionary;
+        snapshot.byteCodes = byteCodes;
+        snapshot.intCodes = intCodes;
+        snapshot.size = size;
+        shared = true;
+        return snapshot;
+    }
+
+    @Override
+    void append(String text) {
+        int code = dictionary.intern(text);
+        ensureCapacity(size + 1, code);
+        store(size, code);
+        size++;
+    }
+
+    @Override
+    void append(CsvRecord record, int field) {
+        int code = field < record.getFieldCount() ? dictionary.intern(record, field) : dictionary.intern("");
+        ensureCapacity(size + 1, code);
+        store(size, code);
+        size++;
+    }
+
+    @Override
+    void appendAll(Column other) {
+        CategoryColumn source = (CategoryColumn) other;
+        int[] remapped = new int[source.dictionary.size()];
+        for (int code = 0; code < remapped.length; code++) {
+            remapped[code] = dictionary.intern(source.dictionary.get(code));
+        }
+        for (int row = 0; row < source.size; row++) {
+            int code = remapped[source.getCode(row)];
+            ensureCapacity(size + 1, code);
+            store(size, code);
+            size++;
+        }
+    }
+
+    /**
+     * Moves the column onto {@code shared}, rewriting its codes, so that columns of several datasets
+     * can hold one copy of their values. The column must not be read or changed meanwhile, though
+     * snapshots taken before keep their codes.
+     */
+    void shareDictionary(Dictionary shared) {
+        if (shared == dictionary) {
+            return;
+        }
+        int[] remapped = new int[dictionary.size()];
+        int maxCode = 0;
+        for (int code = 0; code < remapped.length; code++) {
+            remapped[code] = shared.intern(dictionary.get(code));
+            maxCode = Math.max(maxCode, remapped[code]);
+        }
+        ownStorage();
+        ensureCapacity(size, maxCode);
+        for (int row = 0; row < size; row++) {
+            store(row, remapped[getCode(row)]);
+        }
+        dictionary = shared;
+    }
+
+    /**
+     * Appends {@code count} rows holding {@code value}.
+     */
+    void appendRepeated(String value, int count) {
+        int code = dictionary.intern(value);
+        ensureCapacity(size + count, code);
+        for (int i = 0; i < count; i++) {
+            store(size++, code);
+        }
+    }
+
+    @Override
+    void set(int row, String text) {
+        int code = dictionary.intern(text);
+        ownStorage();
+        ensureCapacity(size, code);
+        store(row, code);
+    }
+
+    @Override
+    void remove(int from, int to) {
+        ownStorage();
+        if (intCodes != null) {
+            System.arraycopy(intCodes, to, intCodes, from, size - to);
+        } else {
+            System.arraycopy(byteCodes, to, byteCodes, from, size - to);
+        }
+        size -= to - from;
+    }
+
+    private void ownStorage() {
+        if (shared) {
+            // Once the codes are wide the byte codes are never written again, so they can stay shared
+            if (intCodes != null) {
+                intCodes = intCodes.clone();
+            } else {
+                byteCodes = byteCodes.clone();
+            }
+            shared = false;
+        }
+    }
+
+    private void store(int row, int code) {
+        if (intCodes != null) {
+            intCodes[row] = code;
+        } else {
+            byteCodes[row] = (byte) code;
+        }
+    }
+
+    private void ensureCapacity(int required, int code) {
+        if (intCodes == null && code > 0xFF) {
+            int[] widened = new int[Math.max(byteCodes.length, required)];
+            for (int i = 0; i < size; i++) {
+                widened[i] = byteCodes[i] & 0xFF;
+            }
+            // The byte codes are kept, so a reader that has not yet seen the wide codes still finds
+            // the rows published before
+            intCodes = widened;
+        }
+        if (intCodes != null) {
+            if (required > intCodes.length) {
+                intCodes = Arrays.copyOf(intCodes, newCapacity(intCodes.length, required));
+            }
+        } else if (required > byteCodes.length) {
+            byteCodes = Arrays.copyOf(byteCodes, newCapacity(byteCodes.length, required));
+        }
+    }
+}
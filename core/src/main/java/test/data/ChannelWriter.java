@@ -0,0 +1,206 @@
+package test.data;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered writer of text and big-endian binary values to a {@link WritableByteChannel}. Numbers are
+ * formatted straight into the buffer, so writing a row of values creates no garbage.
+ */
+public final class ChannelWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L};
+    private static final double FAST_LIMIT = 0x1p40;
+    private static final double TIE_WINDOW = 1e-3;
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+    private long bytesWritten;
+
+    public ChannelWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Returns the number of bytes written so far, including those still buffered.
+     */
+    public long getBytesWritten() {
+        return bytesWritten + buffer.position();
+    }
+
+    public void write(int b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put((byte) b);
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    public void write(byte[] bytes) throws IOException {
+        write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Writes {@code text} as UTF-8.
+     */
+    public void writeUtf8(String text) throws IOException {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c >= 0x80) {
+                // Rare for this data; let the JDK deal with multi-byte characters and surrogate pairs
+                write(text.substring(i).getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            write(c);
+        }
+    }
+
+    public void writeInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        buffer.putInt(value);
+    }
+
+    public void writeLong(long value) throws IOException {
+        ensureRemaining(Long.BYTES);
+        buffer.putLong(value);
+    }
+
+    public void writeDouble(double value) throws IOException {
+        ensureRemaining(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Writes the string's UTF-8 length as an int followed by its bytes.
+     */
+    public void writeString(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        writeInt(bytes.length);
+        write(bytes);
+    }
+
+    /**
+     * Writes {@code value} in decimal.
+     */
+    public void writeDecimal(long value) throws IOException {
+        if (value < 0) {
+            if (value == Long.MIN_VALUE) {
+                writeUtf8(Long.toString(value));
+                return;
+            }
+            write('-');
+            value = -value;
+        }
+        int position = digits.length;
+        do {
+            digits[--position] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        write(digits, position, digits.length - position);
+    }
+
+    /**
+     * Writes {@code value} with exactly {@code decimals} digits after the point, producing the same
+     * text as {@code String.format("%." + decimals + "f", value)}.
+     */
+    public void writeDecimal(double value, int decimals) throws IOException {
+        writeDecimal(value, decimals, false);
+    }
+
+    /**
+     * Writes {@code value} rounded to {@code decimals} digits after the point like
+     * {@link #writeDecimal(double, int)}, optionally dropping trailing zeros and a trailing point.
+     */
+    public void writeDecimal(double value, int decimals, boolean trimZeros) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            writeUtf8(Double.toString(value));
+            return;
+        }
+        double scaled = decimals < POWERS_OF_TEN.length ? Math.abs(value) * POWERS_OF_TEN[decimals] : Double.POSITIVE_INFINITY;
+        if (scaled >= FAST_LIMIT || Math.abs(scaled - Math.floor(scaled) - 0.5) < TIE_WINDOW) {
+            writeSlowly(value, decimals, trimZeros);
+            return;
+        }
+        long units = (long) Math.floor(scaled + 0.5);
+        if (Double.doubleToRawLongBits(value) < 0 && !(trimZeros && units == 0)) {
+            write('-');
+        }
+        long power = POWERS_OF_TEN[decimals];
+        writeDecimal(units / power);
+        long fraction = units % power;
+        int fractionDigits = decimals;
+        if (trimZeros) {
+            while (fractionDigits > 0 && fraction % 10 == 0) {
+                fraction /= 10;
+                fractionDigits--;
+            }
+        }
+        if (fractionDigits > 0) {
+            write('.');
+            for (long p = POWERS_OF_TEN[fractionDigits - 1]; p > fraction && p > 1; p /= 10) {
+                write('0');
+            }
+            writeDecimal(fraction);
+        }
+    }
+
+    private void writeSlowly(double value, int decimals, boolean trimZeros) throws IOException {
+        // Formatter rounds the shortest decimal representation half up; do the same near ties
+        BigDecimal rounded = new BigDecimal(Double.toString(value)).setScale(decimals, RoundingMode.HALF_UP);
+        if (trimZeros) {
+            rounded = rounded.signum() == 0 ? BigDecimal.ZERO : rounded.stripTrailingZeros();
+        } else if (rounded.signum() == 0 && Double.doubleToRawLongBits(value) < 0) {
+            write('-');
+        }
+        writeUtf8(rounded.toPlainString());
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            bytesWritten += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package test.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A single typed column of a {@link StudentDataset}.
+ * <p>
+ * Columns are appended to by one loader thread. Rows that have been handed to the event dispatch
+ * thread (see {@link DatasetTableModel#publishRows(int)}) are never moved or rewritten by the loader,
+ * so they can be read while the rest of the file is still loading.
+ */
+public abstract class Column {
+
+    static final int INITIAL_CAPACITY = 1024;
+
+    private final String name;
+    int size;
+    // Set while a snapshot may share the storage, so the next rewrite of stored rows copies it first
+    boolean shared;
+
+    Column(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public abstract ColumnType getType();
+
+    /**
+     * Returns the value shown in the table for the given row.
+     */
+    public abstract Object getValue(int row);
+
+    /**
+     * Returns a column holding the rows stored so far that later changes to this column do not
+     * affect. It shares this column's storage, which appends never rewrite; the first edit or
+     * removal afterwards copies the storage before rewriting it. The snapshot must not be changed
+     * itself.
+     */
+    abstract Column snapshot();
+
+    /**
+     * Parses {@code text} and appends it as a new row.
+     */
+    abstract void append(String text);
+
+    /**
+     * Appends field {@code field} of a parsed record as a new row. Absent fields are stored as empty.
+     */
+    abstract void append(CsvRecord record, int field);
+
+    /**
+     * Appends all rows of {@code other}, which has the same type as this column.
+     */
+    abstract void appendAll(Column other);
+
+    /**
+     * Parses {@code text} and replaces the value stored at {@code row}.
+     */
+    abstract void set(int row, String text);
+
+    /**
+     * Removes rows {@code from} (inclusive) to {@code to} (exclusive), shifting later rows down.
+     */
+    abstract void remove(int from, int to);
+
+    /**
+     * Re-keys a row-indexed side table after rows {@code from} to {@code to} have been removed.
+     */
+    static <V> void removeKeys(Map<Integer, V> byRow, int from, int to) {
+        if (byRow.isEmpty()) {
+            return;
+        }
+        Map<Integer, V> shifted = new HashMap<>();
+        for (Map.Entry<Integer, V> entry : byRow.entrySet()) {
+            int row = entry.getKey();
+            if (row >= to) {
+                shifted.put(row - (to - from), entry.getValue());
+            } else if (row < from) {
+                shifted.put(row, entry.getValue());
+            }
+        }
+        byRow.clear();
+        byRow.putAll(shifted);
+    }
+
+    static int newCapacity(int current, int required) {
+        int capacity = Math.max(INITIAL_CAPACITY, current + (current >> 1));
+        return Math.max(capacity, required);
+    }
+}
@@ -0,0 +1,13 @@
+package test.data;
+
+/**
+ * Storage layout of a {@link Column}.
+ */
+public enum ColumnType {
+    /** High-cardinality text such as IDs and emails, stored as UTF-8 bytes. */
+    TEXT,
+    /** Low-cardinality text such as grades and departments, stored as dictionary codes. */
+    CATEGORY,
+    /** Numeric values stored as primitive doubles. */
+    NUMBER
+}
@@ -0,0 +1,258 @@
+package test.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary column-by-column layout of a {@link StudentDataset}. All values are big-endian; strings are
+ * written as an int byte count followed by UTF-8 bytes.
+ * <pre>
+ * int    MAGIC, int VERSION
+ * int    row count, int column count
+ * per column:  string name, byte {@link ColumnType} ordinal
+ * per column, in order:
+ *   NUMBER    row count doubles (NaN if missing or invalid),
+ *             int count of invalid cells, then per cell: int row, string original text
+ *   CATEGORY  int dictionary size, dictionary strings in code order,
+ *             byte code width (1 or 4), row count codes of that width
+ *   TEXT      int total byte count, row count int end offsets, the packed UTF-8 bytes
+ * </pre>
+ * Each column is a contiguous block of fixed-width values, so a reader can map the file and copy
+ * each column into its array in bulk, skipping the columns it does not need.
+ */
+public final class ColumnarFormat {
+
+    public static final int MAGIC = 0x4741434C; // "GACL"
+    public static final int VERSION = 1;
+
+    private ColumnarFormat() {
+    }
+
+    /**
+     * Writes the dataset's rows that are not in {@code excludedRows} (which may be null), calling
+     * {@code progress} after each column with the number of columns done.
+     *
+     * @return the number of rows written
+     */
+    static int write(StudentDataset dataset, BitSet excludedRows, ChannelWriter out, ColumnProgress progress) throws IOException {
+        int rowCount = dataset.getRowCount();
+        int included = excludedRows == null ? rowCount : rowCount - excludedRows.get(0, rowCount).cardinality();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(included);
+        out.writeInt(dataset.getColumnCount());
+        for (int i = 0; i < dataset.getColumnCount(); i++) {
+            out.writeString(dataset.getColumnName(i));
+            out.write(dataset.getColumn(i).getType().ordinal());
+        }
+        for (int i = 0; i < dataset.getColumnCount(); i++) {
+            Column column = dataset.getColumn(i);
+            if (column instanceof NumberColumn) {
+                writeNumbers((NumberColumn) column, rowCount, excludedRows, out);
+            } else if (column instanceof CategoryColumn) {
+                writeCategories((CategoryColumn) column, rowCount, excludedRows, out);
+            } else {
+                writeText((TextColumn) column, rowCount, excludedRows, out);
+            }
+            progress.columnsDone(i + 1);
+        }
+        return included;
+    }
+
+    /**
+     * Reads a layout written by {@link #write} from {@code buffer}'s position into the empty
+     * {@code dataset}. Columns are matched by name and type, and columns the dataset does not have
+     * are skipped. The dataset is only changed if every one of its columns is found.
+     *
+     * @return false if the data lacks one of the dataset's columns
+     * @throws IllegalArgumentException if the buffer does not start with this layout
+     */
+    static boolean read(ByteBuffer buffer, StudentDataset dataset) {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new IllegalArgumentException("Not a columnar dataset");
+        }
+        int rowCount = buffer.getInt();
+        int columnCount = buffer.getInt();
+        String[] names = new String[columnCount];
+        ColumnType[] types = new ColumnType[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = readString(buffer);
+            types[i] = ColumnType.values()[buffer.get()];
+        }
+
+        // Decode every column before touching the dataset, so a truncated file leaves it empty
+        boolean[] found = new boolean[dataset.getColumnCount()];
+        List<Runnable> loads = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            int target = dataset.findColumn(names[i]);
+            Column column = null;
+            if (target >= 0 && !found[target] && dataset.getColumn(target).getType() == types[i]) {
+                column = dataset.getColumn(target);
+                found[target] = true;
+            }
+            switch (types[i]) {
+                case NUMBER:
+                    loads.add(readNumbers(buffer, rowCount, (NumberColumn) column));
+                    break;
+                case CATEGORY:
+                    loads.add(readCategories(buffer, rowCount, (CategoryColumn) column));
+                    break;
+                default:
+                    loads.add(readText(buffer, rowCount, (TextColumn) column));
+                    break;
+            }
+        }
+        for (boolean columnFound : found) {
+            if (!columnFound) {
+                return false;
+            }
+        }
+        for (Runnable load : loads) {
+            load.run();
+        }
+        dataset.setRowCount(rowCount);
+        return true;
+    }
+
+    private static Runnable readNumbers(ByteBuffer buffer, int rowCount, NumberColumn column) {
+        double[] values = column != null ? new double[rowCount] : null;
+        if (values != null) {
+            buffer.asDoubleBuffer().get(values);
+        }
+        buffer.position(buffer.position() + rowCount * Double.BYTES);
+        int invalidCount = buffer.getInt();
+        Map<Integer, String> invalid = new HashMap<>();
+        for (int i = 0; i < invalidCount; i++) {
+            int row = buffer.getInt();
+            invalid.put(row, readString(buffer));
+        }
+        return column != null ? () -> column.load(values, rowCount, invalid) : () -> { };
+    }
+
+    private static Runnable readCategories(ByteBuffer buffer, int rowCount, CategoryColumn column) {
+        String[] dictionary = new String[buffer.getInt()];
+        for (int code = 0; code < dictionary.length; code++) {
+            dictionary[code] = readString(buffer);
+        }
+        int width = buffer.get();
+        if (column == null) {
+            buffer.position(buffer.position() + rowCount * width);
+            return () -> { };
+        }
+        if (width == 1) {
+            byte[] codes = new byte[rowCount];
+            buffer.get(codes);
+            return () -> column.load(dictionary, codes, null, rowCount);
+        }
+        int[] codes = new int[rowCount];
+        buffer.asIntBuffer().get(codes);
+        buffer.position(buffer.position() + rowCount * Integer.BYTES);
+        return () -> column.load(dictionary, null, codes, rowCount);
+    }
+
+    private static Runnable readText(ByteBuffer buffer, int rowCount, TextColumn column) {
+        int totalBytes = buffer.getInt();
+        if (column == null) {
+            buffer.position(buffer.position() + rowCount * Integer.BYTES + totalBytes);
+            return () -> { };
+        }
+        int[] ends = new int[rowCount];
+        buffer.asIntBuffer().get(ends);
+        buffer.position(buffer.position() + rowCount * Integer.BYTES);
+        byte[] bytes = new byte[totalBytes];
+        buffer.get(bytes);
+        return () -> column.load(bytes, ends, rowCount);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Receives the number of columns written so far.
+     */
+    interface ColumnProgress {
+        void columnsDone(int columns) throws IOException;
+    }
+
+    private static void writeNumbers(NumberColumn column, int rowCount, BitSet excludedRows, ChannelWriter out) throws IOException {
+        int invalidCount = 0;
+        for (int row = nextRow(0, excludedRows); row < rowCount; row = nextRow(row + 1, excludedRows)) {
+            out.writeDouble(column.get(row));
+            if (column.getInvalidText(row) != null) {
+                invalidCount++;
+            }
+        }
+        out.writeInt(invalidCount);
+        int outputRow = 0;
+        for (int row = nextRow(0, excludedRows); row < rowCount; row = nextRow(row + 1, excludedRows)) {
+            String text = column.getInvalidText(row);
+            if (text != null) {
+                out.writeInt(outputRow);
+                out.writeString(text);
+            }
+            outputRow++;
+        }
+    }
+
+    private static void writeCategories(CategoryColumn column, int rowCount, BitSet excludedRows, ChannelWriter out) throws IOException {
+        Dictionary dictionary = column.getDictionary();
+        int size = dictionary.size();
+        out.writeInt(size);
+        for (int code = 0; code < size; code++) {
+            out.writeString(dictionary.get(code));
+        }
+        boolean wide = size > 0x100;
+        out.write(wide ? Integer.BYTES : 1);
+        for (int row = nextRow(0, excludedRows); row < rowCount; row = nextRow(row + 1, excludedRows)) {
+            if (wide) {
+                out.writeInt(column.getCode(row));
+            } else {
+                out.write(column.getCode(row));
+            }
+        }
+    }
+
+    private static void writeText(TextColumn column, int rowCount, BitSet excludedRows, ChannelWriter out) throws IOException {
+        int totalBytes = 0;
+        for (int row = nextRow(0, excludedRows); row < rowCount; row = nextRow(row + 1, excludedRows)) {
+            totalBytes += encodedLength(column, row);
+        }
+        out.writeInt(totalBytes);
+        int end = 0;
+        for (int row = nextRow(0, excludedRows); row < rowCount; row = nextRow(row + 1, excludedRows)) {
+            end += encodedLength(column, row);
+            out.writeInt(end);
+        }
+        byte[] bytes = column.getBytes();
+        for (int row = nextRow(0, excludedRows); row < rowCount; row = nextRow(row + 1, excludedRows)) {
+            String edit = column.getEdit(row);
+            if (edit != null) {
+                out.writeUtf8(edit);
+            } else {
+                int start = column.getStart(row);
+                out.write(bytes, start, column.getEnd(row) - start);
+            }
+        }
+    }
+
+    private static int encodedLength(TextColumn column, int row) {
+        String edit = column.getEdit(row);
+        if (edit != null) {
+            return edit.getBytes(StandardCharsets.UTF_8).length;
+        }
+        return column.getEnd(row) - column.getStart(row);
+    }
+
+    static int nextRow(int row, BitSet excludedRows) {
+        return excludedRows == null ? row : excludedRows.nextClearBit(row);
+    }
+}
@@ -0,0 +1,117 @@
+package test.data;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import java.io.File;
+import java.io.IOException;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * Streams a CSV file into a {@link StudentDataset} without blocking the event dispatch thread.
+ * The file is parsed with {@link CsvParser} on the worker thread straight into the dataset's
+ * columns, and every chunk of rows is then published to the {@link DatasetTableModel} with a single
+ * insert event. Progress is reported as the percentage of bytes read.
+ * <p>
+ * Chunks are published with {@code invokeLater} rather than {@code publish}, so they reach the model
+ * in order and before the worker reports {@code DONE}.
+ * <p>
+ * A file that was loaded before and has not changed is read from its {@link SnapshotCache} entry
+ * instead of being parsed; a file that is parsed completely gets a snapshot for next time. Either
+ * way the file's header row is resolved into the dataset's columns with
+ * {@link StudentDataset#mapHeader(CsvRecord)}, so rows appended to the file later are read the same.
+ * <p>
+ * Once all rows are in, the worker builds the dataset's {@link DatasetIndex} before finishing.
+ */
+public class CsvLoadWorker extends SwingWorker<Integer, Void> {
+
+    private static final int CHUNK_SIZE = 8192;
+
+    private final File file;
+    private final StudentDataset dataset;
+    private final DatasetTableModel tableModel;
+    private long totalBytes;
+    private int rowCount;
+    private long endOffset;
+    private DatasetIndex index;
+    private boolean headerMapped;
+
+    public CsvLoadWorker(File file, StudentDataset dataset, DatasetTableModel tableModel) {
+        this.file = file;
+        this.dataset = dataset;
+        this.tableModel = tableModel;
+    }
+
+    @Override
+    protected Integer doInBackground() throws IOException {
+        totalBytes = Math.max(1, file.length());
+        try (Timing timing = Metrics.start("Load CSV")) {
+            if (SnapshotCache.load(file, dataset)) {
+                dataset.mapHeader(file);
+                // The snapshot is only used while the file is unchanged, so its rows end at the file's end
+                endOffset = file.length();
+                rowCount = dataset.getRowCount();
+                publishRows(rowCount);
+                setProgress(100);
+            } else {
+                CsvParser.parse(file, this::handleRecord);
+                publishRows(rowCount);
+                if (!isCancelled()) {
+                    SnapshotCache.save(file, dataset);
+                    setProgress(100);
+                }
+            }
+            timing.rows(rowCount).bytes(endOffset).errors(dataset.countInvalidCells());
+        }
+        if (!isCancelled()) {
+            try (Timing timing = Metrics.start("Build Index")) {
+                index = new DatasetIndex(dataset);
+                timing.rows(index.getIndexedRows());
+            }
+        }
+        return rowCount;
+    }
+
+    private boolean handleRecord(CsvRecord record) {
+        endOffset = record.getEndOffset();
+        if (!headerMapped) {
+            headerMapped = true;
+            dataset.mapHeader(record);
+            return true;
+        }
+        dataset.appendRecord(record);
+        rowCount++;
+        if (rowCount % CHUNK_SIZE == 0) {
+            publishRows(rowCount);
+            setProgress((int) Math.min(99, record.getEndOffset() * 100 / totalBytes));
+        }
+        return !isCancelled();
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Returns the file offset just past the last record read. Only complete once the worker is done.
+     */
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    /**
+     * Returns the index of the loaded rows, or null if loading was cancelled. Only complete once the
+     * worker is done.
+     */
+    public DatasetIndex getIndex() {
+        return index;
+    }
+
+    private void publishRows(int count) {
+        SwingUtilities.invokeLater(() -> {
+            if (!isCancelled() && tableModel.getDataset() == dataset) {
+                tableModel.publishRows(count);
+            }
+        });
+    }
+}
@@ -0,0 +1,129 @@
+package test.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Byte-level CSV parser over a memory-mapped file. Records are split according to RFC 4180: fields
+ * may be wrapped in double quotes, quoted fields may contain commas, line breaks and doubled quotes,
+ * and empty fields (including trailing ones) are preserved. Lines may end in {@code \n} or
+ * {@code \r\n}, a leading UTF-8 byte order mark is skipped and blank lines are ignored.
+ * <p>
+ * The parser never copies the file into Java strings. Each record is exposed as a {@link CsvRecord}
+ * view over the mapped bytes, and callers decide which fields to decode. The file is mapped in
+ * windows so files larger than 2 GB can be parsed.
+ */
+public final class CsvParser {
+
+    /**
+     * Receives each record in file order. The record view is reused and is only valid during the call.
+     */
+    public interface RecordHandler {
+        /**
+         * Handles one record and returns false to stop parsing.
+         */
+        boolean handle(CsvRecord record);
+    }
+
+    private static final int WINDOW_SIZE = 1 << 26;
+
+    private CsvParser() {
+    }
+
+    /**
+     * Parses {@code file} and passes every non-blank record, including the header, to {@code handler}.
+     *
+     * @return the number of records passed to the handler
+     */
+    public static long parse(File file, RecordHandler handler) throws IOException {
+        return parse(file, 0, Long.MAX_VALUE, WINDOW_SIZE, handler);
+    }
+
+    /**
+     * Parses {@code file} from byte {@code start}, which must be the start of a record or the end
+     * offset of an earlier record, and passes every following non-blank record to {@code handler}.
+     *
+     * @return the number of records passed to the handler
+     */
+    public static long parse(File file, long start, RecordHandler handler) throws IOException {
+        return parse(file, start, Long.MAX_VALUE, WINDOW_SIZE, handler);
+    }
+
+    /**
+     * Parses the bytes of {@code file} from {@code start} up to {@code end} as if the file ended
+     * there, and passes every non-blank record to {@code handler}. {@code start} must be the start of
+     * a record, and {@code end} should be just past a line break so the last record is complete.
+     *
+     * @return the number of records passed to the handler
+     */
+    public static long parse(File file, long start, long end, RecordHandler handler) throws IOException {
+        return parse(file, start, end, WINDOW_SIZE, false, handler);
+    }
+
+    /**
+     * Parses the bytes of {@code file} from {@code start} up to {@code end} like
+     * {@link #parse(File, long, long, RecordHandler)}, but leaves out a last record whose line break
+     * has not been written yet, as when another program is still appending to the file. A line break
+     * inside a quoted field does not end a record, so the first record left out starts at the
+     * {@link CsvRecord#getEndOffset() end offset} of the last one passed to {@code handler}.
+     *
+     * @return the number of records passed to the handler
+     */
+    public static long parseComplete(File file, long start, long end, RecordHandler handler) throws IOException {
+        return parse(file, start, end, WINDOW_SIZE, true, handler);
+    }
+
+    static long parse(File file, long start, long end, int windowSize, RecordHandler handler) throws IOException {
+        return parse(file, start, end, windowSize, false, handler);
+    }
+
+    private static long parse(File file, long start, long end, int windowSize, boolean completeOnly, RecordHandler handler)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = Math.min(end, channel.size());
+            CsvRecord record = new CsvRecord();
+            long records = 0;
+            long windowStart = start;
+            while (windowStart < size) {
+                int windowLength = (int) Math.min(windowSize, size - windowStart);
+                boolean lastWindow = windowStart + windowLength == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowLength);
+                record.reset(buffer, windowStart);
+
+                int position = windowStart == 0 ? skipByteOrderMark(buffer, windowLength) : 0;
+                while (position < windowLength) {
+                    int next = record.scan(position, windowLength, lastWindow && !completeOnly);
+                    if (next < 0) {
+                        break; // The record continues past this window
+                    }
+                    position = next;
+                    if (record.isBlankLine()) {
+                        continue;
+                    }
+                    records++;
+                    if (!handler.handle(record)) {
+                        return records;
+                    }
+                }
+                if (lastWindow && completeOnly) {
+                    return records; // The rest is a record still being written
+                }
+                if (position == 0) {
+                    throw new IOException("Record at byte " + windowStart + " is longer than " + windowSize + " bytes");
+                }
+                windowStart += position;
+            }
+            return records;
+        }
+    }
+
+    private static int skipByteOrderMark(MappedByteBuffer buffer, int length) {
+        if (length >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+}
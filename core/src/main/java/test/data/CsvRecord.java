@@ -0,0 +1,341 @@
+package test.data;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * View of one CSV record inside a mapped buffer. Fields are kept as byte ranges and are only decoded
+ * when a caller asks for them; numbers are parsed directly from the bytes.
+ */
+public final class CsvRecord {
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    private ByteBuffer buffer;
+    private long bufferOffset;
+    private long endOffset;
+    private int fieldCount;
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private boolean[] quoted = new boolean[32];
+    private boolean[] escaped = new boolean[32];
+    private byte[] scratch = new byte[256];
+
+    CsvRecord() {
+    }
+
+    void reset(ByteBuffer buffer, long bufferOffset) {
+        this.buffer = buffer;
+        this.bufferOffset = bufferOffset;
+    }
+
+    /**
+     * Splits the record starting at {@code position} into fields.
+     *
+     * @return the position just after the record's line terminator, or -1 if the record is not
+     * complete before {@code limit} and more input follows
+     */
+    int scan(int position, int limit, boolean atEndOfInput) {
+        fieldCount = 0;
+        int p = position;
+        while (true) {
+            if (p < limit && buffer.get(p) == '"') {
+                int start = p + 1;
+                boolean hasEscapes = false;
+                p = start;
+                while (true) {
+                    if (p >= limit) {
+                        if (!atEndOfInput) {
+                            return -1;
+                        }
+                        addField(start, p, true, hasEscapes); // Unterminated quote runs to the end of input
+                        return finish(p);
+                    }
+                    if (buffer.get(p) == '"') {
+                        if (p + 1 >= limit && !atEndOfInput) {
+                            return -1;
+                        }
+                        if (p + 1 < limit && buffer.get(p + 1) == '"') {
+                            hasEscapes = true;
+                            p += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    p++;
+                }
+                addField(start, p, true, hasEscapes);
+                p++;
+                // Tolerate stray characters between the closing quote and the delimiter
+                while (p < limit && !isDelimiter(buffer.get(p))) {
+                    p++;
+                }
+            } else {
+                int start = p;
+                while (p < limit && !isDelimiter(buffer.get(p))) {
+                    p++;
+                }
+                addField(start, p, false, false);
+            }
+
+            if (p >= limit) {
+                return atEndOfInput ? finish(p) : -1;
+            }
+            byte b = buffer.get(p);
+            if (b == ',') {
+                p++;
+                continue;
+            }
+            if (b == '\r') {
+                if (p + 1 >= limit) {
+                    if (!atEndOfInput) {
+                        return -1;
+                    }
+                } else if (buffer.get(p + 1) == '\n') {
+                    p++;
+                }
+            }
+            return finish(p + 1);
+        }
+    }
+
+    private int finish(int next) {
+        endOffset = bufferOffset + next;
+        return next;
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == '\n' || b == '\r';
+    }
+
+    private void addField(int start, int end, boolean isQuoted, boolean hasEscapes) {
+        if (fieldCount == starts.length) {
+            int capacity = fieldCount * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            quoted = Arrays.copyOf(quoted, capacity);
+            escaped = Arrays.copyOf(escaped, capacity);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        quoted[fieldCount] = isQuoted;
+        escaped[fieldCount] = hasEscapes;
+        fieldCount++;
+    }
+
+    boolean isBlankLine() {
+        return fieldCount == 1 && !quoted[0] && starts[0] == ends[0];
+    }
+
+    /**
+     * Returns the absolute file offset just past this record.
+     */
+    public long getEndOffset() {
+        return endOffset;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Returns true if the field is absent, empty or contains only spaces.
+     */
+    public boolean isBlank(int field) {
+        if (field >= fieldCount) {
+            return true;
+        }
+        for (int p = starts[field]; p < ends[field]; p++) {
+            byte b = buffer.get(p);
+            if (b != ' ' && b != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the field contains doubled quotes and therefore cannot be used byte for byte.
+     */
+    public boolean hasEscapes(int field) {
+        return field < fieldCount && escaped[field];
+    }
+
+    /**
+     * Returns the raw length in bytes of the field, excluding surrounding quotes.
+     */
+    public int length(int field) {
+        return field < fieldCount ? ends[field] - starts[field] : 0;
+    }
+
+    /**
+     * Returns byte {@code index} of the field's raw content.
+     */
+    public byte byteAt(int field, int index) {
+        return buffer.get(starts[field] + index);
+    }
+
+    /**
+     * Copies the field's raw content into {@code destination} starting at {@code offset}.
+     */
+    public void copyTo(int field, byte[] destination, int offset) {
+        int start = starts[field];
+        int length = ends[field] - start;
+        for (int i = 0; i < length; i++) {
+            destination[offset + i] = buffer.get(start + i);
+        }
+    }
+
+    /**
+     * Decodes the field as a string, unescaping doubled quotes. Absent fields are returned as "".
+     */
+    public String getString(int field) {
+        if (field >= fieldCount) {
+            return "";
+        }
+        int length = ends[field] - starts[field];
+        if (length > scratch.length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        copyTo(field, scratch, 0);
+        String value = new String(scratch, 0, length, StandardCharsets.UTF_8);
+        return escaped[field] ? value.replace("\"\"", "\"") : value;
+    }
+
+    /**
+     * Returns all fields decoded as strings.
+     */
+    public String[] toStringArray() {
+        String[] values = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = getString(i);
+        }
+        return values;
+    }
+
+    /**
+     * Parses the field as a decimal number without creating a string. Plain decimals with up to 15
+     * significant digits are converted exactly like {@link Double#parseDouble}; anything else (exponents,
+     * long mantissas) is handed to {@code parseDouble}.
+     *
+     * @return the value, or {@link Double#NaN} if the field is blank or not a number
+     */
+    public double getDouble(int field) {
+        if (field >= fieldCount) {
+            return Double.NaN;
+        }
+        int p = starts[field];
+        int end = ends[field];
+        while (p < end && buffer.get(p) == ' ') {
+            p++;
+        }
+        while (end > p && buffer.get(end - 1) == ' ') {
+            end--;
+        }
+        if (p == end) {
+            return Double.NaN;
+        }
+
+        boolean negative = false;
+        byte first = buffer.get(p);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            p++;
+        }
+        long mantissa = 0;
+        int scale = 0;
+        boolean seenDigit = false;
+        boolean seenPoint = false;
+        for (; p < end; p++) {
+            byte b = buffer.get(p);
+            if (b >= '0' && b <= '9') {
+                if (mantissa >= MAX_EXACT_MANTISSA / 10) {
+                    return parseSlowly(field);
+                }
+                mantissa = mantissa * 10 + (b - '0');
+                seenDigit = true;
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                return parseSlowly(field);
+            }
+        }
+        if (!seenDigit || scale >= POWERS_OF_TEN.length) {
+            return parseSlowly(field);
+        }
+        // Both operands are exact doubles, so one correctly rounded division matches parseDouble
+        double value = scale == 0 ? mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    private double parseSlowly(int field) {
+        String text = getString(field).trim();
+        return isNumber(text) ? Double.parseDouble(text) : Double.NaN;
+    }
+
+    /**
+     * Returns true if {@link Double#parseDouble} accepts the trimmed {@code text}. Malformed cells are
+     * common in dirty exports, so plain decimals, with an optional exponent and type suffix, are
+     * checked without throwing; only text that could be a hexadecimal float, NaN or Infinity is left
+     * to {@code parseDouble} to decide.
+     */
+    static boolean isNumber(String text) {
+        int length = text.length();
+        int p = 0;
+        if (p < length && (text.charAt(p) == '+' || text.charAt(p) == '-')) {
+            p++;
+        }
+        int digits = 0;
+        while (p < length && isDigit(text.charAt(p))) {
+            p++;
+            digits++;
+        }
+        if (p < length && text.charAt(p) == '.') {
+            p++;
+            while (p < length && isDigit(text.charAt(p))) {
+                p++;
+                digits++;
+            }
+        }
+        if (digits > 0 && p < length && (text.charAt(p) == 'e' || text.charAt(p) == 'E')) {
+            p++;
+            if (p < length && (text.charAt(p) == '+' || text.charAt(p) == '-')) {
+                p++;
+            }
+            int exponentDigits = 0;
+            while (p < length && isDigit(text.charAt(p))) {
+                p++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+        if (digits > 0 && p < length && "fFdD".indexOf(text.charAt(p)) >= 0) {
+            p++;
+        }
+        if (digits > 0 && p == length) {
+            return true;
+        }
+        if (text.indexOf('x') < 0 && text.indexOf('X') < 0 && !text.contains("NaN") && !text.contains("Infinity")) {
+            return false;
+        }
+        try {
+            Double.parseDouble(text);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,88 @@
+package test.data;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Named datasets held side by side, such as the exports of successive terms, in the order they were
+ * added. Category columns of the same name share one {@link Dictionary} across all the datasets,
+ * so a department or grade is stored once however many terms mention it, and its code means the
+ * same value in every term.
+ * <p>
+ * The catalog takes over the datasets added to it: their category columns are moved onto the shared
+ * dictionaries, and they must not be changed afterwards. Add a {@link StudentDataset#copy()} of a
+ * dataset that is still being edited. Shared dictionaries only grow while the catalog holds its
+ * lock, and codes never change, so the datasets can be analyzed while another one is being added.
+ */
+public final class DatasetCatalog {
+
+    private final Map<String, StudentDataset> datasets = new LinkedHashMap<>();
+    private final Map<String, Dictionary> dictionaries = new HashMap<>();
+
+    /**
+     * Adds {@code dataset} under {@code name} after the datasets already held.
+     *
+     * @throws IllegalArgumentException if the catalog already holds a dataset of that name
+     */
+    public synchronized void add(String name, StudentDataset dataset) {
+        if (datasets.containsKey(name)) {
+            throw new IllegalArgumentException("Duplicate dataset name: " + name);
+        }
+        for (int i = 0; i < dataset.getColumnCount(); i++) {
+            Column column = dataset.getColumn(i);
+            if (column instanceof CategoryColumn) {
+                CategoryColumn category = (CategoryColumn) column;
+                Dictionary shared = dictionaries.get(column.getName());
+                if (shared == null) {
+                    // The first dataset with the column lends it its dictionary
+                    dictionaries.put(column.getName(), category.getDictionary());
+                } else {
+                    category.shareDictionary(shared);
+                }
+            }
+        }
+        datasets.put(name, dataset);
+    }
+
+    /**
+     * Removes the dataset named {@code name}. Its values stay in the shared dictionaries.
+     *
+     * @return true if the catalog held it
+     */
+    public synchronized boolean remove(String name) {
+        return datasets.remove(name) != null;
+    }
+
+    public synchronized StudentDataset get(String name) {
+        return datasets.get(name);
+    }
+
+    /**
+     * Returns the names of the datasets in the order they were added.
+     */
+    public synchronized List<String> getNames() {
+        return new ArrayList<>(datasets.keySet());
+    }
+
+    /**
+     * Returns the datasets by name in the order they were added.
+     */
+    public synchronized Map<String, StudentDataset> getDatasets() {
+        return new LinkedHashMap<>(datasets);
+    }
+
+    public synchronized int size() {
+        return datasets.size();
+    }
+
+    /**
+     * Returns the dictionary shared by the category columns named {@code column}, or null if no
+     * dataset has one.
+     */
+    public synchronized Dictionary getDictionary(String column) {
+        return dictionaries.get(column);
+    }
+}
@@ -0,0 +1,79 @@
+package test.data;
+
+import javax.swing.JOptionPane;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingConstants;
+import javax.swing.SwingWorker;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.TableModel;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.util.BitSet;
+import java.util.function.Supplier;
+
+/**
+ * Dialogs shared by the applications that load student data, so loading and the views built on it
+ * behave, and perform, the same in each.
+ */
+public final class DatasetDialogs {
+
+    private DatasetDialogs() {
+    }
+
+    /**
+     * Starts {@code worker} and shows its progress, with the option to cancel, in a monitor that
+     * pops up if the work takes a while. {@code note} is shown under the progress bar and
+     * {@code onDone} runs on the event dispatch thread once the worker has finished or was cancelled.
+     */
+    public static void runWithProgress(Component parent, SwingWorker<?, ?> worker, String title, Supplier<String> note,
+                                       Runnable onDone) {
+        ProgressMonitor monitor = new ProgressMonitor(parent, title, "", 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+        worker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                monitor.setProgress((Integer) e.getNewValue());
+                monitor.setNote(note.get());
+                if (monitor.isCanceled()) {
+                    worker.cancel(false);
+                }
+            } else if ("state".equals(e.getPropertyName()) && e.getNewValue() == SwingWorker.StateValue.DONE) {
+                monitor.close();
+                onDone.run();
+            }
+        });
+        worker.execute();
+    }
+
+    /**
+     * Shows the Student ID and Grade of the {@code flagged} rows of {@code source}, which has the
+     * columns of {@code fields}, or tells the user why there are none. The rows are read from the
+     * source as they are shown, so {@code flagged} may be null when there is no attendance column.
+     */
+    public static void showMissingAttendance(Component parent, TableModel source, StudentFields fields, BitSet flagged) {
+        int studentIdIndex = fields.studentIdIndex();
+        int gradeIndex = fields.gradeIndex();
+        if (flagged == null || studentIdIndex == -1 || gradeIndex == -1) {
+            JOptionPane.showMessageDialog(parent, "Required columns (Attendance (%), Student ID, Grade) not found.");
+            return;
+        }
+        if (flagged.isEmpty()) {
+            JOptionPane.showMessageDialog(parent, "No missing attendance data found.");
+            return;
+        }
+
+        RowSubsetTableModel missingDataModel = new RowSubsetTableModel(source, flagged.stream().toArray(),
+                new int[]{studentIdIndex, gradeIndex});
+        JTable missingDataTable = new JTable(missingDataModel);
+        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer();
+        centerRenderer.setHorizontalAlignment(SwingConstants.CENTER);
+        for (int i = 0; i < missingDataTable.getColumnCount(); i++) {
+            missingDataTable.getColumnModel().getColumn(i).setCellRenderer(centerRenderer);
+        }
+
+        JScrollPane scrollPane = new JScrollPane(missingDataTable);
+        scrollPane.setPreferredSize(new Dimension(400, 200));
+        JOptionPane.showMessageDialog(parent, scrollPane, "Missing Attendance Data", JOptionPane.INFORMATION_MESSAGE);
+    }
+}
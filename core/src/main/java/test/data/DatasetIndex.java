@@ -0,0 +1,231 @@
+package test.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Secondary indexes over a {@link StudentDataset}, so looking up a student or the rows with given
+ * category values does not scan the table. {@link #KEY_COLUMN} gets an open-addressing hash table
+ * with one slot per distinct key, hashed and compared on the packed bytes so no value is decoded, and
+ * the rows sharing a key are chained through an array. Every category column gets a posting list
+ * per value as a {@link BitSet}. Compound filters are answered by intersecting bitmaps.
+ * <p>
+ * Rows appended to the dataset can be indexed incrementally with {@link #appendRows()}; after rows
+ * are edited or removed the index must be rebuilt. An index is built once on any thread and then
+ * only read or appended to on one thread at a time.
+ */
+public final class DatasetIndex {
+
+    public static final String KEY_COLUMN = StudentFields.STUDENT_ID;
+
+    private final StudentDataset dataset;
+    private final TextColumn keyColumn;
+    private final Map<String, CategoryColumn> categoryColumns = new LinkedHashMap<>();
+    private final Map<String, BitSet[]> postings = new LinkedHashMap<>();
+    private int[] slots = new int[16];
+    private int[] nextRow = new int[0];
+    private int keyCount;
+    private int indexedRows;
+
+    /**
+     * Indexes every row of {@code dataset}.
+     */
+    public DatasetIndex(StudentDataset dataset) {
+        this.dataset = dataset;
+        keyColumn = dataset.getFields().studentId();
+        for (int i = 0; i < dataset.getColumnCount(); i++) {
+            Column column = dataset.getColumn(i);
+            if (column instanceof CategoryColumn) {
+                categoryColumns.put(column.getName(), (CategoryColumn) column);
+                postings.put(column.getName(), new BitSet[0]);
+            }
+        }
+        appendRows();
+    }
+
+    public StudentDataset getDataset() {
+        return dataset;
+    }
+
+    /**
+     * Returns the number of dataset rows covered by the index.
+     */
+    public int getIndexedRows() {
+        return indexedRows;
+    }
+
+    /**
+     * Indexes the rows appended to the dataset since the index was built or last extended.
+     */
+    public void appendRows() {
+        int rowCount = dataset.getRowCount();
+        if (rowCount <= indexedRows) {
+            return;
+        }
+        if (keyColumn != null) {
+            nextRow = Arrays.copyOf(nextRow, rowCount);
+            for (int row = indexedRows; row < rowCount; row++) {
+                insertKey(row);
+            }
+        }
+        for (Map.Entry<String, CategoryColumn> entry : categoryColumns.entrySet()) {
+            CategoryColumn column = entry.getValue();
+            BitSet[] lists = postings.get(entry.getKey());
+            int codeCount = column.getDictionary().size();
+            if (codeCount > lists.length) {
+                lists = Arrays.copyOf(lists, codeCount);
+                postings.put(entry.getKey(), lists);
+            }
+            for (int row = indexedRows; row < rowCount; row++) {
+                int code = column.getCode(row);
+                if (lists[code] == null) {
+                    lists[code] = new BitSet();
+                }
+                lists[code].set(row);
+            }
+        }
+        indexedRows = rowCount;
+    }
+
+    /**
+     * Returns the rows whose {@link #KEY_COLUMN} is exactly {@code key}, in row order; empty if there
+     * are none or the dataset has no key column.
+     */
+    public int[] findRows(String key) {
+        if (keyColumn == null) {
+            return new int[0];
+        }
+        byte[] value = key.getBytes(StandardCharsets.UTF_8);
+        int mask = slots.length - 1;
+        for (int slot = TextColumn.hash(value, 0, value.length) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int last = slots[slot] - 1;
+            if (keyColumn.matches(last, value)) {
+                // The chain runs from the last row with this key back to the first
+                int found = 0;
+                for (int row = last; row >= 0; row = nextRow[row]) {
+                    found++;
+                }
+                int[] rows = new int[found];
+                for (int row = last; row >= 0; row = nextRow[row]) {
+                    rows[--found] = row;
+                }
+                return rows;
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Returns the names of the indexed category columns, in dataset order.
+     */
+    public List<String> getIndexedColumns() {
+        return Collections.unmodifiableList(new ArrayList<>(categoryColumns.keySet()));
+    }
+
+    /**
+     * Returns the distinct values of an indexed column that occur in at least one row, in order of
+     * first appearance.
+     */
+    public List<String> getValues(String column) {
+        BitSet[] lists = getPostings(column);
+        List<String> values = new ArrayList<>();
+        for (int code = 0; code < lists.length; code++) {
+            if (lists[code] != null && !lists[code].isEmpty()) {
+                values.add(categoryColumns.get(column).getDictionary().get(code));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns a copy of the rows whose {@code column} holds {@code value}.
+     *
+     * @throws IllegalArgumentException if the column is not indexed
+     */
+    public BitSet getRows(String column, String value) {
+        BitSet list = getPosting(column, value);
+        return list != null ? (BitSet) list.clone() : new BitSet();
+    }
+
+    /**
+     * Returns the rows that match every {@code column -> value} criterion; no criteria match every
+     * row. Posting lists are intersected smallest first.
+     *
+     * @throws IllegalArgumentException if a column is not indexed
+     */
+    public BitSet select(Map<String, String> criteria) {
+        List<BitSet> lists = new ArrayList<>();
+        for (Map.Entry<String, String> criterion : criteria.entrySet()) {
+            BitSet list = getPosting(criterion.getKey(), criterion.getValue());
+            if (list == null) {
+                return new BitSet();
+            }
+            lists.add(list);
+        }
+        if (lists.isEmpty()) {
+            BitSet all = new BitSet(indexedRows);
+            all.set(0, indexedRows);
+            return all;
+        }
+        lists.sort((a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        BitSet result = (BitSet) lists.get(0).clone();
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.and(lists.get(i));
+        }
+        return result;
+    }
+
+    private BitSet getPosting(String column, String value) {
+        int code = categoryColumns.containsKey(column) ? categoryColumns.get(column).getDictionary().indexOf(value) : -1;
+        BitSet[] lists = getPostings(column);
+        return code >= 0 && code < lists.length ? lists[code] : null;
+    }
+
+    private BitSet[] getPostings(String column) {
+        BitSet[] lists = postings.get(column);
+        if (lists == null) {
+            throw new IllegalArgumentException("Not an indexed column: " + column);
+        }
+        return lists;
+    }
+
+    private void insertKey(int row) {
+        int mask = slots.length - 1;
+        int slot = keyColumn.hash(row) & mask;
+        while (slots[slot] != 0) {
+            int last = slots[slot] - 1;
+            if (keyColumn.matches(last, row)) {
+                nextRow[row] = last;
+                slots[slot] = row + 1;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        nextRow[row] = -1;
+        slots[slot] = row + 1;
+        if (++keyCount * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        int[] old = slots;
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int last : old) {
+            if (last != 0) {
+                int slot = keyColumn.hash(last - 1) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = last;
+            }
+        }
+    }
+}
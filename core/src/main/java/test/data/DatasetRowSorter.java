@@ -0,0 +1,311 @@
+package test.data;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import javax.swing.SwingWorker;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.IntPredicate;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * {@link RowSorter} for a {@link DatasetTableModel} that sorts on the dataset's typed columns with
+ * {@link DatasetSorter} and keeps the rows matching a text filter. Clicking a header makes that
+ * column the first sort key and keeps up to {@link #MAX_SORT_KEYS} earlier ones after it, so
+ * sorting by Attendance and then by Grade orders each grade by attendance.
+ * <p>
+ * Sorting and filtering run on a {@link SwingWorker}; the table keeps its current order until the
+ * new one is ready. Requests that arrive while a pass is running are coalesced into one more pass.
+ * Rows appended meanwhile are shown at the end of the view and placed on that next pass, while
+ * deletions are applied to the current order at once. As with a {@link javax.swing.DefaultRowSorter}
+ * left at its defaults, edited rows keep their place until the next sort.
+ */
+public class DatasetRowSorter extends RowSorter<DatasetTableModel> {
+
+    public static final int MAX_SORT_KEYS = 3;
+
+    private final DatasetTableModel model;
+    private List<SortKey> sortKeys = Collections.emptyList();
+    private String filterText = "";
+    private IntPredicate filter;
+    private StudentDataset filterDataset;
+    // Null while the view shows every model row in model order
+    private int[] viewToModel;
+    private int viewCount;
+    private int[] modelToView;
+    private SwingWorker<int[], Void> worker;
+    private int generation;
+    private boolean pending;
+
+    public DatasetRowSorter(DatasetTableModel model) {
+        this.model = model;
+    }
+
+    @Override
+    public DatasetTableModel getModel() {
+        return model;
+    }
+
+    @Override
+    public void toggleSortOrder(int column) {
+        List<SortKey> keys = new ArrayList<>(sortKeys);
+        SortOrder order = SortOrder.ASCENDING;
+        if (!keys.isEmpty() && keys.get(0).getColumn() == column && keys.get(0).getSortOrder() == SortOrder.ASCENDING) {
+            order = SortOrder.DESCENDING;
+        }
+        keys.removeIf(key -> key.getColumn() == column);
+        keys.add(0, new SortKey(column, order));
+        setSortKeys(keys.subList(0, Math.min(keys.size(), MAX_SORT_KEYS)));
+    }
+
+    @Override
+    public void setSortKeys(List<? extends SortKey> keys) {
+        sortKeys = keys == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(keys));
+        fireSortOrderChanged();
+        sortInBackground(true);
+    }
+
+    @Override
+    public List<? extends SortKey> getSortKeys() {
+        return sortKeys;
+    }
+
+    public String getFilterText() {
+        return filterText;
+    }
+
+    /**
+     * Keeps only the rows with a text or category value containing {@code text}, ignoring case, as
+     * {@link DatasetSorter#containsFilter} does; an empty text keeps every row.
+     */
+    public void setFilterText(String text) {
+        filterText = text == null ? "" : text.trim();
+        filter = null;
+        sortInBackground(true);
+    }
+
+    /**
+     * Returns true while a sort or filter pass is running.
+     */
+    public boolean isSorting() {
+        return worker != null;
+    }
+
+    @Override
+    public int convertRowIndexToModel(int index) {
+        if (index < 0 || index >= getViewRowCount()) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        return viewToModel == null ? index : viewToModel[index];
+    }
+
+    @Override
+    public int convertRowIndexToView(int index) {
+        if (index < 0 || index >= model.getRowCount()) {
+            throw new IndexOutOfBoundsException("Invalid index");
+        }
+        return modelToView == null ? index : modelToView[index];
+    }
+
+    @Override
+    public int getViewRowCount() {
+        return viewToModel == null ? model.getRowCount() : viewCount;
+    }
+
+    @Override
+    public int getModelRowCount() {
+        return model.getRowCount();
+    }
+
+    @Override
+    public void modelStructureChanged() {
+        // Column indices of the old sort keys may name other columns now
+        if (!sortKeys.isEmpty()) {
+            sortKeys = Collections.emptyList();
+            fireSortOrderChanged();
+        }
+        allRowsChanged();
+    }
+
+    @Override
+    public void allRowsChanged() {
+        viewToModel = null;
+        modelToView = null;
+        viewCount = 0;
+        sortInBackground(true);
+    }
+
+    @Override
+    public void rowsInserted(int firstRow, int endRow) {
+        if (viewToModel != null) {
+            appendRows(firstRow, endRow + 1);
+        }
+        if (isActive()) {
+            sortInBackground(false);
+        }
+    }
+
+    @Override
+    public void rowsDeleted(int firstRow, int endRow) {
+        if (viewToModel != null) {
+            int removed = endRow - firstRow + 1;
+            int kept = 0;
+            for (int i = 0; i < viewCount; i++) {
+                int row = viewToModel[i];
+                if (row < firstRow) {
+                    viewToModel[kept++] = row;
+                } else if (row > endRow) {
+                    viewToModel[kept++] = row - removed;
+                }
+            }
+            viewCount = kept;
+            rebuildModelToView();
+        }
+        if (isActive()) {
+            // A pass already running has the deleted rows' old indices
+            sortInBackground(true);
+        }
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow) {
+    }
+
+    @Override
+    public void rowsUpdated(int firstRow, int endRow, int column) {
+    }
+
+    private boolean isActive() {
+        return !sortKeys.isEmpty() || !filterText.isEmpty();
+    }
+
+    private IntPredicate currentFilter() {
+        if (filterText.isEmpty()) {
+            return null;
+        }
+        if (filter == null || filterDataset != model.getDataset()) {
+            filterDataset = model.getDataset();
+            filter = DatasetSorter.containsFilter(filterDataset, filterText);
+        }
+        return filter;
+    }
+
+    /**
+     * Starts a pass over the current rows, or asks for one more if a pass is running. With
+     * {@code discardRunning} the running pass's result is dropped rather than shown.
+     */
+    private void sortInBackground(boolean discardRunning) {
+        if (discardRunning) {
+            generation++;
+        }
+        if (!isActive()) {
+            generation++;
+            pending = false;
+            if (viewToModel != null) {
+                apply(null, 0);
+            }
+            return;
+        }
+        if (worker != null) {
+            pending = true;
+            return;
+        }
+
+        int run = generation;
+        StudentDataset dataset = model.getDataset();
+        // The pass reads a snapshot, so rows appended meanwhile cannot widen or move the storage
+        // under it; they are added to the view when its result is applied
+        StudentDataset snapshot = dataset.snapshot();
+        int rowCount = model.getRowCount();
+        List<SortKey> keys = sortKeys;
+        IntPredicate rowFilter = filterText.isEmpty() ? null : DatasetSorter.containsFilter(snapshot, filterText);
+        worker = new SwingWorker<int[], Void>() {
+            @Override
+            protected int[] doInBackground() {
+                try (Timing timing = Metrics.start("Sort Rows")) {
+                    timing.rows(rowCount);
+                    return DatasetSorter.sort(snapshot, rowCount, keys, rowFilter);
+                }
+            }
+
+            @Override
+            protected void done() {
+                worker = null;
+                if (run == generation && dataset == model.getDataset()) {
+                    try {
+                        apply(get(), rowCount);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } catch (ExecutionException e) {
+                        // Keep the current order; the next change asks again
+                        pending = false;
+                        return;
+                    }
+                }
+                if (pending) {
+                    pending = false;
+                    sortInBackground(false);
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    /**
+     * Shows {@code order}, which covers the first {@code sortedRows} model rows, followed by the rows
+     * appended since, or every row in model order if {@code order} is null.
+     */
+    private void apply(int[] order, int sortedRows) {
+        int[] previous = viewToModel != null ? Arrays.copyOf(viewToModel, viewCount) : identity(model.getRowCount());
+        if (order == null) {
+            viewToModel = null;
+            modelToView = null;
+            viewCount = 0;
+        } else {
+            viewToModel = order;
+            viewCount = order.length;
+            rebuildModelToView();
+            appendRows(sortedRows, model.getRowCount());
+        }
+        fireRowSorterChanged(previous);
+    }
+
+    private void appendRows(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        IntPredicate rowFilter = currentFilter();
+        int oldModelCount = modelToView.length;
+        modelToView = Arrays.copyOf(modelToView, to);
+        Arrays.fill(modelToView, oldModelCount, to, -1);
+        if (viewCount + (to - from) > viewToModel.length) {
+            viewToModel = Arrays.copyOf(viewToModel, Math.max(viewCount + (to - from), viewToModel.length * 3 / 2));
+        }
+        for (int row = from; row < to; row++) {
+            if (rowFilter == null || rowFilter.test(row)) {
+                modelToView[row] = viewCount;
+                viewToModel[viewCount++] = row;
+            }
+        }
+    }
+
+    private void rebuildModelToView() {
+        modelToView = new int[model.getRowCount()];
+        Arrays.fill(modelToView, -1);
+        for (int i = 0; i < viewCount; i++) {
+            modelToView[viewToModel[i]] = i;
+        }
+    }
+
+    private static int[] identity(int count) {
+        int[] rows = new int[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = i;
+        }
+        return rows;
+    }
+}
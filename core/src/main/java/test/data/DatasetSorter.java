@@ -0,0 +1,298 @@
+package test.data;
+
+import javax.swing.RowSorter;
+import javax.swing.SortOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+
+/**
+ * Sorts and filters the rows of a {@link StudentDataset} on its typed columns rather than on the
+ * strings a table displays, so numbers sort numerically and no value is boxed per row.
+ * <p>
+ * Each sort key is first turned into a dense rank per row: number columns by sorting a copy of
+ * their values, category columns by sorting their dictionary and text columns by sorting their
+ * distinct values. The ranks of successive keys are combined into one, and the rows are ordered by
+ * a single {@link Arrays#parallelSort(long[])} of longs holding the combined rank above the row
+ * index. The row index breaks ties, which makes the sort stable. When there are no more combined
+ * ranks than rows, as when sorting by grade and attendance, a counting sort replaces it. Missing
+ * and non-numeric values sort after all numbers in either direction.
+ */
+public final class DatasetSorter {
+
+    private DatasetSorter() {
+    }
+
+    /**
+     * Returns the first {@code rowCount} rows of the dataset that pass {@code filter}, ordered by
+     * {@code keys}. Keys whose order is {@link SortOrder#UNSORTED} are ignored; rows that tie on
+     * every key, or all rows if there are no keys, stay in dataset order.
+     *
+     * @param filter the rows to keep, or null to keep every row
+     */
+    public static int[] sort(StudentDataset dataset, int rowCount, List<? extends RowSorter.SortKey> keys, IntPredicate filter) {
+        int[] rows = filter != null ? IntStream.range(0, rowCount).parallel().filter(filter).toArray() : null;
+        int size = rows != null ? rows.length : rowCount;
+
+        int[] combined = null;
+        int combinedCount = 1;
+        for (RowSorter.SortKey key : keys) {
+            if (key.getSortOrder() == SortOrder.UNSORTED) {
+                continue;
+            }
+            Ranks ranks = rank(dataset.getColumn(key.getColumn()), rowCount, key.getSortOrder() == SortOrder.DESCENDING);
+            if (combined == null) {
+                combined = ranks.ranks;
+                combinedCount = ranks.count;
+            } else if ((long) combinedCount * ranks.count <= Integer.MAX_VALUE) {
+                int[] target = combined;
+                int[] next = ranks.ranks;
+                int nextCount = ranks.count;
+                IntStream.range(0, rowCount).parallel().forEach(i -> target[i] = target[i] * nextCount + next[i]);
+                combinedCount *= nextCount;
+            } else {
+                // Too many combinations for an int, so rank the pairs again; there are never more
+                // distinct pairs than rows
+                int[] previous = combined;
+                int[] next = ranks.ranks;
+                long nextCount = ranks.count;
+                long[] pairs = new long[rowCount];
+                IntStream.range(0, rowCount).parallel().forEach(i -> pairs[i] = previous[i] * nextCount + next[i]);
+                Ranks dense = denseRanks(pairs);
+                combined = dense.ranks;
+                combinedCount = dense.count;
+            }
+        }
+        if (combined == null) {
+            return rows != null ? rows : IntStream.range(0, rowCount).toArray();
+        }
+
+        int[] rank = combined;
+        if (combinedCount <= size) {
+            return countingSort(rank, combinedCount, rows, size);
+        }
+        long[] packed = new long[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            int row = rows != null ? rows[i] : i;
+            packed[i] = (long) rank[row] << 32 | row;
+        });
+        Arrays.parallelSort(packed);
+        int[] order = new int[size];
+        IntStream.range(0, size).parallel().forEach(i -> order[i] = (int) packed[i]);
+        return order;
+    }
+
+    /**
+     * Places rows by their rank in one pass, keeping rows of equal rank in row order.
+     */
+    private static int[] countingSort(int[] rank, int rankCount, int[] rows, int size) {
+        int[] starts = new int[rankCount + 1];
+        for (int i = 0; i < size; i++) {
+            starts[rank[rows != null ? rows[i] : i] + 1]++;
+        }
+        for (int r = 0; r < rankCount; r++) {
+            starts[r + 1] += starts[r];
+        }
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            int row = rows != null ? rows[i] : i;
+            order[starts[rank[row]]++] = row;
+        }
+        return order;
+    }
+
+    /**
+     * Returns a filter that keeps the rows whose text or category value in any column contains
+     * {@code text}, ignoring case. Number columns are not searched, since their values would have
+     * to be formatted for every row.
+     */
+    public static IntPredicate containsFilter(StudentDataset dataset, String text) {
+        String needle = text.toLowerCase(Locale.ROOT);
+        List<TextColumn> textColumns = new ArrayList<>();
+        List<CategoryColumn> categoryColumns = new ArrayList<>();
+        List<boolean[]> matchingCodes = new ArrayList<>();
+        for (int i = 0; i < dataset.getColumnCount(); i++) {
+            Column column = dataset.getColumn(i);
+            if (column instanceof TextColumn) {
+                textColumns.add((TextColumn) column);
+            } else if (column instanceof CategoryColumn) {
+                // Categories are matched once per value rather than once per row
+                Dictionary dictionary = ((CategoryColumn) column).getDictionary();
+                boolean[] matches = new boolean[dictionary.size()];
+                for (int code = 0; code < matches.length; code++) {
+                    matches[code] = contains(dictionary.get(code), needle);
+                }
+                categoryColumns.add((CategoryColumn) column);
+                matchingCodes.add(matches);
+            }
+        }
+        return row -> {
+            for (int i = 0; i < categoryColumns.size(); i++) {
+                CategoryColumn column = categoryColumns.get(i);
+                boolean[] matches = matchingCodes.get(i);
+                int code = column.getCode(row);
+                if (code < matches.length ? matches[code] : contains(column.getDictionary().get(code), needle)) {
+                    return true;
+                }
+            }
+            for (TextColumn column : textColumns) {
+                if (contains(column.get(row), needle)) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private static boolean contains(String value, String lowerCaseNeedle) {
+        int last = value.length() - lowerCaseNeedle.length();
+        for (int i = 0; i <= last; i++) {
+            if (value.regionMatches(true, i, lowerCaseNeedle, 0, lowerCaseNeedle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Ranks rank(Column column, int rowCount, boolean descending) {
+        Ranks ranks;
+        if (column instanceof NumberColumn) {
+            ranks = rankNumbers((NumberColumn) column, rowCount);
+        } else if (column instanceof CategoryColumn) {
+            ranks = rankCategories((CategoryColumn) column, rowCount);
+        } else {
+            ranks = rankText((TextColumn) column, rowCount);
+        }
+        if (descending) {
+            int[] values = ranks.ranks;
+            int last = ranks.count - 1 - (column instanceof NumberColumn ? 1 : 0);
+            IntStream.range(0, rowCount).parallel().forEach(i -> {
+                if (values[i] <= last) {
+                    values[i] = last - values[i];
+                }
+            });
+        }
+        return ranks;
+    }
+
+    /**
+     * Ranks numbers in ascending order, with one extra rank after them all for missing values.
+     */
+    private static Ranks rankNumbers(NumberColumn column, int rowCount) {
+        double[] sorted = IntStream.range(0, rowCount).parallel()
+                .mapToDouble(column::get)
+                .filter(value -> !Double.isNaN(value))
+                .toArray();
+        Arrays.parallelSort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || Double.compare(sorted[distinct - 1], sorted[i]) != 0) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        int distinctCount = distinct;
+        int[] ranks = new int[rowCount];
+        IntStream.range(0, rowCount).parallel().forEach(i -> {
+            double value = column.get(i);
+            ranks[i] = Double.isNaN(value) ? distinctCount : Arrays.binarySearch(sorted, 0, distinctCount, value);
+        });
+        return new Ranks(ranks, distinctCount + 1);
+    }
+
+    private static Ranks rankCategories(CategoryColumn column, int rowCount) {
+        Dictionary dictionary = column.getDictionary();
+        int codeCount = dictionary.size();
+        Integer[] byValue = new Integer[codeCount];
+        for (int code = 0; code < codeCount; code++) {
+            byValue[code] = code;
+        }
+        Arrays.sort(byValue, (a, b) -> dictionary.get(a).compareTo(dictionary.get(b)));
+        int[] rankOfCode = new int[codeCount];
+        for (int i = 0; i < codeCount; i++) {
+            rankOfCode[byValue[i]] = i;
+        }
+        int[] ranks = new int[rowCount];
+        IntStream.range(0, rowCount).parallel().forEach(i -> ranks[i] = rankOfCode[column.getCode(i)]);
+        return new Ranks(ranks, Math.max(1, codeCount));
+    }
+
+    /**
+     * Ranks text by first giving each distinct value an id, with a hash table of one slot per value
+     * as in {@link DatasetIndex}, so only the distinct values are decoded and sorted.
+     */
+    private static Ranks rankText(TextColumn column, int rowCount) {
+        int[] slots = new int[16];
+        int[] valueRows = new int[16];
+        int valueCount = 0;
+        int[] ids = new int[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            if (valueCount * 2 >= slots.length) {
+                slots = rehash(column, valueRows, valueCount, slots.length * 2);
+            }
+            int mask = slots.length - 1;
+            int slot = column.hash(row) & mask;
+            while (slots[slot] != 0 && !column.matches(row, valueRows[slots[slot] - 1])) {
+                slot = (slot + 1) & mask;
+            }
+            if (slots[slot] == 0) {
+                if (valueCount == valueRows.length) {
+                    valueRows = Arrays.copyOf(valueRows, valueCount * 2);
+                }
+                valueRows[valueCount++] = row;
+                slots[slot] = valueCount;
+            }
+            ids[row] = slots[slot] - 1;
+        }
+
+        int[] firstRows = valueRows;
+        String[] values = new String[valueCount];
+        IntStream.range(0, valueCount).parallel().forEach(id -> values[id] = column.get(firstRows[id]));
+        String[] sorted = values.clone();
+        Arrays.parallelSort(sorted);
+        int[] rankOfId = new int[valueCount];
+        IntStream.range(0, valueCount).parallel().forEach(id -> rankOfId[id] = Arrays.binarySearch(sorted, values[id]));
+        IntStream.range(0, rowCount).parallel().forEach(i -> ids[i] = rankOfId[ids[i]]);
+        return new Ranks(ids, Math.max(1, valueCount));
+    }
+
+    private static int[] rehash(TextColumn column, int[] valueRows, int valueCount, int capacity) {
+        int[] slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < valueCount; id++) {
+            int slot = column.hash(valueRows[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+        return slots;
+    }
+
+    private static Ranks denseRanks(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.parallelSort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || sorted[distinct - 1] != sorted[i]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        int distinctCount = distinct;
+        int[] ranks = new int[values.length];
+        IntStream.range(0, values.length).parallel().forEach(i -> ranks[i] = Arrays.binarySearch(sorted, 0, distinctCount, values[i]));
+        return new Ranks(ranks, Math.max(1, distinctCount));
+    }
+
+    private static final class Ranks {
+        final int[] ranks;
+        final int count;
+
+        Ranks(int[] ranks, int count) {
+            this.ranks = ranks;
+            this.count = count;
+        }
+    }
+}
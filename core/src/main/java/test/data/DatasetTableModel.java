@@ -0,0 +1,141 @@
+package test.data;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-through {@link javax.swing.table.TableModel} over a {@link StudentDataset}. The table only
+ * sees the rows that have been published to it, which lets a loader keep appending to the dataset
+ * on a worker thread while the event dispatch thread displays what is already there.
+ * <p>
+ * Table model events arrive after the dataset has changed. Listeners that need the values a change
+ * replaces, to subtract them from running totals, register a {@link PendingChangeListener} instead
+ * of keeping a copy of the data.
+ */
+public class DatasetTableModel extends AbstractTableModel {
+
+    /**
+     * Told about rows the model is about to remove or change, while their old values can still be
+     * read from the dataset. The table model event follows once the change is made.
+     */
+    public interface PendingChangeListener {
+
+        /**
+         * Rows {@code firstRow} to {@code lastRow}, inclusive, are about to be removed.
+         */
+        void rowsRemoving(int firstRow, int lastRow);
+
+        /**
+         * The cell at {@code row} and {@code column} is about to be set to a new value.
+         */
+        void cellChanging(int row, int column);
+    }
+
+    private final List<PendingChangeListener> pendingChangeListeners = new ArrayList<>();
+    private StudentDataset dataset;
+    private int rowCount;
+    private boolean editable = true;
+
+    public DatasetTableModel(StudentDataset dataset) {
+        this.dataset = dataset;
+        this.rowCount = dataset.getRowCount();
+    }
+
+    public StudentDataset getDataset() {
+        return dataset;
+    }
+
+    /**
+     * Replaces the backing dataset and shows its rows that exist so far. Listeners get a structure
+     * change if the new dataset's columns differ from the old one's.
+     */
+    public void setDataset(StudentDataset dataset) {
+        boolean sameColumns = Arrays.equals(columnNames(this.dataset), columnNames(dataset));
+        this.dataset = dataset;
+        this.rowCount = dataset.getRowCount();
+        if (sameColumns) {
+            fireTableDataChanged();
+        } else {
+            fireTableStructureChanged();
+        }
+    }
+
+    private static String[] columnNames(StudentDataset dataset) {
+        String[] names = new String[dataset.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = dataset.getColumnName(i);
+        }
+        return names;
+    }
+
+    /**
+     * Makes the first {@code count} rows of the dataset visible to the table.
+     */
+    public void publishRows(int count) {
+        if (count > rowCount) {
+            int firstRow = rowCount;
+            rowCount = count;
+            fireTableRowsInserted(firstRow, count - 1);
+        }
+    }
+
+    public void addPendingChangeListener(PendingChangeListener listener) {
+        pendingChangeListeners.add(listener);
+    }
+
+    /**
+     * Removes rows {@code firstRow} to {@code lastRow}, inclusive, from the dataset and the table.
+     */
+    public void removeRows(int firstRow, int lastRow) {
+        for (PendingChangeListener listener : pendingChangeListeners) {
+            listener.rowsRemoving(firstRow, lastRow);
+        }
+        dataset.removeRows(firstRow, lastRow + 1);
+        rowCount -= lastRow - firstRow + 1;
+        fireTableRowsDeleted(firstRow, lastRow);
+    }
+
+    public boolean isEditable() {
+        return editable;
+    }
+
+    public void setEditable(boolean editable) {
+        this.editable = editable;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return dataset.getColumnCount();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return dataset.getColumnName(column);
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return dataset.getValue(rowIndex, columnIndex);
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+        return editable;
+    }
+
+    @Override
+    public void setValueAt(Object value, int rowIndex, int columnIndex) {
+        for (PendingChangeListener listener : pendingChangeListeners) {
+            listener.cellChanging(rowIndex, columnIndex);
+        }
+        dataset.setValue(rowIndex, columnIndex, value != null ? value.toString() : "");
+        fireTableCellUpdated(rowIndex, columnIndex);
+    }
+}
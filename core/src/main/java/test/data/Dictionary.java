@@ -0,0 +1,125 @@
+package test.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps distinct strings to dense integer codes. Codes are assigned in order of first appearance and
+ * never change, so a code resolved once can be reused for every row.
+ * <p>
+ * Besides the string map, the dictionary keeps the UTF-8 bytes of each value in a small open-addressing
+ * table, so {@link #intern(CsvRecord, int)} can find the code of a parsed field without decoding it.
+ */
+public final class Dictionary {
+
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private String[] values = new String[16];
+    private byte[][] encoded = new byte[16][];
+    private int[] slots = new int[64];
+    private volatile int size;
+
+    /**
+     * Returns the code of {@code value}, adding it to the dictionary if it is new.
+     */
+    public int intern(String value) {
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        return add(value, value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the code of the given record field, adding it to the dictionary if it is new. The field
+     * is only decoded into a string the first time its value is seen.
+     */
+    public int intern(CsvRecord record, int field) {
+        if (record.hasEscapes(field)) {
+            return intern(record.getString(field));
+        }
+        int length = record.length(field);
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + record.byteAt(field, i);
+        }
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            int code = slots[slot] - 1;
+            if (matches(encoded[code], record, field, length)) {
+                return code;
+            }
+        }
+        return intern(record.getString(field));
+    }
+
+    private static boolean matches(byte[] value, CsvRecord record, int field, int length) {
+        if (value.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value[i] != record.byteAt(field, i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int add(String value, byte[] bytes) {
+        int newCode = size;
+        if (newCode == values.length) {
+            values = Arrays.copyOf(values, newCode * 2);
+            encoded = Arrays.copyOf(encoded, newCode * 2);
+        }
+        values[newCode] = value;
+        encoded[newCode] = bytes;
+        if ((newCode + 1) * 2 > slots.length) {
+            rehash(slots.length * 2, newCode);
+        }
+        insertSlot(newCode);
+        size = newCode + 1;
+        codes.put(value, newCode);
+        return newCode;
+    }
+
+    private void rehash(int capacity, int count) {
+        slots = new int[capacity];
+        for (int code = 0; code < count; code++) {
+            insertSlot(code);
+        }
+    }
+
+    private void insertSlot(int code) {
+        int hash = 0;
+        for (byte b : encoded[code]) {
+            hash = 31 * hash + b;
+        }
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while (slots[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = code + 1;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Returns the code of {@code value}, or -1 if it does not occur in the column.
+     */
+    public int indexOf(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+
+    public String get(int code) {
+        return values[code];
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,53 @@
+package test.data;
+
+import java.util.Locale;
+
+/**
+ * File formats a {@link StudentDataset} can be exported to by {@link DatasetExporter}.
+ */
+public enum ExportFormat {
+    /** Comma-separated text with a header row. */
+    CSV("CSV", "csv"),
+    /** The CSV text, gzip-compressed. */
+    CSV_GZIP("Gzip-compressed CSV", "csv.gz"),
+    /** Binary column-by-column layout described in {@link ColumnarFormat}. */
+    COLUMNAR("Columnar binary", "gacol");
+
+    private final String label;
+    private final String extension;
+
+    ExportFormat(String label, String extension) {
+        this.label = label;
+        this.extension = extension;
+    }
+
+    /**
+     * Returns the file name extension, without the leading dot.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Returns {@code name} with this format's extension. An extension of any export format at the
+     * end of the name is replaced, the longest that matches, and any other dots are kept, so
+     * {@code term.v2.csv} becomes {@code term.v2.csv.gz} and {@code grades.2024} becomes
+     * {@code grades.2024.csv}.
+     */
+    public String fileName(String name) {
+        String lowerName = name.toLowerCase(Locale.ROOT);
+        int stripped = 0;
+        for (ExportFormat format : values()) {
+            String suffix = "." + format.extension;
+            if (lowerName.endsWith(suffix)) {
+                stripped = Math.max(stripped, suffix.length());
+            }
+        }
+        return name.substring(0, name.length() - stripped) + "." + extension;
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
@@ -0,0 +1,191 @@
+package test.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Read-only {@link javax.swing.table.TableModel} that browses a CSV file without loading it. Only the
+ * byte offset of every {@link #PAGE_SIZE}th row is kept in memory; when the table asks for a cell,
+ * the page holding its row is parsed from the file and kept in a small LRU cache, so heap use stays
+ * bounded by the cache no matter how many rows the file has.
+ * <p>
+ * The index is built by passing the file's records to {@link #indexRecord(CsvRecord)} in order on a
+ * worker thread, and rows become visible to the table as they are published with
+ * {@link #publishRows(int)} on the event dispatch thread, as with {@link DatasetTableModel}. With a
+ * {@link SchemaMapping}, the header record decides which field each column shows.
+ */
+public class FileTableModel extends AbstractTableModel {
+
+    /** Number of rows decoded together on a cache miss. */
+    public static final int PAGE_SIZE = 256;
+    private static final int CACHED_PAGES = 64;
+    private static final int MIN_PAGE_WINDOW = 1 << 20;
+    private static final int MAX_PAGE_WINDOW = 1 << 26;
+
+    private final File file;
+    private final String[] columnNames;
+    private final SchemaMapping schema;
+    private final StudentFields fields;
+    // Field shown in each column, resolved from the header before any row is published; null while
+    // the fields are shown in file order
+    private int[] sourceFields;
+
+    // Written by the indexing thread; published to the event dispatch thread through publishRows
+    private volatile long[] pageOffsets = new long[1024];
+    private int indexedRows;
+    private long nextRowOffset = -1;
+
+    private int rowCount;
+    private final Map<Integer, String[][]> pages = new LinkedHashMap<Integer, String[][]>(CACHED_PAGES, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String[][]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    /**
+     * Creates a model that shows the file's fields in file order under {@code columnNames}.
+     */
+    public FileTableModel(File file, String[] columnNames) {
+        this.file = file;
+        this.columnNames = columnNames.clone();
+        this.schema = null;
+        fields = StudentFields.resolve(this.columnNames);
+    }
+
+    /**
+     * Creates a model that shows the columns of {@code schema}, each from the field the file's header
+     * names for it.
+     */
+    public FileTableModel(File file, SchemaMapping schema) {
+        this.file = file;
+        this.columnNames = schema.getColumnNames();
+        this.schema = schema;
+        fields = StudentFields.resolve(columnNames);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Adds the next record of the file to the row index. The first record passed is the header and
+     * is not counted as a row. Must be called in file order from a single thread.
+     */
+    public void indexRecord(CsvRecord record) {
+        if (nextRowOffset < 0) {
+            nextRowOffset = record.getEndOffset();
+            if (schema != null) {
+                sourceFields = schema.resolve(record, columnNames);
+            }
+            return;
+        }
+        if (indexedRows % PAGE_SIZE == 0) {
+            int page = indexedRows / PAGE_SIZE;
+            long[] offsets = pageOffsets;
+            if (page == offsets.length) {
+                offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            }
+            offsets[page] = nextRowOffset;
+            pageOffsets = offsets;
+        }
+        nextRowOffset = record.getEndOffset();
+        indexedRows++;
+    }
+
+    /**
+     * Returns the columns the analyses read, resolved by name when the model was created. Only the
+     * column indices are known.
+     */
+    public StudentFields getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the field of each record that {@code column} shows, or -1 if the file's header does not
+     * name it. Only final once the header has been indexed.
+     */
+    public int getSourceField(int column) {
+        int[] fields = sourceFields;
+        return fields != null ? fields[column] : column;
+    }
+
+    /**
+     * Returns the number of rows indexed so far. Only meaningful on the indexing thread.
+     */
+    public int getIndexedRows() {
+        return indexedRows;
+    }
+
+    /**
+     * Makes the first {@code count} indexed rows visible to the table.
+     */
+    public void publishRows(int count) {
+        if (count > rowCount) {
+            int firstRow = rowCount;
+            rowCount = count;
+            fireTableRowsInserted(firstRow, count - 1);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columnNames.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columnNames[column];
+    }
+
+    /**
+     * Returns the cell as it appears in the file, or "" if the row has fewer fields or the header does
+     * not name the column.
+     *
+     * @throws UncheckedIOException if the page holding the row cannot be read
+     */
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        String[] row = getPage(rowIndex / PAGE_SIZE)[rowIndex % PAGE_SIZE];
+        int field = getSourceField(columnIndex);
+        return row != null && field >= 0 && field < row.length ? row[field] : "";
+    }
+
+    private String[][] getPage(int page) {
+        String[][] rows = pages.get(page);
+        if (rows == null) {
+            rows = readPage(page);
+            pages.put(page, rows);
+        }
+        return rows;
+    }
+
+    private String[][] readPage(int page) {
+        String[][] rows = new String[PAGE_SIZE][];
+        int[] count = {0};
+        // Map only the page's own bytes, rather than the parser's default window, once its end is known
+        long[] offsets = pageOffsets;
+        long start = offsets[page];
+        boolean endKnown = (page + 1) * PAGE_SIZE < rowCount;
+        int windowSize = endKnown ? (int) Math.min(MAX_PAGE_WINDOW, offsets[page + 1] - start + 1) : MIN_PAGE_WINDOW;
+        try {
+            CsvParser.parse(file, start, Long.MAX_VALUE, windowSize, record -> {
+                rows[count[0]++] = record.toStringArray();
+                return count[0] < PAGE_SIZE;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + file, e);
+        }
+        return rows;
+    }
+}
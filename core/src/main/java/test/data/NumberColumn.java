@@ -0,0 +1,216 @@
+package test.data;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Numeric column stored as primitive doubles. Missing and unparseable cells are stored as
+ * {@link Double#NaN}; the original text of unparseable cells is kept aside so the table can still
+ * show it.
+ * <p>
+ * Rows whose value is missing, not a number or negative are flagged in a bitmap as they are
+ * appended or edited, so validation views can list them without scanning the column.
+ */
+public final class NumberColumn extends Column {
+
+    private double[] values = new double[INITIAL_CAPACITY];
+    private long[] flags = new long[INITIAL_CAPACITY / Long.SIZE];
+    private final Map<Integer, String> invalidText = new ConcurrentHashMap<>();
+
+    NumberColumn(String name) {
+        super(name);
+    }
+
+    @Override
+    public ColumnType getType() {
+        return ColumnType.NUMBER;
+    }
+
+    /**
+     * Returns the value at {@code row}, or {@link Double#NaN} if it is missing or invalid.
+     */
+    public double get(int row) {
+        return values[row];
+    }
+
+    /**
+     * Returns true if the cell at {@code row} holds text that is not a number.
+     */
+    public boolean isInvalid(int row) {
+        return Double.isNaN(values[row]) && invalidText.containsKey(row);
+    }
+
+    /**
+     * Returns the number of cells holding text that is not a number.
+     */
+    public int getInvalidCount() {
+        return invalidText.size();
+    }
+
+    /**
+     * Returns true if the value at {@code row} is missing, not a number or negative. None of the
+     * student export's measures can be negative.
+     */
+    public boolean isFlagged(int row) {
+        int word = row >>> 6;
+        return word < flags.length && (flags[word] & 1L << row) != 0;
+    }
+
+    /**
+     * Returns a snapshot of the rows for which {@link #isFlagged(int)} is true.
+     */
+    public BitSet getFlaggedRows() {
+        BitSet flagged = BitSet.valueOf(Arrays.copyOf(flags, (size + Long.SIZE - 1) >>> 6));
+        // A snapshot's last word may hold flags of rows appended after it was taken
+        flagged.clear(size, Math.max(size, flagged.length()));
+        return flagged;
+    }
+
+    /**
+     * Returns the original text of an unparseable cell, or null if the cell is a number or empty.
+     */
+    String getInvalidText(int row) {
+        return invalidText.isEmpty() ? null : invalidText.get(row);
+    }
+
+    @Override
+    public Object getValue(int row) {
+        double value = values[row];
+        if (Double.isNaN(value)) {
+            String text = invalidText.get(row);
+            return text != null ? text : "";
+        }
+        return format(value);
+    }
+
+    /**
+     * Replaces the column's contents with the first {@code count} entries of {@code loaded}, which
+     * the column takes over, flagging rows as they are added.
+     */
+    void load(double[] loaded, int count, Map<Integer, String> invalid) {
+        values = loaded;
+        size = count;
+        invalidText.clear();
+        invalidText.putAll(invalid);
+        flags = new long[(loaded.length >>> 6) + 1];
+        for (int row = 0; row < count; row++) {
+            setFlag(row, loaded[row]);
+        }
+    }
+
+    @Override
+    NumberColumn snapshot() {
+        NumberColumn snapshot = new NumberColumn(getName());
+        snapshot.values = values;
+        snapshot.flags = flags;
+        snapshot.size = size;
+        shared = true;
+        for (Map.Entry<Integer, String> entry : invalidText.entrySet()) {
+            if (entry.getKey() < size) {
+                snapshot.invalidText.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    void append(String text) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, newCapacity(values.length, size + 1));
+        }
+        values[size] = parse(size, text);
+        setFlag(size, values[size]);
+        size++;
+    }
+
+    @Override
+    void append(CsvRecord record, int field) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, newCapacity(values.length, size + 1));
+        }
+        double value = record.getDouble(field);
+        if (Double.isNaN(value) && !record.isBlank(field)) {
+            invalidText.put(size, record.getString(field));
+        }
+        values[size] = value;
+        setFlag(size, value);
+        size++;
+    }
+
+    @Override
+    void appendAll(Column other) {
+        NumberColumn source = (NumberColumn) other;
+        int offset = size;
+        if (size + source.size > values.length) {
+            values = Arrays.copyOf(values, newCapacity(values.length, size + source.size));
+        }
+        System.arraycopy(source.values, 0, values, size, source.size);
+        for (Map.Entry<Integer, String> entry : source.invalidText.entrySet()) {
+            invalidText.put(offset + entry.getKey(), entry.getValue());
+        }
+        for (int row = 0; row < source.size; row++) {
+            setFlag(offset + row, source.values[row]);
+        }
+        size += source.size;
+    }
+
+    @Override
+    void set(int row, String text) {
+        ownStorage();
+        invalidText.remove(row);
+        values[row] = parse(row, text);
+        setFlag(row, values[row]);
+    }
+
+    @Override
+    void remove(int from, int to) {
+        ownStorage();
+        System.arraycopy(values, to, values, from, size - to);
+        for (int row = from; row < size; row++) {
+            setFlag(row, row < size - (to - from) ? values[row] : 0.0);
+        }
+        size -= to - from;
+        removeKeys(invalidText, from, to);
+    }
+
+    private void ownStorage() {
+        if (shared) {
+            values = values.clone();
+            flags = flags.clone();
+            shared = false;
+        }
+    }
+
+    private void setFlag(int row, double value) {
+        int word = row >>> 6;
+        if (word >= flags.length) {
+            flags = Arrays.copyOf(flags, Math.max(word + 1, flags.length * 2));
+        }
+        if (Double.isNaN(value) || value < 0) {
+            flags[word] |= 1L << row;
+        } else {
+            flags[word] &= ~(1L << row);
+        }
+    }
+
+    private double parse(int row, String text) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return Double.NaN;
+        }
+        if (!CsvRecord.isNumber(trimmed)) {
+            invalidText.put(row, text);
+            return Double.NaN;
+        }
+        return Double.parseDouble(trimmed);
+    }
+
+    static String format(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+}
@@ -0,0 +1,52 @@
+package test.data;
+
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableModel;
+
+/**
+ * Read-only view of selected rows and columns of another {@link TableModel}. Cells are read from the
+ * source when the table asks for them, so a subset of a large table can be shown without copying it.
+ * The source must not change while the view is in use.
+ */
+public class RowSubsetTableModel extends AbstractTableModel {
+
+    private final TableModel source;
+    private final int[] rows;
+    private final int[] columns;
+
+    /**
+     * Creates a view of the given source rows and columns, in the order given.
+     */
+    public RowSubsetTableModel(TableModel source, int[] rows, int[] columns) {
+        this.source = source;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns the source row shown at {@code rowIndex}.
+     */
+    public int getSourceRow(int rowIndex) {
+        return rows[rowIndex];
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.length;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return source.getColumnName(columns[column]);
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        return source.getValueAt(rows[rowIndex], columns[columnIndex]);
+    }
+}
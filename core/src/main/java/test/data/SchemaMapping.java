@@ -0,0 +1,324 @@
+package test.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Maps the header of a CSV export to the typed columns a {@link StudentDataset} holds, so exports
+ * whose columns are reordered, renamed or interleaved with extra ones load into the same layout.
+ * <p>
+ * Each column lists the header names it is read from. Names match ignoring case and everything but
+ * letters and digits, so {@code Midterm_Score} is read into "Midterm Score" without being listed.
+ * A header is resolved once per file into the field each column is read from, and records are then
+ * decoded by field index with no name lookups. Header fields that no column lists are skipped, and
+ * columns the header does not name are left empty.
+ * <p>
+ * The mapping can be edited as text, one column per line, where the type is only required for
+ * columns the student export does not have:
+ * <pre>
+ * # Column [: TYPE] = header name, header name...
+ * Study Hours = Study_Hours_per_Week, Weekly Study Hours
+ * Semester : CATEGORY = Semester, Term
+ * </pre>
+ * Lines for student export columns replace their header names but cannot change their types; the
+ * other columns keep the defaults.
+ * The mapping in effect is read from {@code ~/.gradevsattendance/schema.txt}, or from the file named
+ * by the {@code gradevsattendance.schema} system property, if it exists.
+ */
+public final class SchemaMapping {
+
+    private static final SchemaMapping DEFAULTS;
+    private static volatile SchemaMapping current;
+
+    static {
+        Map<String, String[]> headers = new HashMap<>();
+        headers.put("Assignment Avg", new String[] {"Assignments_Avg"});
+        headers.put("Study Hours", new String[] {"Study_Hours_per_Week"});
+        headers.put("Extracurricular", new String[] {"Extracurricular_Activities"});
+        headers.put("Internet Access", new String[] {"Internet_Access_at_Home"});
+        headers.put("Parent Education", new String[] {"Parent_Education_Level"});
+        headers.put("Family Income", new String[] {"Family_Income_Level"});
+        headers.put("Stress Level", new String[] {"Stress_Level (1-10)"});
+        headers.put("Sleep Hours", new String[] {"Sleep_Hours_per_Night"});
+        List<String> names = new ArrayList<>();
+        List<ColumnType> types = new ArrayList<>();
+        List<List<String>> headerNames = new ArrayList<>();
+        for (int i = 0; i < StudentDataset.STUDENT_COLUMNS.length; i++) {
+            String name = StudentDataset.STUDENT_COLUMNS[i];
+            names.add(name);
+            types.add(StudentDataset.studentColumnType(i));
+            headerNames.add(Arrays.asList(headers.getOrDefault(name, new String[0])));
+        }
+        DEFAULTS = new SchemaMapping(names, types, headerNames);
+    }
+
+    private final List<String> names;
+    private final List<ColumnType> types;
+    private final List<List<String>> headerNames;
+    // Normalized header name to column, compiled once so a header resolves in one pass
+    private final Map<String, Integer> columnByHeader = new HashMap<>();
+
+    private SchemaMapping(List<String> names, List<ColumnType> types, List<List<String>> headerNames) {
+        this.names = Collections.unmodifiableList(new ArrayList<>(names));
+        this.types = Collections.unmodifiableList(new ArrayList<>(types));
+        List<List<String>> copies = new ArrayList<>();
+        for (List<String> list : headerNames) {
+            copies.add(Collections.unmodifiableList(new ArrayList<>(list)));
+        }
+        this.headerNames = Collections.unmodifiableList(copies);
+        for (int column = 0; column < names.size(); column++) {
+            register(names.get(column), column);
+            for (String header : headerNames.get(column)) {
+                register(header, column);
+            }
+        }
+    }
+
+    private void register(String header, int column) {
+        String key = normalize(header);
+        if (key.isEmpty()) {
+            throw new IllegalArgumentException("Header name without letters or digits: " + header);
+        }
+        Integer other = columnByHeader.putIfAbsent(key, column);
+        if (other != null && other != column) {
+            throw new IllegalArgumentException("Header name " + header + " is listed for both "
+                    + names.get(other) + " and " + names.get(column));
+        }
+    }
+
+    /**
+     * Returns the mapping of the student grading export, with its columns in file order.
+     */
+    public static SchemaMapping studentDefaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Returns the mapping that new datasets are read with: the user's configuration file if there is
+     * a valid one, otherwise {@link #studentDefaults()}.
+     */
+    public static SchemaMapping getCurrent() {
+        SchemaMapping mapping = current;
+        if (mapping == null) {
+            mapping = DEFAULTS;
+            File file = configFile();
+            if (file.isFile()) {
+                try {
+                    mapping = read(file);
+                } catch (IOException | IllegalArgumentException e) {
+                    // An unreadable configuration is reported when it is edited; until then the
+                    // defaults still load the student export
+                }
+            }
+            current = mapping;
+        }
+        return mapping;
+    }
+
+    /**
+     * Makes {@code mapping} the one that datasets created from now on are read with.
+     */
+    public static void setCurrent(SchemaMapping mapping) {
+        current = mapping;
+    }
+
+    public static File configFile() {
+        String path = System.getProperty("gradevsattendance.schema");
+        return path != null
+                ? new File(path)
+                : new File(System.getProperty("user.home"), ".gradevsattendance" + File.separator + "schema.txt");
+    }
+
+    public static SchemaMapping read(File file) throws IOException {
+        return parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the mapping in the form {@link #parse(String)} reads, creating the file's directory if
+     * needed.
+     */
+    public void write(File file) throws IOException {
+        if (file.getParentFile() != null) {
+            Files.createDirectories(file.getParentFile().toPath());
+        }
+        Files.write(file.toPath(), format().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a mapping from its text form, applied over {@link #studentDefaults()}.
+     *
+     * @throws IllegalArgumentException naming the first line that is not valid
+     */
+    public static SchemaMapping parse(String text) {
+        Map<String, Integer> columns = new LinkedHashMap<>();
+        List<String> names = new ArrayList<>(DEFAULTS.names);
+        List<ColumnType> types = new ArrayList<>(DEFAULTS.types);
+        List<List<String>> headerNames = new ArrayList<>(DEFAULTS.headerNames);
+        for (int column = 0; column < names.size(); column++) {
+            columns.put(names.get(column).toLowerCase(Locale.ROOT), column);
+        }
+
+        String[] lines = text.split("\r?\n");
+        for (int number = 1; number <= lines.length; number++) {
+            String line = lines[number - 1].trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int equals = line.indexOf('=');
+            if (equals < 0) {
+                throw new IllegalArgumentException("Line " + number + ": expected Column = header names");
+            }
+            String name = line.substring(0, equals).trim();
+            ColumnType type = null;
+            int colon = name.lastIndexOf(':');
+            if (colon >= 0) {
+                try {
+                    type = ColumnType.valueOf(name.substring(colon + 1).trim().toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Line " + number + ": type must be one of "
+                            + Arrays.toString(ColumnType.values()));
+                }
+                name = name.substring(0, colon).trim();
+            }
+            if (name.isEmpty()) {
+                throw new IllegalArgumentException("Line " + number + ": missing column name");
+            }
+            List<String> headers = new ArrayList<>();
+            for (String header : line.substring(equals + 1).split(",")) {
+                if (!header.trim().isEmpty()) {
+                    headers.add(header.trim());
+                }
+            }
+
+            Integer column = columns.get(name.toLowerCase(Locale.ROOT));
+            if (column == null) {
+                if (type == null) {
+                    throw new IllegalArgumentException("Line " + number + ": new column " + name + " needs a type");
+                }
+                column = names.size();
+                columns.put(name.toLowerCase(Locale.ROOT), column);
+                names.add(name);
+                types.add(type);
+                headerNames.add(headers);
+            } else {
+                if (type != null && type != types.get(column)) {
+                    // The analyses rely on the student columns keeping their types
+                    if (column < DEFAULTS.names.size()) {
+                        throw new IllegalArgumentException("Line " + number + ": " + names.get(column)
+                                + " is a student export column and stays " + types.get(column));
+                    }
+                    types.set(column, type);
+                }
+                headerNames.set(column, headers);
+            }
+        }
+        try {
+            return new SchemaMapping(names, types, headerNames);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid mapping: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the text form of the mapping, listing every column.
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder("# Column [: TYPE] = header names, separated by commas\n");
+        for (int column = 0; column < names.size(); column++) {
+            text.append(names.get(column)).append(" : ").append(types.get(column)).append(" = ")
+                    .append(String.join(", ", headerNames.get(column))).append('\n');
+        }
+        return text.toString();
+    }
+
+    public String[] getColumnNames() {
+        return names.toArray(new String[0]);
+    }
+
+    public ColumnType[] getColumnTypes() {
+        return types.toArray(new ColumnType[0]);
+    }
+
+    /**
+     * Returns the header names column {@code column} is read from besides its own name.
+     */
+    public List<String> getHeaderNames(int column) {
+        return headerNames.get(column);
+    }
+
+    /**
+     * Returns the index of the named column, ignoring case, or -1 if the mapping has no such column.
+     */
+    public int findColumn(String name) {
+        for (int column = 0; column < names.size(); column++) {
+            if (names.get(column).equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Resolves {@code header} into the field each of {@code columnNames} is read from, or -1 for
+     * columns the header does not name. Where two fields name the same column the first is used.
+     *
+     * @return the fields, or null if the header names none of the columns, as when the file has no
+     *         header row
+     */
+    public int[] resolve(CsvRecord header, String[] columnNames) {
+        int[] columnOf = new int[header.getFieldCount()];
+        for (int field = 0; field < columnOf.length; field++) {
+            Integer column = columnByHeader.get(normalize(header.getString(field)));
+            columnOf[field] = column != null ? column : -1;
+        }
+        int[] fields = new int[columnNames.length];
+        boolean matched = false;
+        for (int i = 0; i < columnNames.length; i++) {
+            fields[i] = -1;
+            int column = findColumn(columnNames[i]);
+            for (int field = 0; column >= 0 && field < columnOf.length; field++) {
+                if (columnOf[field] == column) {
+                    fields[i] = field;
+                    matched = true;
+                    break;
+                }
+            }
+        }
+        return matched ? fields : null;
+    }
+
+    /**
+     * Reduces a header name to its letters and digits in lower case, which drops separators, units
+     * and a byte order mark alike.
+     */
+    private static String normalize(String header) {
+        StringBuilder key = new StringBuilder(header.length());
+        for (int i = 0; i < header.length(); i++) {
+            char c = header.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                key.append(Character.toLowerCase(c));
+            }
+        }
+        return key.toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof SchemaMapping && format().equals(((SchemaMapping) other).format());
+    }
+
+    @Override
+    public int hashCode() {
+        return format().hashCode();
+    }
+}
@@ -0,0 +1,174 @@
+package test.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.zip.CRC32;
+
+/**
+ * Cache of parsed CSV files as binary snapshots, so reopening an unchanged file maps the snapshot
+ * and copies each column in bulk instead of parsing text again.
+ * <p>
+ * A snapshot is a {@link ColumnarFormat} payload behind a header that identifies its source file:
+ * its canonical path, size, modification time and a CRC-32 of its first and last 64 KB, and the
+ * {@link SchemaMapping} the file was read with. A snapshot whose header does not match the file or
+ * the dataset's mapping is ignored and replaced on the next save. Snapshots are kept
+ * in {@code ~/.gradevsattendance/cache}, or in the directory named by the
+ * {@code gradevsattendance.cache} system property, and only the most recently written
+ * {@link #MAX_SNAPSHOTS} are kept.
+ * <p>
+ * The cache is an optimization only: every failure to read or write it is treated as a miss.
+ */
+public final class SnapshotCache {
+
+    public static final int MAX_SNAPSHOTS = 16;
+    private static final int MAGIC = 0x4741534E; // "GASN"
+    // Bump whenever parsing or the column layout changes, so older snapshots are re-created
+    private static final int VERSION = 2;
+    private static final int SAMPLE_BYTES = 1 << 16;
+    private static final String EXTENSION = ".snapshot";
+
+    private SnapshotCache() {
+    }
+
+    /**
+     * Fills the empty {@code dataset} from the snapshot of {@code source} if there is an up-to-date
+     * one that has all of the dataset's columns.
+     *
+     * @return true if the dataset was filled, false on a cache miss
+     */
+    public static boolean load(File source, StudentDataset dataset) {
+        File snapshot = snapshotFile(source);
+        if (snapshot == null || !snapshot.isFile() || snapshot.length() > Integer.MAX_VALUE) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return readHeader(buffer, source, dataset) && ColumnarFormat.read(buffer, dataset);
+        } catch (IOException | RuntimeException e) {
+            // A truncated or foreign file; it is overwritten by the next save
+            return false;
+        }
+    }
+
+    /**
+     * Writes a snapshot of {@code dataset}, which must hold exactly the rows read from
+     * {@code source}, replacing any older snapshot of the same file.
+     */
+    public static void save(File source, StudentDataset dataset) {
+        File snapshot = snapshotFile(source);
+        if (snapshot == null) {
+            return;
+        }
+        File partial = new File(snapshot.getPath() + ".part");
+        try {
+            Files.createDirectories(snapshot.getParentFile().toPath());
+            try (ChannelWriter out = new ChannelWriter(FileChannel.open(partial.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeString(source.getCanonicalPath());
+                out.writeLong(source.length());
+                out.writeLong(source.lastModified());
+                out.writeLong(sampleChecksum(source));
+                out.writeString(schemaOf(dataset));
+                ColumnarFormat.write(dataset, null, out, columns -> { });
+            }
+            if (partial.length() <= Integer.MAX_VALUE) {
+                Files.move(partial.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                evictOldSnapshots(snapshot.getParentFile());
+            }
+        } catch (IOException | RuntimeException e) {
+            // Caching is best effort; the next load simply parses the file again
+        } finally {
+            partial.delete();
+        }
+    }
+
+    private static boolean readHeader(ByteBuffer buffer, File source, StudentDataset dataset) throws IOException {
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return false;
+        }
+        return readString(buffer).equals(source.getCanonicalPath())
+                && buffer.getLong() == source.length()
+                && buffer.getLong() == source.lastModified()
+                && buffer.getLong() == sampleChecksum(source)
+                && readString(buffer).equals(schemaOf(dataset));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns the text form of the mapping that decides which fields fill the dataset's columns.
+     */
+    private static String schemaOf(StudentDataset dataset) {
+        return dataset.getSchema() != null ? dataset.getSchema().format() : "";
+    }
+
+    /**
+     * Returns a CRC-32 of the file's first and last {@link #SAMPLE_BYTES}, which catches most
+     * rewrites that keep the size and modification time without reading the whole file.
+     */
+    private static long sampleChecksum(File source) throws IOException {
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer sample = ByteBuffer.allocate((int) Math.min(size, SAMPLE_BYTES));
+            readFully(channel, sample, 0);
+            crc.update(sample.array(), 0, sample.position());
+            if (size > SAMPLE_BYTES) {
+                sample.clear();
+                readFully(channel, sample, Math.max(SAMPLE_BYTES, size - SAMPLE_BYTES));
+                crc.update(sample.array(), 0, sample.position());
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                break;
+            }
+        }
+    }
+
+    private static File snapshotFile(File source) {
+        try {
+            String path = source.getCanonicalPath();
+            String directory = System.getProperty("gradevsattendance.cache");
+            File cacheDirectory = directory != null
+                    ? new File(directory)
+                    : new File(System.getProperty("user.home"), ".gradevsattendance" + File.separator + "cache");
+            // The header holds the full path, so a hash collision only costs a miss
+            String name = source.getName().replaceAll("[^A-Za-z0-9._-]", "_") + "-" + Integer.toHexString(path.hashCode());
+            return new File(cacheDirectory, name + EXTENSION);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static void evictOldSnapshots(File cacheDirectory) {
+        File[] snapshots = cacheDirectory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (snapshots == null || snapshots.length <= MAX_SNAPSHOTS) {
+            return;
+        }
+        Arrays.sort(snapshots, Comparator.comparingLong(File::lastModified).reversed());
+        for (int i = MAX_SNAPSHOTS; i < snapshots.length; i++) {
+            snapshots[i].delete();
+        }
+    }
+}
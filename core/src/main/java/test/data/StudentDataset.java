@@ -0,0 +1,413 @@
+package test.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Column-oriented, primitive-typed store for a loaded student CSV. Each column keeps its values in
+ * its own array, so aggregations walk a single {@code double[]} or code array instead of boxing and
+ * re-parsing table cells.
+ */
+public class StudentDataset {
+
+    /** Display names of the columns in the student grading export, in file order. */
+    public static final String[] STUDENT_COLUMNS = {"Student ID", "First Name", "Last Name", "Email", "Gender", "Age", "Department", "Attendance (%)", "Midterm Score", "Final Score", "Assignment Avg", "Quizzes Avg", "Participation Score", "Projects Score", "Total Score", "Grade", "Study Hours", "Extracurricular", "Internet Access", "Parent Education", "Family Income", "Stress Level", "Sleep Hours"};
+
+    private static final ColumnType[] STUDENT_COLUMN_TYPES = {
+            ColumnType.TEXT, ColumnType.CATEGORY, ColumnType.CATEGORY, ColumnType.TEXT, ColumnType.CATEGORY,
+            ColumnType.NUMBER, ColumnType.CATEGORY, ColumnType.NUMBER, ColumnType.NUMBER, ColumnType.NUMBER,
+            ColumnType.NUMBER, ColumnType.NUMBER, ColumnType.NUMBER, ColumnType.NUMBER, ColumnType.NUMBER,
+            ColumnType.CATEGORY, ColumnType.NUMBER, ColumnType.CATEGORY, ColumnType.CATEGORY, ColumnType.CATEGORY,
+            ColumnType.CATEGORY, ColumnType.NUMBER, ColumnType.NUMBER};
+
+    private final Column[] columns;
+    private final int[] sourceFields;
+    private final SchemaMapping schema;
+    private final StudentFields fields;
+    private final boolean readOnly;
+    private int rowCount;
+
+    public StudentDataset(String[] columnNames, ColumnType[] columnTypes) {
+        this(columnNames, columnTypes, null);
+    }
+
+    /**
+     * Creates a dataset whose column {@code i} is filled from CSV field {@code sourceFields[i]}, or
+     * from field {@code i} if {@code sourceFields} is null. Columns with a negative source field are
+     * not read from records and are left empty by {@link #appendRecord(CsvRecord)}.
+     */
+    public StudentDataset(String[] columnNames, ColumnType[] columnTypes, int[] sourceFields) {
+        this(columnNames, columnTypes, sourceFields, null);
+    }
+
+    private StudentDataset(String[] columnNames, ColumnType[] columnTypes, int[] sourceFields, SchemaMapping schema) {
+        if (columnNames.length != columnTypes.length || sourceFields != null && sourceFields.length != columnNames.length) {
+            throw new IllegalArgumentException("Expected one type and source field per column");
+        }
+        columns = new Column[columnNames.length];
+        this.sourceFields = new int[columnNames.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = createColumn(columnNames[i], columnTypes[i]);
+            this.sourceFields[i] = sourceFields != null ? sourceFields[i] : i;
+        }
+        this.schema = schema;
+        fields = StudentFields.resolve(columns);
+        readOnly = false;
+    }
+
+    private StudentDataset(StudentDataset source) {
+        columns = new Column[source.columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = source.columns[i].snapshot();
+        }
+        sourceFields = source.sourceFields.clone();
+        schema = source.schema;
+        fields = StudentFields.resolve(columns);
+        readOnly = true;
+        rowCount = source.rowCount;
+    }
+
+    /**
+     * Creates an empty dataset laid out for the student grading export, with the columns of the
+     * {@link SchemaMapping#getCurrent() current} schema mapping.
+     */
+    public static StudentDataset forStudentSchema() {
+        return forSchema(SchemaMapping.getCurrent());
+    }
+
+    /**
+     * Creates an empty dataset with the columns of {@code schema}. Until a header is passed to
+     * {@link #mapHeader(CsvRecord)}, records are read as laid out in the mapping.
+     */
+    public static StudentDataset forSchema(SchemaMapping schema) {
+        return new StudentDataset(schema.getColumnNames(), schema.getColumnTypes(), null, schema);
+    }
+
+    /**
+     * Creates an empty dataset that only keeps the named columns of the current schema mapping.
+     * Fields of other columns are skipped without being decoded.
+     *
+     * @throws IllegalArgumentException if a name is not a column of the mapping
+     */
+    public static StudentDataset forStudentSchema(String... columnNames) {
+        SchemaMapping schema = SchemaMapping.getCurrent();
+        ColumnType[] schemaTypes = schema.getColumnTypes();
+        ColumnType[] types = new ColumnType[columnNames.length];
+        int[] sourceFields = new int[columnNames.length];
+        for (int i = 0; i < columnNames.length; i++) {
+            sourceFields[i] = schema.findColumn(columnNames[i]);
+            if (sourceFields[i] < 0) {
+                throw new IllegalArgumentException("Unknown column: " + columnNames[i]);
+            }
+            types[i] = schemaTypes[sourceFields[i]];
+        }
+        return new StudentDataset(columnNames.clone(), types, sourceFields, schema);
+    }
+
+    static ColumnType studentColumnType(int column) {
+        return STUDENT_COLUMN_TYPES[column];
+    }
+
+    /**
+     * Returns the mapping the dataset resolves CSV headers with, or null if it reads fields by
+     * position only.
+     */
+    public SchemaMapping getSchema() {
+        return schema;
+    }
+
+    /**
+     * Points every column at the field {@code header} names for it in the dataset's schema mapping,
+     * so the records appended afterwards are read from wherever the file keeps each column. Columns
+     * the header does not name are left empty. A header that names none of the columns, or a dataset
+     * without a mapping, keeps the fields as they are.
+     */
+    public void mapHeader(CsvRecord header) {
+        checkWritable();
+        if (schema == null) {
+            return;
+        }
+        String[] names = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].getName();
+        }
+        int[] fields = schema.resolve(header, names);
+        if (fields != null) {
+            System.arraycopy(fields, 0, sourceFields, 0, fields.length);
+        }
+    }
+
+    /**
+     * Reads the header of {@code file} into {@link #mapHeader(CsvRecord)}, as when the rows come from
+     * a snapshot but later ones will be parsed from the file.
+     */
+    public void mapHeader(File file) throws IOException {
+        CsvParser.parse(file, record -> {
+            mapHeader(record);
+            return false;
+        });
+    }
+
+    /**
+     * Returns a new empty dataset with the same columns, read from the same fields.
+     */
+    public StudentDataset emptyCopy() {
+        String[] names = new String[columns.length];
+        ColumnType[] types = new ColumnType[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].getName();
+            types[i] = columns[i].getType();
+        }
+        return new StudentDataset(names, types, sourceFields, schema);
+    }
+
+    /**
+     * Concatenates datasets with the same columns into a new dataset that has one more category
+     * column, {@code labelColumn}, holding {@code labels.get(i)} for every row taken from
+     * {@code parts.get(i)}.
+     *
+     * @throws IllegalArgumentException if the parts' columns differ
+     */
+    public static StudentDataset concat(List<StudentDataset> parts, List<String> labels, String labelColumn) {
+        if (parts.isEmpty() || parts.size() != labels.size()) {
+            throw new IllegalArgumentException("Expected one label per dataset");
+        }
+        StudentDataset first = parts.get(0);
+        int columnCount = first.getColumnCount();
+        String[] names = new String[columnCount + 1];
+        ColumnType[] types = new ColumnType[columnCount + 1];
+        int[] sourceFields = new int[columnCount + 1];
+        for (int i = 0; i < columnCount; i++) {
+            names[i] = first.getColumnName(i);
+            types[i] = first.getColumn(i).getType();
+            sourceFields[i] = first.sourceFields[i];
+        }
+        names[columnCount] = labelColumn;
+        types[columnCount] = ColumnType.CATEGORY;
+        sourceFields[columnCount] = -1;
+
+        StudentDataset merged = new StudentDataset(names, types, sourceFields);
+        for (int p = 0; p < parts.size(); p++) {
+            StudentDataset part = parts.get(p);
+            for (int i = 0; i < columnCount; i++) {
+                if (part.getColumnCount() != columnCount || !part.getColumnName(i).equals(names[i])
+                        || part.getColumn(i).getType() != types[i]) {
+                    throw new IllegalArgumentException("Datasets have different columns");
+                }
+                merged.columns[i].appendAll(part.columns[i]);
+            }
+            ((CategoryColumn) merged.columns[columnCount]).appendRepeated(labels.get(p), part.rowCount);
+            merged.rowCount += part.rowCount;
+        }
+        return merged;
+    }
+
+    /**
+     * Returns a new dataset with the same columns and rows that later changes to this one do not
+     * affect.
+     */
+    public StudentDataset copy() {
+        StudentDataset copy = emptyCopy();
+        copy.appendAll(this);
+        return copy;
+    }
+
+    /**
+     * Returns a read-only dataset of the rows stored so far, for a background thread to read while
+     * this one goes on being appended to, as by Live Tail, or edited. It shares the columns'
+     * storage, which appends never rewrite, so taking it copies no rows; the first edit or removal
+     * afterwards copies the storage of the column it changes. Take it on the thread that changes the
+     * dataset.
+     */
+    public StudentDataset snapshot() {
+        return new StudentDataset(this);
+    }
+
+    /**
+     * Returns the number of cells in numeric columns that hold text that is not a number.
+     */
+    public long countInvalidCells() {
+        long count = 0;
+        for (Column column : columns) {
+            if (column instanceof NumberColumn) {
+                count += ((NumberColumn) column).getInvalidCount();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Appends all rows of {@code other}, which must have the same columns as this dataset.
+     *
+     * @throws IllegalArgumentException if the columns differ
+     */
+    public void appendAll(StudentDataset other) {
+        checkWritable();
+        if (other.getColumnCount() != columns.length) {
+            throw new IllegalArgumentException("Datasets have different columns");
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (!other.getColumnName(i).equals(getColumnName(i)) || other.columns[i].getType() != columns[i].getType()) {
+                throw new IllegalArgumentException("Datasets have different columns");
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i].appendAll(other.columns[i]);
+        }
+        rowCount += other.rowCount;
+    }
+
+    /**
+     * Reads a student CSV export into a new dataset on the calling thread, mapping its header row.
+     */
+    public static StudentDataset read(File file) throws IOException {
+        return read(file, forStudentSchema());
+    }
+
+    /**
+     * Reads a CSV file into the given empty dataset on the calling thread, resolving its columns
+     * from the header row with {@link #mapHeader(CsvRecord)}.
+     */
+    public static StudentDataset read(File file, StudentDataset dataset) throws IOException {
+        boolean[] header = {true};
+        CsvParser.parse(file, record -> {
+            if (header[0]) {
+                header[0] = false;
+                dataset.mapHeader(record);
+            } else {
+                dataset.appendRecord(record);
+            }
+            return true;
+        });
+        return dataset;
+    }
+
+    private static Column createColumn(String name, ColumnType type) {
+        switch (type) {
+            case TEXT:
+                return new TextColumn(name);
+            case CATEGORY:
+                return new CategoryColumn(name);
+            default:
+                return new NumberColumn(name);
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    public String getColumnName(int column) {
+        return columns[column].getName();
+    }
+
+    public Column getColumn(int column) {
+        return columns[column];
+    }
+
+    /**
+     * Returns the columns the analyses read, resolved when the dataset was created.
+     */
+    public StudentFields getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the index of the column with the given name, ignoring case, or -1 if there is none.
+     */
+    public int findColumn(String name) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].getName().equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the numeric column with the given name, or null if there is no such numeric column.
+     */
+    public NumberColumn getNumberColumn(String name) {
+        int index = findColumn(name);
+        return index >= 0 && columns[index] instanceof NumberColumn ? (NumberColumn) columns[index] : null;
+    }
+
+    /**
+     * Returns the categorical column with the given name, or null if there is no such categorical column.
+     */
+    public CategoryColumn getCategoryColumn(String name) {
+        int index = findColumn(name);
+        return index >= 0 && columns[index] instanceof CategoryColumn ? (CategoryColumn) columns[index] : null;
+    }
+
+    /**
+     * Appends one row. Missing trailing fields are stored as empty values and extra fields are ignored.
+     */
+    public void appendRow(String[] values) {
+        checkWritable();
+        for (int i = 0; i < columns.length; i++) {
+            int field = sourceFields[i];
+            columns[i].append(field >= 0 && field < values.length ? values[field] : "");
+        }
+        rowCount++;
+    }
+
+    /**
+     * Appends one parsed record, decoding each field straight into its column.
+     */
+    public void appendRecord(CsvRecord record) {
+        checkWritable();
+        for (int i = 0; i < columns.length; i++) {
+            if (sourceFields[i] >= 0) {
+                columns[i].append(record, sourceFields[i]);
+            } else {
+                columns[i].append("");
+            }
+        }
+        rowCount++;
+    }
+
+    /**
+     * Sets the row count after the columns have been filled directly, as when reading a snapshot.
+     */
+    void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Removes rows {@code from} (inclusive) to {@code to} (exclusive).
+     */
+    public void removeRows(int from, int to) {
+        if (from < 0 || to > rowCount || from > to) {
+            throw new IndexOutOfBoundsException("Rows " + from + " to " + to + " of " + rowCount);
+        }
+        checkWritable();
+        if (from == to) {
+            return;
+        }
+        for (Column column : columns) {
+            column.remove(from, to);
+        }
+        rowCount -= to - from;
+    }
+
+    public Object getValue(int row, int column) {
+        return columns[column].getValue(row);
+    }
+
+    public void setValue(int row, int column, String text) {
+        checkWritable();
+        columns[column].set(row, text);
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new IllegalStateException("A snapshot of a dataset cannot be changed");
+        }
+    }
+}
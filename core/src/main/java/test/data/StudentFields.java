@@ -0,0 +1,94 @@
+package test.data;
+
+/**
+ * The columns of a {@link StudentDataset} that the analyses read, resolved by name once when the
+ * dataset is created. A dataset never gains, loses or retypes columns, and a changed
+ * {@link SchemaMapping} only applies to datasets created afterwards, so the resolved columns stay
+ * valid for the dataset's lifetime and row loops reach them without any name lookup.
+ * <p>
+ * A field the dataset does not have, or has with another type, resolves to null and index -1.
+ */
+public final class StudentFields {
+
+    public static final String STUDENT_ID = "Student ID";
+    public static final String GRADE = "Grade";
+    public static final String ATTENDANCE = "Attendance (%)";
+    public static final String SCORE = "Total Score";
+
+    private final int studentIdIndex;
+    private final int gradeIndex;
+    private final int attendanceIndex;
+    private final int scoreIndex;
+    private final TextColumn studentId;
+    private final CategoryColumn grade;
+    private final NumberColumn attendance;
+    private final NumberColumn score;
+
+    private StudentFields(Column[] columns, String[] names) {
+        studentIdIndex = find(columns, names, STUDENT_ID, TextColumn.class);
+        gradeIndex = find(columns, names, GRADE, CategoryColumn.class);
+        attendanceIndex = find(columns, names, ATTENDANCE, NumberColumn.class);
+        scoreIndex = find(columns, names, SCORE, NumberColumn.class);
+        studentId = columns != null && studentIdIndex >= 0 ? (TextColumn) columns[studentIdIndex] : null;
+        grade = columns != null && gradeIndex >= 0 ? (CategoryColumn) columns[gradeIndex] : null;
+        attendance = columns != null && attendanceIndex >= 0 ? (NumberColumn) columns[attendanceIndex] : null;
+        score = columns != null && scoreIndex >= 0 ? (NumberColumn) columns[scoreIndex] : null;
+    }
+
+    static StudentFields resolve(Column[] columns) {
+        String[] names = new String[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            names[i] = columns[i].getName();
+        }
+        return new StudentFields(columns, names);
+    }
+
+    /**
+     * Resolves the fields among plain column names, as those of a table that is not backed by a
+     * dataset. Only the indices are known; the column accessors return null.
+     */
+    public static StudentFields resolve(String[] columnNames) {
+        return new StudentFields(null, columnNames);
+    }
+
+    private static int find(Column[] columns, String[] names, String name, Class<? extends Column> type) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equalsIgnoreCase(name)) {
+                return columns == null || type.isInstance(columns[i]) ? i : -1;
+            }
+        }
+        return -1;
+    }
+
+    public TextColumn studentId() {
+        return studentId;
+    }
+
+    public CategoryColumn grade() {
+        return grade;
+    }
+
+    public NumberColumn attendance() {
+        return attendance;
+    }
+
+    public NumberColumn score() {
+        return score;
+    }
+
+    public int studentIdIndex() {
+        return studentIdIndex;
+    }
+
+    public int gradeIndex() {
+        return gradeIndex;
+    }
+
+    public int attendanceIndex() {
+        return attendanceIndex;
+    }
+
+    public int scoreIndex() {
+        return scoreIndex;
+    }
+}
@@ -0,0 +1,233 @@
+package test.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Column for high-cardinality text such as student IDs and emails. Values are packed back to back
+ * as UTF-8 in a single byte array and only turned into {@link String}s when a cell is displayed.
+ */
+public final class TextColumn extends Column {
+
+    private byte[] bytes = new byte[INITIAL_CAPACITY * 16];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private int byteCount;
+    private final Map<Integer, String> edits = new ConcurrentHashMap<>();
+
+    TextColumn(String name) {
+        super(name);
+    }
+
+    @Override
+    public ColumnType getType() {
+        return ColumnType.TEXT;
+    }
+
+    public String get(int row) {
+        String edited = edits.get(row);
+        if (edited != null) {
+            return edited;
+        }
+        int start = row == 0 ? 0 : ends[row - 1];
+        return new String(bytes, start, ends[row] - start, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Object getValue(int row) {
+        return get(row);
+    }
+
+    /**
+     * Returns the edited value of {@code row}, or null if the row still holds its packed bytes.
+     */
+    String getEdit(int row) {
+        return edits.isEmpty() ? null : edits.get(row);
+    }
+
+    /**
+     * Returns a hash of the UTF-8 bytes of the value at {@code row}, computed without decoding it.
+     * Equal values hash alike whether they are packed or edited.
+     */
+    int hash(int row) {
+        String edited = getEdit(row);
+        if (edited != null) {
+            byte[] encoded = edited.getBytes(StandardCharsets.UTF_8);
+            return hash(encoded, 0, encoded.length);
+        }
+        return hash(bytes, getStart(row), ends[row]);
+    }
+
+    /**
+     * Returns true if the value at {@code row} is exactly the UTF-8 bytes {@code value}.
+     */
+    boolean matches(int row, byte[] value) {
+        String edited = getEdit(row);
+        if (edited != null) {
+            return Arrays.equals(edited.getBytes(StandardCharsets.UTF_8), value);
+        }
+        int start = getStart(row);
+        if (ends[row] - start != value.length) {
+            return false;
+        }
+        for (int i = 0; i < value.length; i++) {
+            if (bytes[start + i] != value[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if rows {@code row} and {@code other} hold the same value.
+     */
+    boolean matches(int row, int other) {
+        if (!edits.isEmpty() && (edits.containsKey(row) || edits.containsKey(other))) {
+            return get(row).equals(get(other));
+        }
+        int start = getStart(row);
+        int otherStart = getStart(other);
+        int length = ends[row] - start;
+        if (ends[other] - otherStart != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[start + i] != bytes[otherStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the hash of the bytes {@code value[from, to)}.
+     */
+    static int hash(byte[] value, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + value[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    int getStart(int row) {
+        return row == 0 ? 0 : ends[row - 1];
+    }
+
+    int getEnd(int row) {
+        return ends[row];
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Replaces the column's contents with {@code count} values packed in {@code loadedBytes} and
+     * ending at {@code loadedEnds}; the column takes both arrays over.
+     */
+    void load(byte[] loadedBytes, int[] loadedEnds, int count) {
+        bytes = loadedBytes;
+        ends = loadedEnds;
+        size = count;
+        byteCount = count == 0 ? 0 : loadedEnds[count - 1];
+        edits.clear();
+    }
+
+    @Override
+    TextColumn snapshot() {
+        TextColumn snapshot = new TextColumn(getName());
+        snapshot.bytes = bytes;
+        snapshot.ends = ends;
+        snapshot.byteCount = byteCount;
+        snapshot.size = size;
+        shared = true;
+        for (Map.Entry<Integer, String> entry : edits.entrySet()) {
+            if (entry.getKey() < size) {
+                snapshot.edits.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return snapshot;
+    }
+
+    @Override
+    void append(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(encoded.length);
+        System.arraycopy(encoded, 0, bytes, byteCount, encoded.length);
+        byteCount += encoded.length;
+        ends[size++] = byteCount;
+    }
+
+    @Override
+    void append(CsvRecord record, int field) {
+        if (record.hasEscapes(field)) {
+            append(record.getString(field));
+            return;
+        }
+        int length = record.length(field);
+        ensureCapacity(length);
+        if (length > 0) {
+            record.copyTo(field, bytes, byteCount);
+        }
+        byteCount += length;
+        ends[size++] = byteCount;
+    }
+
+    private void ensureCapacity(int additionalBytes) {
+        if (byteCount + additionalBytes > bytes.length) {
+            bytes = Arrays.copyOf(bytes, newCapacity(bytes.length, byteCount + additionalBytes));
+        }
+        if (size == ends.length) {
+            ends = Arrays.copyOf(ends, newCapacity(ends.length, size + 1));
+        }
+    }
+
+    @Override
+    void appendAll(Column other) {
+        TextColumn source = (TextColumn) other;
+        int offset = size;
+        int byteOffset = byteCount;
+        if (byteCount + source.byteCount > bytes.length) {
+            bytes = Arrays.copyOf(bytes, newCapacity(bytes.length, byteCount + source.byteCount));
+        }
+        if (size + source.size > ends.length) {
+            ends = Arrays.copyOf(ends, newCapacity(ends.length, size + source.size));
+        }
+        System.arraycopy(source.bytes, 0, bytes, byteCount, source.byteCount);
+        for (int row = 0; row < source.size; row++) {
+            ends[offset + row] = byteOffset + source.ends[row];
+        }
+        for (Map.Entry<Integer, String> entry : source.edits.entrySet()) {
+            edits.put(offset + entry.getKey(), entry.getValue());
+        }
+        byteCount += source.byteCount;
+        size += source.size;
+    }
+
+    @Override
+    void set(int row, String text) {
+        // The packed bytes cannot be resized in place, so edited cells are kept on the side
+        edits.put(row, text);
+    }
+
+    @Override
+    void remove(int from, int to) {
+        if (shared) {
+            bytes = bytes.clone();
+            ends = ends.clone();
+            shared = false;
+        }
+        int startByte = from == 0 ? 0 : ends[from - 1];
+        int endByte = ends[to - 1];
+        int removedBytes = endByte - startByte;
+        System.arraycopy(bytes, endByte, bytes, startByte, byteCount - endByte);
+        byteCount -= removedBytes;
+        for (int i = to; i < size; i++) {
+            ends[i - (to - from)] = ends[i] - removedBytes;
+        }
+        size -= to - from;
+        removeKeys(edits, from, to);
+    }
+}
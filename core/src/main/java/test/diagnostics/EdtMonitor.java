@@ -0,0 +1,88 @@
+package test.diagnostics;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how long the event dispatch thread is unresponsive, whatever blocks it. A daemon thread
+ * posts a probe every {@link #PROBE_MILLIS}; a probe that waits longer than {@link #STALL_MILLIS}
+ * to run counts as a stall, and its whole wait is added to the blocked time.
+ */
+public final class EdtMonitor {
+
+    public static final long PROBE_MILLIS = 100;
+    public static final long STALL_MILLIS = 50;
+
+    private static final AtomicLong BLOCKED_NANOS = new AtomicLong();
+    private static final AtomicLong MAX_STALL_NANOS = new AtomicLong();
+    private static final AtomicLong STALLS = new AtomicLong();
+    private static Thread thread;
+
+    private EdtMonitor() {
+    }
+
+    /**
+     * Starts the monitor if it is not running.
+     */
+    public static synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        thread = new Thread(EdtMonitor::probe, "EDT monitor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static void probe() {
+        try {
+            while (true) {
+                Thread.sleep(PROBE_MILLIS);
+                long posted = System.nanoTime();
+                Object done = new Object();
+                boolean[] ran = new boolean[1];
+                SwingUtilities.invokeLater(() -> {
+                    record(System.nanoTime() - posted);
+                    synchronized (done) {
+                        ran[0] = true;
+                        done.notify();
+                    }
+                });
+                // Wait for the probe, so a long stall is measured once rather than by queued probes
+                synchronized (done) {
+                    while (!ran[0]) {
+                        done.wait();
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void record(long waitNanos) {
+        if (waitNanos < STALL_MILLIS * 1_000_000) {
+            return;
+        }
+        STALLS.incrementAndGet();
+        BLOCKED_NANOS.addAndGet(waitNanos);
+        MAX_STALL_NANOS.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    static void reset() {
+        BLOCKED_NANOS.set(0);
+        MAX_STALL_NANOS.set(0);
+        STALLS.set(0);
+    }
+
+    public static long getBlockedNanos() {
+        return BLOCKED_NANOS.get();
+    }
+
+    public static long getMaxStallNanos() {
+        return MAX_STALL_NANOS.get();
+    }
+
+    public static long getStallCount() {
+        return STALLS.get();
+    }
+}
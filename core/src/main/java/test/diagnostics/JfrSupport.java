@@ -0,0 +1,40 @@
+package test.diagnostics;
+
+/**
+ * Bridge to {@link OperationEvent}, kept separate so that the Flight Recorder classes are only
+ * loaded on JVMs that have them.
+ */
+final class JfrSupport {
+
+    private JfrSupport() {
+    }
+
+    static boolean isAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    static Object begin(String operation) {
+        OperationEvent event = new OperationEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    static void commit(Object started, Timing timing) {
+        OperationEvent event = (OperationEvent) started;
+        event.end();
+        if (event.shouldCommit()) {
+            event.rows = timing.getRows();
+            event.bytes = timing.getBytes();
+            event.errors = timing.getErrors();
+            event.allocatedBytes = timing.getAllocatedBytes();
+            event.onEventThread = timing.isOnEventThread();
+            event.commit();
+        }
+    }
+}
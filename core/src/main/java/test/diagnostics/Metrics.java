@@ -0,0 +1,130 @@
+package test.diagnostics;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Process-wide timings and counters of the application's hot paths. Each operation is measured
+ * with a {@link Timing} and folded into the {@link OperationStats} of its name, which the
+ * diagnostics panel shows and {@link #writeJson(Writer)} exports for headless runs.
+ * <p>
+ * When the JVM has Flight Recorder, every timing is also emitted as a custom
+ * {@code test.Operation} event, so a recording started with {@code -XX:StartFlightRecording}
+ * shows the operations next to GC and thread activity. Events cost almost nothing while no
+ * recording is running.
+ */
+public final class Metrics {
+
+    private static final Map<String, OperationStats> OPERATIONS = new LinkedHashMap<>();
+    static final boolean JFR_AVAILABLE = JfrSupport.isAvailable();
+
+    private Metrics() {
+    }
+
+    /**
+     * Starts timing one run of {@code operation} on the calling thread. The timing is recorded when
+     * it is closed.
+     */
+    public static Timing start(String operation) {
+        return new Timing(operation);
+    }
+
+    static void record(Timing timing) {
+        synchronized (OPERATIONS) {
+            OPERATIONS.computeIfAbsent(timing.getOperation(), OperationStats::new).add(timing);
+        }
+    }
+
+    /**
+     * Returns a copy of the statistics of every operation measured so far, in first-seen order.
+     */
+    public static List<OperationStats> snapshot() {
+        List<OperationStats> copy = new ArrayList<>();
+        synchronized (OPERATIONS) {
+            for (OperationStats stats : OPERATIONS.values()) {
+                copy.add(stats.copy());
+            }
+        }
+        return copy;
+    }
+
+    public static void reset() {
+        synchronized (OPERATIONS) {
+            OPERATIONS.clear();
+        }
+        EdtMonitor.reset();
+    }
+
+    /**
+     * Returns true if timings are also emitted as Flight Recorder events.
+     */
+    public static boolean isJfrAvailable() {
+        return JFR_AVAILABLE;
+    }
+
+    public static void writeJson(File file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+            writeJson(writer);
+        }
+    }
+
+    /**
+     * Writes the current statistics and event dispatch thread stalls as a JSON object.
+     */
+    public static void writeJson(Writer out) throws IOException {
+        SimpleDateFormat timestamp = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.ROOT);
+        timestamp.setTimeZone(TimeZone.getTimeZone("UTC"));
+        out.write("{\n  \"timestamp\": \"" + timestamp.format(new Date()) + "\",\n  \"operations\": [");
+        List<OperationStats> operations = snapshot();
+        for (int i = 0; i < operations.size(); i++) {
+            OperationStats stats = operations.get(i);
+            out.write(i == 0 ? "\n" : ",\n");
+            out.write("    {\"name\": " + quote(stats.getName())
+                    + ", \"count\": " + stats.getCount()
+                    + ", \"totalMillis\": " + millis(stats.getTotalNanos())
+                    + ", \"maxMillis\": " + millis(stats.getMaxNanos())
+                    + ", \"lastMillis\": " + millis(stats.getLastNanos())
+                    + ", \"rows\": " + stats.getRows()
+                    + ", \"bytes\": " + stats.getBytes()
+                    + ", \"errors\": " + stats.getErrors()
+                    + ", \"allocatedBytes\": " + stats.getAllocatedBytes()
+                    + ", \"eventThreadMillis\": " + millis(stats.getEventThreadNanos())
+                    + ", \"rowsPerSecond\": " + Math.round(stats.getRowsPerSecond())
+                    + ", \"bytesPerSecond\": " + Math.round(stats.getBytesPerSecond()) + "}");
+        }
+        out.write(operations.isEmpty() ? "],\n" : "\n  ],\n");
+        out.write("  \"eventThread\": {\"blockedMillis\": " + millis(EdtMonitor.getBlockedNanos())
+                + ", \"maxStallMillis\": " + millis(EdtMonitor.getMaxStallNanos())
+                + ", \"stalls\": " + EdtMonitor.getStallCount() + "}\n}\n");
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,38 @@
+package test.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event for one {@link Timing}.
+ */
+@Name("test.Operation")
+@Label("Grade Analysis Operation")
+@Category("Grade vs. Attendance")
+@Description("A load, analysis, chart or export run of the grade vs. attendance application")
+class OperationEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Rows")
+    long rows;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Errors")
+    long errors;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+
+    @Label("On Event Dispatch Thread")
+    boolean onEventThread;
+}
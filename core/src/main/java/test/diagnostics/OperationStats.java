@@ -0,0 +1,108 @@
+package test.diagnostics;
+
+/**
+ * Totals of every {@link Timing} recorded for one operation.
+ */
+public final class OperationStats {
+
+    private final String name;
+    private long count;
+    private long totalNanos;
+    private long maxNanos;
+    private long lastNanos;
+    private long rows;
+    private long bytes;
+    private long errors;
+    private long allocatedBytes;
+    private long eventThreadNanos;
+
+    OperationStats(String name) {
+        this.name = name;
+    }
+
+    void add(Timing timing) {
+        long nanos = timing.getDurationNanos();
+        count++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+        lastNanos = nanos;
+        rows += timing.getRows();
+        bytes += timing.getBytes();
+        errors += timing.getErrors();
+        if (timing.getAllocatedBytes() > 0) {
+            allocatedBytes += timing.getAllocatedBytes();
+        }
+        if (timing.isOnEventThread()) {
+            eventThreadNanos += nanos;
+        }
+    }
+
+    OperationStats copy() {
+        OperationStats copy = new OperationStats(name);
+        copy.count = count;
+        copy.totalNanos = totalNanos;
+        copy.maxNanos = maxNanos;
+        copy.lastNanos = lastNanos;
+        copy.rows = rows;
+        copy.bytes = bytes;
+        copy.errors = errors;
+        copy.allocatedBytes = allocatedBytes;
+        copy.eventThreadNanos = eventThreadNanos;
+        return copy;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getLastNanos() {
+        return lastNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the bytes allocated by the measuring threads; work handed to other threads, such as a
+     * parallel aggregation's pool, is not included.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Returns the time the operation ran on, and so blocked, the event dispatch thread.
+     */
+    public long getEventThreadNanos() {
+        return eventThreadNanos;
+    }
+
+    public double getRowsPerSecond() {
+        return totalNanos > 0 ? rows * 1e9 / totalNanos : 0.0;
+    }
+
+    public double getBytesPerSecond() {
+        return totalNanos > 0 ? bytes * 1e9 / totalNanos : 0.0;
+    }
+}
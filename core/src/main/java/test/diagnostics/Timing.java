@@ -0,0 +1,108 @@
+package test.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import javax.swing.SwingUtilities;
+
+/**
+ * One measured run of an operation, from {@link Metrics#start(String)} until {@link #close()}.
+ * Besides the elapsed time it records the rows, bytes and errors the caller reports, the bytes
+ * allocated by the calling thread where the JVM can tell, and whether the run blocked the event
+ * dispatch thread. A timing must be closed on the thread that started it.
+ */
+public final class Timing implements AutoCloseable {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final String operation;
+    private final boolean onEventThread;
+    private final long startNanos;
+    private final long startAllocated;
+    private final Object event;
+    private long rows;
+    private long bytes;
+    private long errors;
+    private long durationNanos = -1;
+    private long allocatedBytes;
+
+    Timing(String operation) {
+        this.operation = operation;
+        this.onEventThread = SwingUtilities.isEventDispatchThread();
+        this.event = Metrics.JFR_AVAILABLE ? JfrSupport.begin(operation) : null;
+        this.startAllocated = allocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    public Timing rows(long count) {
+        rows += count;
+        return this;
+    }
+
+    public Timing bytes(long count) {
+        bytes += count;
+        return this;
+    }
+
+    public Timing errors(long count) {
+        errors += count;
+        return this;
+    }
+
+    /**
+     * Stops the timing and records it; later calls do nothing.
+     */
+    @Override
+    public void close() {
+        if (durationNanos >= 0) {
+            return;
+        }
+        durationNanos = System.nanoTime() - startNanos;
+        long allocated = allocatedBytes();
+        allocatedBytes = allocated >= 0 && startAllocated >= 0 ? allocated - startAllocated : -1;
+        Metrics.record(this);
+        if (event != null) {
+            JfrSupport.commit(event, this);
+        }
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public boolean isOnEventThread() {
+        return onEventThread;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the bytes allocated by the thread during the timing, or -1 if the JVM does not say.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+            if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,169 @@
+package test.server;
+
+import java.util.Map;
+import test.analysis.Aggregate;
+import test.analysis.AttendanceDistribution;
+import test.analysis.Correlation;
+import test.analysis.DistributionAggregator;
+import test.analysis.DistributionSummary;
+import test.analysis.FieldIssue;
+import test.analysis.GradeAggregator;
+import test.analysis.GradeData;
+import test.analysis.GradeSummary;
+import test.analysis.GroupBy;
+import test.analysis.GroupByResult;
+import test.analysis.ValidationAccumulator;
+import test.analysis.ValidationSummary;
+import test.data.StudentDataset;
+
+/**
+ * Runs the analyses {@link ReportServer} exposes and writes their results as JSON. Every document
+ * carries the dataset version it was computed from, so consumers can tell when it has changed.
+ * Numbers that are not defined, such as the average of an empty grade, are written as null.
+ */
+final class ReportJson {
+
+    private static final double[] QUANTILES = {0.25, 0.5, 0.75, 0.9};
+
+    private ReportJson() {
+    }
+
+    static String columns(StudentDataset dataset, long version) {
+        StringBuilder json = start(version).append(", \"rows\": ").append(dataset.getRowCount()).append(", \"columns\": [");
+        for (int i = 0; i < dataset.getColumnCount(); i++) {
+            json.append(i == 0 ? "" : ", ")
+                    .append("{\"name\": ").append(quote(dataset.getColumnName(i)))
+                    .append(", \"type\": ").append(quote(dataset.getColumn(i).getType().name())).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Attendance by grade, as the Analyze button shows it.
+     */
+    static String summary(StudentDataset dataset, long version) {
+        GradeSummary summary = GradeAggregator.aggregate(dataset);
+        StringBuilder json = start(version)
+                .append(", \"rows\": ").append(dataset.getRowCount())
+                .append(", \"invalidRows\": ").append(summary.getInvalidRows())
+                .append(", \"grades\": [");
+        boolean first = true;
+        for (Map.Entry<String, GradeData> entry : summary.getGrades().entrySet()) {
+            GradeData data = entry.getValue();
+            json.append(first ? "" : ", ")
+                    .append("{\"grade\": ").append(quote(entry.getKey()))
+                    .append(", \"count\": ").append(data.getCount())
+                    .append(", \"averageAttendance\": ").append(data.getCount() > 0 ? number(data.getAverage()) : "null")
+                    .append(", \"minAttendance\": ").append(data.getCount() > 0 ? number(data.getMin()) : "null")
+                    .append(", \"maxAttendance\": ").append(data.getCount() > 0 ? number(data.getMax()) : "null")
+                    .append('}');
+            first = false;
+        }
+        return json.append("]}").toString();
+    }
+
+    static String distribution(StudentDataset dataset, long version) {
+        DistributionSummary summary = DistributionAggregator.aggregate(dataset);
+        Correlation correlation = summary.getCorrelation();
+        StringBuilder json = start(version)
+                .append(", \"invalidRows\": ").append(summary.getInvalidRows())
+                .append(", \"correlation\": {\"with\": ").append(quote(DistributionAggregator.SCORE_COLUMN))
+                .append(", \"count\": ").append(correlation.getCount())
+                .append(", \"pearson\": ").append(number(correlation.getPearson()))
+                .append(", \"spearman\": ").append(number(correlation.getSpearman()))
+                .append("}, \"grades\": [");
+        boolean first = true;
+        for (Map.Entry<String, AttendanceDistribution> entry : summary.getGrades().entrySet()) {
+            AttendanceDistribution distribution = entry.getValue();
+            boolean empty = distribution.getStatistics().getCount() == 0;
+            json.append(first ? "" : ", ")
+                    .append("{\"grade\": ").append(quote(entry.getKey()))
+                    .append(", \"count\": ").append(distribution.getStatistics().getCount())
+                    .append(", \"quantiles\": {");
+            for (int i = 0; i < QUANTILES.length; i++) {
+                json.append(i == 0 ? "" : ", ")
+                        .append(quote("p" + Math.round(QUANTILES[i] * 100))).append(": ")
+                        .append(empty ? "null" : number(distribution.getQuantile(QUANTILES[i])));
+            }
+            json.append("}}");
+            first = false;
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Runs a {@link GroupBy} query.
+     *
+     * @throws IllegalArgumentException if the query is not valid for the dataset
+     */
+    static String groupBy(StudentDataset dataset, long version, String[] keys, String metric, Aggregate aggregate,
+                          double percentile) {
+        GroupByResult result = GroupBy.compute(dataset, keys, metric, aggregate, percentile);
+        StringBuilder json = start(version).append(", \"keys\": [");
+        for (int i = 0; i < keys.length; i++) {
+            json.append(i == 0 ? "" : ", ").append(quote(keys[i]));
+        }
+        json.append("], \"metric\": ").append(quote(metric))
+                .append(", \"aggregate\": ").append(quote(aggregate.name()));
+        if (aggregate == Aggregate.PERCENTILE) {
+            json.append(", \"percentile\": ").append(number(percentile));
+        }
+        json.append(", \"groups\": [");
+        for (int group = 0; group < result.size(); group++) {
+            json.append(group == 0 ? "" : ", ")
+                    .append("{\"label\": ").append(quote(result.getLabel(group)))
+                    .append(", \"count\": ").append(result.getCount(group))
+                    .append(", \"value\": ").append(number(result.getValue(group))).append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    static String validation(StudentDataset dataset, long version) {
+        ValidationSummary summary = ValidationAccumulator.validate(dataset);
+        StringBuilder json = start(version)
+                .append(", \"rows\": ").append(summary.getRowCount())
+                .append(", \"invalidRows\": ").append(summary.getInvalidRows())
+                .append(", \"columns\": [");
+        boolean first = true;
+        for (String column : summary.getColumns()) {
+            json.append(first ? "" : ", ").append("{\"name\": ").append(quote(column));
+            for (FieldIssue issue : FieldIssue.values()) {
+                json.append(", ").append(quote(issue.name())).append(": ").append(summary.getCount(column, issue));
+            }
+            json.append('}');
+            first = false;
+        }
+        return json.append("]}").toString();
+    }
+
+    static String error(String message) {
+        return "{\"error\": " + quote(message) + "}";
+    }
+
+    private static StringBuilder start(long version) {
+        return new StringBuilder("{\"version\": ").append(version);
+    }
+
+    private static String number(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return "null";
+        }
+        // Java's shortest round-trip form is also valid JSON, exponent included
+        return Double.toString(value);
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+}
@@ -0,0 +1,264 @@
+package test.server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import test.analysis.Aggregate;
+import test.data.StudentDataset;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * Embedded HTTP server, bound to the loopback interface only, that serves the analyses of one
+ * in-memory {@link StudentDataset} as JSON:
+ * <ul>
+ * <li>{@code GET /api/columns} - the column names and types</li>
+ * <li>{@code GET /api/summary} - attendance by grade</li>
+ * <li>{@code GET /api/distribution} - attendance quantiles by grade and the correlation with score</li>
+ * <li>{@code GET /api/validation} - counts of invalid fields</li>
+ * <li>{@code GET /api/groupby?keys=Department,Gender&metric=Total Score&aggregate=MEAN&percentile=90}
+ * - a {@link test.analysis.GroupBy} query; {@code percentile} is only read for PERCENTILE</li>
+ * </ul>
+ * Every change to the dataset, or a new dataset, starts a new version. Results are cached per
+ * version and request, so any number of consumers asking the same question while the data stays
+ * put cost one computation; concurrent requests for a result not yet cached wait for the same one.
+ * Requests are answered on a fixed pool of {@link #THREADS} daemon threads, and the analyses
+ * themselves run in parallel on the common fork-join pool as they do in the application.
+ * <p>
+ * Requests read the dataset on their own threads, so it must not change while it is served. A
+ * dataset that goes on changing, as under Live Tail or while it is edited, is served as a
+ * {@link StudentDataset#snapshot()} taken after the changes, each a new version.
+ */
+public final class ReportServer implements AutoCloseable {
+
+    public static final int DEFAULT_PORT = 8765;
+    public static final int THREADS = 8;
+    static final int MAX_CACHED = 256;
+
+    private static final AtomicInteger THREAD_NUMBER = new AtomicInteger();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, CompletableFuture<String>> cache = new ConcurrentHashMap<>();
+    private volatile Published published = new Published(null, 0);
+
+    /**
+     * Binds the server to {@code port} on the loopback interface, or to a free port if {@code port}
+     * is 0. It answers requests once {@link #start()} is called.
+     */
+    public ReportServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newFixedThreadPool(THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "report-server-" + THREAD_NUMBER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * Returns the port the server is bound to.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Serves {@code dataset} from now on as a new version, or answers 503 if it is null, as while a
+     * file is loading.
+     */
+    public synchronized void setDataset(StudentDataset dataset) {
+        published = new Published(dataset, published.version + 1);
+        cache.clear();
+    }
+
+    /**
+     * Returns the dataset requests are answered from, or null if there is none.
+     */
+    public StudentDataset getDataset() {
+        return published.dataset;
+    }
+
+    /**
+     * Returns the version requests are answered from.
+     */
+    public long getVersion() {
+        return published.version;
+    }
+
+    /**
+     * Stops answering requests and releases the port.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (Timing timing = Metrics.start("Serve JSON")) {
+            int status = 200;
+            String body;
+            try {
+                if (!"GET".equals(exchange.getRequestMethod())) {
+                    throw new RequestException(405, "Only GET is supported");
+                }
+                body = respond(exchange.getRequestURI().getPath(), exchange.getRequestURI().getRawQuery());
+            } catch (RequestException e) {
+                status = e.status;
+                body = ReportJson.error(e.getMessage());
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+            timing.rows(1).bytes(bytes.length).errors(status == 200 ? 0 : 1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private String respond(String path, String rawQuery) throws RequestException {
+        Published current = published;
+        if (current.dataset == null) {
+            throw new RequestException(503, "No dataset is loaded");
+        }
+        Map<String, String> query = parseQuery(rawQuery);
+        // The parsed query makes equivalent requests share a result
+        String key = current.version + " " + path + " " + new TreeMap<>(query);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> cached = cache.putIfAbsent(key, result);
+        if (cached == null) {
+            if (cache.size() > MAX_CACHED) {
+                // Distinct queries are few in practice; a flood of them just starts the cache over
+                cache.keySet().removeIf(other -> !other.equals(key));
+            }
+            try {
+                result.complete(compute(current, path, query));
+            } catch (RuntimeException | RequestException e) {
+                // Errors are not cached, so a corrected dataset or a retry is computed again
+                cache.remove(key, result);
+                result.completeExceptionally(e);
+            }
+            cached = result;
+        }
+        try {
+            return cached.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestException(503, "Interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RequestException) {
+                throw (RequestException) cause;
+            }
+            if (cause instanceof IllegalArgumentException) {
+                throw new RequestException(400, cause.getMessage());
+            }
+            throw new RequestException(500, String.valueOf(cause));
+        }
+    }
+
+    private static String compute(Published current, String path, Map<String, String> query) throws RequestException {
+        StudentDataset dataset = current.dataset;
+        switch (path) {
+            case "/api/columns":
+                return ReportJson.columns(dataset, current.version);
+            case "/api/summary":
+                return ReportJson.summary(dataset, current.version);
+            case "/api/distribution":
+                return ReportJson.distribution(dataset, current.version);
+            case "/api/validation":
+                return ReportJson.validation(dataset, current.version);
+            case "/api/groupby":
+                return groupBy(current, query);
+            default:
+                throw new RequestException(404, "Unknown path: " + path);
+        }
+    }
+
+    private static String groupBy(Published current, Map<String, String> query) throws RequestException {
+        String keys = query.get("keys");
+        String metric = query.get("metric");
+        if (keys == null || keys.trim().isEmpty() || metric == null) {
+            throw new RequestException(400, "keys and metric are required");
+        }
+        Aggregate aggregate;
+        double percentile;
+        try {
+            aggregate = Aggregate.valueOf(query.getOrDefault("aggregate", Aggregate.MEAN.name()).toUpperCase(Locale.ROOT));
+            percentile = Double.parseDouble(query.getOrDefault("percentile", "50"));
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "Invalid aggregate or percentile");
+        }
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new RequestException(400, "percentile must be between 0 and 100");
+        }
+        String[] keyColumns = keys.split(",");
+        for (int i = 0; i < keyColumns.length; i++) {
+            keyColumns[i] = keyColumns[i].trim();
+        }
+        return ReportJson.groupBy(current.dataset, current.version, keyColumns, metric.trim(), aggregate, percentile);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) throws RequestException {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        try {
+            for (String pair : rawQuery.split("&")) {
+                int equals = pair.indexOf('=');
+                String name = URLDecoder.decode(equals >= 0 ? pair.substring(0, equals) : pair, "UTF-8");
+                String value = equals >= 0 ? URLDecoder.decode(pair.substring(equals + 1), "UTF-8") : "";
+                query.put(name, value);
+            }
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            throw new RequestException(400, "Malformed query string");
+        }
+        return query;
+    }
+
+    private static final class Published {
+        final StudentDataset dataset;
+        final long version;
+
+        Published(StudentDataset dataset, long version) {
+            this.dataset = dataset;
+            this.version = version;
+        }
+    }
+
+    private static final class RequestException extends Exception {
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
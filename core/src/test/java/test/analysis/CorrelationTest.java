@@ -0,0 +1,191 @@
+package test.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+import org.junit.Test;
+
+public class CorrelationTest {
+
+    @Test
+    public void pearsonMatchesTwoPass() {
+        Random random = new Random(21);
+        double[][] pairs = correlated(random, 50000, 0.6);
+        assertEquals(twoPassPearson(pairs), correlationOf(pairs, 0, pairs.length).getPearson(), 1e-12);
+    }
+
+    @Test
+    public void pearsonOfLargeOffsetsMatchesTwoPass() {
+        // Values far from zero with a small spread defeat the naive sum-of-squares formula, which
+        // would be off by about epsilon * (offset / spread)^2 = 0.2 here; running co-moments are off
+        // by about epsilon * offset / spread
+        Random random = new Random(22);
+        double[][] pairs = new double[20000][];
+        double[][] shifted = new double[pairs.length][];
+        for (int i = 0; i < pairs.length; i++) {
+            double x = 1e9 + random.nextDouble();
+            pairs[i] = new double[]{x, 1e9 + (x - 1e9) * 0.5 + random.nextDouble() * 0.5};
+            // Exact, and r does not depend on the offset, so the reference loses no precision to it
+            shifted[i] = new double[]{pairs[i][0] - 1e9, pairs[i][1] - 1e9};
+        }
+        assertEquals(twoPassPearson(shifted), correlationOf(pairs, 0, pairs.length).getPearson(), 1e-6);
+    }
+
+    @Test
+    public void pearsonOfLinearTransformIsOne() {
+        double[][] pairs = new double[1000][];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = new double[]{i * 0.1, 3 * i * 0.1 + 2};
+        }
+        assertEquals(1.0, correlationOf(pairs, 0, pairs.length).getPearson(), 1e-12);
+        for (double[] pair : pairs) {
+            pair[1] = -pair[1];
+        }
+        assertEquals(-1.0, correlationOf(pairs, 0, pairs.length).getPearson(), 1e-12);
+    }
+
+    @Test
+    public void spearmanOfMonotoneTransformIsOne() {
+        Random random = new Random(23);
+        double[][] pairs = new double[10000][];
+        for (int i = 0; i < pairs.length; i++) {
+            double x = random.nextDouble() * 100;
+            // Far from linear, but rank-preserving and inside the binned range
+            pairs[i] = new double[]{x, Math.pow(x / 100, 4) * 100};
+        }
+        Correlation correlation = correlationOf(pairs, 0, pairs.length);
+        assertTrue(correlation.getPearson() < 0.95);
+        assertEquals(1.0, correlation.getSpearman(), 0.01);
+        for (double[] pair : pairs) {
+            pair[1] = 100 - pair[1];
+        }
+        assertEquals(-1.0, correlationOf(pairs, 0, pairs.length).getSpearman(), 0.01);
+    }
+
+    @Test
+    public void spearmanOfWholePercentagesIsExact() {
+        // Each whole percentage has a bin of its own, so binned ties are the data's own ties
+        Random random = new Random(24);
+        double[][] pairs = new double[20000][];
+        for (int i = 0; i < pairs.length; i++) {
+            double x = random.nextInt(100);
+            pairs[i] = new double[]{x, Math.max(0, Math.min(99, Math.round(x * 0.5 + random.nextInt(50))))};
+        }
+        assertEquals(exactSpearman(pairs), correlationOf(pairs, 0, pairs.length).getSpearman(), 1e-12);
+    }
+
+    @Test
+    public void spearmanIsCloseToExactOnContinuousValues() {
+        double[][] pairs = correlated(new Random(25), 50000, 0.5);
+        assertEquals(exactSpearman(pairs), correlationOf(pairs, 0, pairs.length).getSpearman(), 0.01);
+    }
+
+    @Test
+    public void mergedHalvesMatchWhole() {
+        double[][] pairs = correlated(new Random(26), 30001, 0.3);
+        Correlation whole = correlationOf(pairs, 0, pairs.length);
+        Correlation merged = correlationOf(pairs, 0, 12345);
+        merged.merge(correlationOf(pairs, 12345, pairs.length));
+        assertEquals(whole.getCount(), merged.getCount());
+        assertEquals(whole.getPearson(), merged.getPearson(), 1e-12);
+        assertEquals(whole.getSpearman(), merged.getSpearman(), 1e-12);
+
+        Correlation empty = DistributionAggregator.newCorrelation();
+        empty.merge(whole);
+        assertEquals(whole.getPearson(), empty.getPearson(), 1e-12);
+    }
+
+    @Test
+    public void degenerateInputHasNoCorrelation() {
+        Correlation correlation = DistributionAggregator.newCorrelation();
+        assertTrue(Double.isNaN(correlation.getPearson()));
+        assertTrue(Double.isNaN(correlation.getSpearman()));
+        correlation.add(50, 50);
+        assertTrue(Double.isNaN(correlation.getPearson()));
+        assertTrue(Double.isNaN(correlation.getSpearman()));
+        correlation.add(50, 60);
+        // x is constant
+        assertTrue(Double.isNaN(correlation.getPearson()));
+        assertTrue(Double.isNaN(correlation.getSpearman()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mergeRejectsOtherRange() {
+        new Correlation(0, 100).merge(new Correlation(0, 10));
+    }
+
+    private static double[][] correlated(Random random, int count, double slope) {
+        double[][] pairs = new double[count][];
+        for (int i = 0; i < count; i++) {
+            double x = 50 + random.nextGaussian() * 15;
+            pairs[i] = new double[]{x, 50 + (x - 50) * slope + random.nextGaussian() * 10};
+        }
+        return pairs;
+    }
+
+    private static Correlation correlationOf(double[][] pairs, int from, int to) {
+        Correlation correlation = DistributionAggregator.newCorrelation();
+        for (int i = from; i < to; i++) {
+            correlation.add(pairs[i][0], pairs[i][1]);
+        }
+        return correlation;
+    }
+
+    private static double twoPassPearson(double[][] pairs) {
+        double meanX = 0;
+        double meanY = 0;
+        for (double[] pair : pairs) {
+            meanX += pair[0];
+            meanY += pair[1];
+        }
+        meanX /= pairs.length;
+        meanY /= pairs.length;
+        double sxy = 0;
+        double sxx = 0;
+        double syy = 0;
+        for (double[] pair : pairs) {
+            double dx = pair[0] - meanX;
+            double dy = pair[1] - meanY;
+            sxy += dx * dy;
+            sxx += dx * dx;
+            syy += dy * dy;
+        }
+        return sxy / Math.sqrt(sxx * syy);
+    }
+
+    /**
+     * Returns Pearson's r of the mid-ranks, with tied values sharing their mean rank.
+     */
+    private static double exactSpearman(double[][] pairs) {
+        double[][] ranked = new double[pairs.length][];
+        double[] xRanks = midRanks(pairs, 0);
+        double[] yRanks = midRanks(pairs, 1);
+        for (int i = 0; i < pairs.length; i++) {
+            ranked[i] = new double[]{xRanks[i], yRanks[i]};
+        }
+        return twoPassPearson(ranked);
+    }
+
+    private static double[] midRanks(double[][] pairs, int component) {
+        Integer[] order = IntStream.range(0, pairs.length).boxed().toArray(Integer[]::new);
+        Arrays.sort(order, Comparator.comparingDouble(i -> pairs[i][component]));
+        double[] ranks = new double[pairs.length];
+        int start = 0;
+        while (start < order.length) {
+            int end = start;
+            while (end + 1 < order.length && pairs[order[end + 1]][component] == pairs[order[start]][component]) {
+                end++;
+            }
+            double rank = (start + end) / 2.0 + 1;
+            for (int i = start; i <= end; i++) {
+                ranks[order[i]] = rank;
+            }
+            start = end + 1;
+        }
+        return ranks;
+    }
+}
@@ -0,0 +1,98 @@
+package test.analysis;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import test.data.ColumnType;
+import test.data.DatasetTableModel;
+import test.data.StudentDataset;
+import test.data.StudentFields;
+
+public class LiveGradeAggregatorTest {
+
+    private static final String[] GRADES = {"A", "B", "C", "D", "F", "Incomplete"};
+    private static final int GRADE = 1;
+    private static final int ATTENDANCE = 2;
+
+    @Test
+    public void randomChangesMatchFreshAggregate() {
+        Random random = new Random(11);
+        StudentDataset dataset = dataset(2000, random);
+        DatasetTableModel model = new DatasetTableModel(dataset);
+        LiveGradeAggregator aggregator = new LiveGradeAggregator(model);
+        assertMatches(dataset, aggregator);
+
+        for (int step = 0; step < 5000; step++) {
+            int action = random.nextInt(10);
+            if (action < 5 && model.getRowCount() > 0) {
+                model.setValueAt(attendance(random), random.nextInt(model.getRowCount()), ATTENDANCE);
+            } else if (action < 7 && model.getRowCount() > 0) {
+                model.setValueAt(GRADES[random.nextInt(GRADES.length)], random.nextInt(model.getRowCount()), GRADE);
+            } else if (action < 8 && model.getRowCount() > 0) {
+                model.setValueAt("S" + step, random.nextInt(model.getRowCount()), 0);
+            } else if (action < 9 && model.getRowCount() > 10) {
+                int first = random.nextInt(model.getRowCount() - 10);
+                model.removeRows(first, first + random.nextInt(10));
+            } else {
+                dataset.appendRow(row(step, random));
+                model.publishRows(dataset.getRowCount());
+            }
+            if (step % 250 == 0) {
+                assertMatches(dataset, aggregator);
+            }
+        }
+        assertMatches(dataset, aggregator);
+    }
+
+    @Test
+    public void repeatedEditsDoNotDrift() {
+        StudentDataset dataset = dataset(100, new Random(12));
+        DatasetTableModel model = new DatasetTableModel(dataset);
+        LiveGradeAggregator aggregator = new LiveGradeAggregator(model);
+        model.setValueAt("A", 0, GRADE);
+        for (int i = 0; i < 100000; i++) {
+            // A huge value swamps the low bits of a plain running sum each time it comes and goes
+            model.setValueAt(i % 2 == 0 ? "1e12" : String.valueOf(i % 100 / 10.0), 0, ATTENDANCE);
+        }
+        assertMatches(dataset, aggregator);
+    }
+
+    @Test
+    public void newDatasetRebuilds() {
+        DatasetTableModel model = new DatasetTableModel(dataset(50, new Random(13)));
+        LiveGradeAggregator aggregator = new LiveGradeAggregator(model);
+        StudentDataset replacement = dataset(80, new Random(14));
+        model.setDataset(replacement);
+        assertMatches(replacement, aggregator);
+    }
+
+    private static void assertMatches(StudentDataset dataset, LiveGradeAggregator aggregator) {
+        GradeSummary fresh = GradeAggregator.aggregate(dataset);
+        Map<String, Double> averages = aggregator.getAverages();
+        for (String grade : GradeAggregator.GRADES) {
+            assertEquals(grade, fresh.getAverages().get(grade), averages.get(grade), 1e-9);
+        }
+        assertEquals(fresh.getInvalidRows(), aggregator.getInvalidRows());
+    }
+
+    private static StudentDataset dataset(int rows, Random random) {
+        StudentDataset dataset = new StudentDataset(
+                new String[]{StudentFields.STUDENT_ID, StudentFields.GRADE, StudentFields.ATTENDANCE},
+                new ColumnType[]{ColumnType.TEXT, ColumnType.CATEGORY, ColumnType.NUMBER});
+        for (int row = 0; row < rows; row++) {
+            dataset.appendRow(row(row, random));
+        }
+        return dataset;
+    }
+
+    private static String[] row(int id, Random random) {
+        return new String[]{"S" + id, GRADES[random.nextInt(GRADES.length)], attendance(random)};
+    }
+
+    private static String attendance(Random random) {
+        int kind = random.nextInt(20);
+        return kind == 0 ? "" : kind == 1 ? "absent" : String.valueOf(random.nextInt(10001) / 100.0);
+    }
+}
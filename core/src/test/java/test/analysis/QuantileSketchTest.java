@@ -0,0 +1,156 @@
+package test.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+
+public class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+
+    @Test
+    public void emptySketchHasNoQuantiles() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertEquals(0, sketch.getCount());
+        assertTrue(Double.isNaN(sketch.quantile(0.5)));
+    }
+
+    @Test
+    public void singleValueIsEveryQuantile() {
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.add(42.5);
+        assertEquals(42.5, sketch.quantile(0.0), 0.0);
+        assertEquals(42.5, sketch.quantile(0.5), 0.0);
+        assertEquals(42.5, sketch.quantile(1.0), 0.0);
+    }
+
+    @Test
+    public void extremesAreExact() {
+        double[] values = uniform(new Random(1), 10000);
+        QuantileSketch sketch = sketchOf(values, 0, values.length);
+        Arrays.sort(values);
+        assertEquals(values[0], sketch.quantile(0.0), 0.0);
+        assertEquals(values[values.length - 1], sketch.quantile(1.0), 0.0);
+    }
+
+    @Test
+    public void uniformQuantilesMatchSortedValues() {
+        double[] values = uniform(new Random(2), 200000);
+        assertQuantiles(values, sketchOf(values, 0, values.length));
+    }
+
+    @Test
+    public void skewedQuantilesMatchSortedValues() {
+        Random random = new Random(3);
+        double[] values = new double[200000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = -Math.log(1 - random.nextDouble()) * 10;
+        }
+        assertQuantiles(values, sketchOf(values, 0, values.length));
+    }
+
+    @Test
+    public void tiedValuesRoundToSortedValues() {
+        // Attendance as exported: whole percentages, with many rows on each value. Estimates may fall
+        // between two values, so they are held to the nearest one rather than to a rank
+        Random random = new Random(4);
+        double[] values = new double[100000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.min(100, Math.max(0, Math.round(80 + random.nextGaussian() * 10)));
+        }
+        QuantileSketch sketch = sketchOf(values, 0, values.length);
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            assertEquals("q=" + q, sorted[(int) (q * (sorted.length - 1))], sketch.quantile(q), 0.5);
+        }
+    }
+
+    @Test
+    public void mergedHalvesMatchSortedValues() {
+        double[] values = uniform(new Random(5), 200000);
+        QuantileSketch merged = sketchOf(values, 0, values.length / 2);
+        merged.merge(sketchOf(values, values.length / 2, values.length));
+        assertEquals(values.length, merged.getCount());
+        assertQuantiles(values, merged);
+
+        QuantileSketch whole = sketchOf(values, 0, values.length);
+        for (double q : QUANTILES) {
+            assertEquals("q=" + q, whole.quantile(q), merged.quantile(q), 0.5);
+        }
+    }
+
+    @Test
+    public void mergingEmptySketchChangesNothing() {
+        double[] values = uniform(new Random(6), 1000);
+        QuantileSketch sketch = sketchOf(values, 0, values.length);
+        double median = sketch.quantile(0.5);
+        sketch.merge(new QuantileSketch());
+        assertEquals(values.length, sketch.getCount());
+        assertEquals(median, sketch.quantile(0.5), 0.0);
+    }
+
+    /**
+     * Checks that each estimate has about the requested share of values below it, tighter in the
+     * tails as the sketch promises.
+     */
+    private static void assertQuantiles(double[] values, QuantileSketch sketch) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double estimate = sketch.quantile(q);
+            double below = lowerRank(sorted, estimate) / (double) sorted.length;
+            double atOrBelow = upperRank(sorted, estimate) / (double) sorted.length;
+            double tolerance = Math.max(0.0005, 0.02 * Math.min(q, 1 - q));
+            assertTrue("q=" + q + " estimate " + estimate + " has rank " + below + " to " + atOrBelow,
+                    below - tolerance <= q && q <= atOrBelow + tolerance);
+        }
+    }
+
+    private static int lowerRank(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] < value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int upperRank(double[] sorted, double value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle] <= value) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static double[] uniform(Random random, int count) {
+        double[] values = new double[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextDouble() * 100;
+        }
+        return values;
+    }
+
+    private static QuantileSketch sketchOf(double[] values, int from, int to) {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = from; i < to; i++) {
+            sketch.add(values[i]);
+        }
+        return sketch;
+    }
+}
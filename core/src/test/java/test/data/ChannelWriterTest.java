@@ -0,0 +1,92 @@
+package test.data;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import org.junit.Test;
+
+public class ChannelWriterTest {
+
+    private static final double[] EDGE_VALUES = {
+            0.0, -0.0, 1.0, -1.0, 0.5, -0.5, 1.5, 2.5, 0.0005, 0.0015, 0.0025, -0.0004, -0.0005, 1.0005,
+            2.675, 1.005, 0.125, 0.375, 99.9995, 999.9995, 86.22820143884881, 0.1 + 0.2,
+            4.35, 4.45, 1e-10, -1e-10, 0x1p40 / 1000 - 0.5, 0x1p40 / 1000 + 0.5, 1e12 + 0.5, 123456789.0005,
+            1e15, 1e20, -1e20, Double.MIN_VALUE, Double.MAX_VALUE, Long.MAX_VALUE, Long.MIN_VALUE,
+            Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+
+    @Test
+    public void edgeValuesMatchStringFormat() throws IOException {
+        for (int decimals = 0; decimals <= 12; decimals++) {
+            for (double value : EDGE_VALUES) {
+                assertFormatted(value, decimals);
+            }
+        }
+    }
+
+    @Test
+    public void nearTiesMatchStringFormat() throws IOException {
+        // Every value halfway between two three-decimal results, and its neighbours one ulp either side
+        for (int units = -5000; units <= 5000; units++) {
+            double tie = (units + 0.5) / 1000;
+            assertFormatted(tie, 3);
+            assertFormatted(Math.nextUp(tie), 3);
+            assertFormatted(Math.nextDown(tie), 3);
+        }
+    }
+
+    @Test
+    public void randomValuesMatchStringFormat() throws IOException {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(14) - 4);
+            assertFormatted(value, random.nextInt(8));
+        }
+    }
+
+    @Test
+    public void trimZerosDropsTrailingZerosAndPoint() throws IOException {
+        assertEquals("12.5", write(12.5, 3, true));
+        assertEquals("12", write(12.0004, 3, true));
+        assertEquals("0", write(-0.0004, 3, true));
+        assertEquals("0", write(-0.0, 2, true));
+        assertEquals("-0.001", write(-0.0005, 3, true));
+        assertEquals("1000", write(999.9995, 3, true));
+        assertEquals("100000000000000000000", write(1e20, 2, true));
+    }
+
+    @Test
+    public void longsMatchToString() throws IOException {
+        long[] values = {0, 1, -1, 9, 10, -10, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE};
+        for (long value : values) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ChannelWriter out = new ChannelWriter(Channels.newChannel(bytes))) {
+                out.writeDecimal(value);
+            }
+            assertEquals(Long.toString(value), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void assertFormatted(double value, int decimals) throws IOException {
+        String expected = String.format(Locale.ROOT, "%." + decimals + "f", value);
+        assertEquals(value + " to " + decimals + " decimals", expected, write(value, decimals, false));
+        if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+            BigDecimal trimmed = new BigDecimal(expected);
+            String expectedTrimmed = trimmed.signum() == 0 ? "0" : trimmed.stripTrailingZeros().toPlainString();
+            assertEquals(value + " to " + decimals + " decimals, trimmed", expectedTrimmed, write(value, decimals, true));
+        }
+    }
+
+    private static String write(double value, int decimals, boolean trimZeros) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ChannelWriter out = new ChannelWriter(Channels.newChannel(bytes))) {
+            out.writeDecimal(value, decimals, trimZeros);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,275 @@
+package test.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CsvParserTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void splitsPlainFields() throws IOException {
+        assertRecords("a,b,c\n1,2,3\n", rows(row("a", "b", "c"), row("1", "2", "3")));
+    }
+
+    @Test
+    public void keepsEmptyFields() throws IOException {
+        assertRecords(",a,,b,\n,\n", rows(row("", "a", "", "b", ""), row("", "")));
+    }
+
+    @Test
+    public void unquotesQuotedFields() throws IOException {
+        assertRecords("\"a,b\",\"say \"\"hi\"\"\",\"\"\n", rows(row("a,b", "say \"hi\"", "")));
+    }
+
+    @Test
+    public void keepsLineBreaksInQuotedFields() throws IOException {
+        assertRecords("\"line 1\nline 2\",x\r\n\"a\r\nb\",y\n", rows(row("line 1\nline 2", "x"), row("a\r\nb", "y")));
+    }
+
+    @Test
+    public void acceptsCrLfAndMissingFinalLineBreak() throws IOException {
+        assertRecords("a,b\r\nc,d\r\ne,f", rows(row("a", "b"), row("c", "d"), row("e", "f")));
+    }
+
+    @Test
+    public void skipsBlankLinesAndByteOrderMark() throws IOException {
+        assertRecords("﻿a,b\n\n\r\nc,d\n\n", rows(row("a", "b"), row("c", "d")));
+    }
+
+    @Test
+    public void keepsSpacesAroundFields() throws IOException {
+        assertRecords(" a , b \n  ,\t\n", rows(row(" a ", " b "), row("  ", "\t")));
+        List<Boolean> blanks = new ArrayList<>();
+        parse(" a , \n", Integer.MAX_VALUE, record -> {
+            blanks.add(record.isBlank(0));
+            blanks.add(record.isBlank(1));
+            blanks.add(record.isBlank(2));
+            return true;
+        });
+        assertEquals(Arrays.asList(false, true, true), blanks);
+    }
+
+    @Test
+    public void unterminatedQuoteRunsToEndOfInput() throws IOException {
+        assertRecords("a,\"b\nc,d\n", rows(row("a", "b\nc,d\n")));
+    }
+
+    @Test
+    public void decodesUtf8() throws IOException {
+        assertRecords("Zoë,\"Émile, Jr.\"\n", rows(row("Zoë", "Émile, Jr.")));
+    }
+
+    @Test
+    public void reportsEndOffsets() throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        parse("a,b\r\n\"x\ny\",z\nlast", Integer.MAX_VALUE, record -> offsets.add(record.getEndOffset()));
+        assertEquals(Arrays.asList(5L, 13L, 17L), offsets);
+    }
+
+    @Test
+    public void handlerCanStopParsing() throws IOException {
+        File file = write("a\nb\nc\n");
+        List<String> seen = new ArrayList<>();
+        long records = CsvParser.parse(file, record -> {
+            seen.add(record.getString(0));
+            return seen.size() < 2;
+        });
+        assertEquals(2, records);
+        assertEquals(Arrays.asList("a", "b"), seen);
+    }
+
+    @Test
+    public void resumesAtEndOffset() throws IOException {
+        File file = write("h1,h2\n\"multi\nline\",1\nnext,2\n");
+        long[] afterFirst = new long[1];
+        CsvParser.parse(file, record -> {
+            afterFirst[0] = record.getEndOffset();
+            return false;
+        });
+        assertSameRecords(rows(row("multi\nline", "1"), row("next", "2")), collect(file, afterFirst[0]));
+    }
+
+    @Test
+    public void parseCompleteLeavesOutUnfinishedRecord() throws IOException {
+        String text = "a,b\n\"c\nd\",e\nf,\"g\nh";
+        File file = write(text);
+        List<String[]> records = new ArrayList<>();
+        long[] end = new long[1];
+        CsvParser.parseComplete(file, 0, file.length(), record -> {
+            records.add(record.toStringArray());
+            end[0] = record.getEndOffset();
+            return true;
+        });
+        assertSameRecords(rows(row("a", "b"), row("c\nd", "e")), records);
+        assertEquals(text.indexOf("f,"), end[0]);
+    }
+
+    @Test
+    public void recordsStraddlingWindowsMatchOneWindow() throws IOException {
+        Random random = new Random(31);
+        StringBuilder text = new StringBuilder();
+        List<String[]> expected = new ArrayList<>();
+        int longest = 0;
+        for (int i = 0; i < 400; i++) {
+            int start = text.length();
+            String[] fields = new String[1 + random.nextInt(6)];
+            for (int f = 0; f < fields.length; f++) {
+                fields[f] = randomField(random);
+                if (f > 0) {
+                    text.append(',');
+                }
+                text.append(encode(fields[f], random));
+            }
+            text.append(random.nextBoolean() ? "\r\n" : "\n");
+            expected.add(fields);
+            longest = Math.max(longest, text.substring(start).getBytes(StandardCharsets.UTF_8).length);
+        }
+        String csv = text.toString();
+        // The smallest window just fits the longest record, so most windows end inside a record
+        for (int windowSize : new int[]{longest, longest + 1, longest + 7, 2 * longest + 3, 1000, Integer.MAX_VALUE}) {
+            List<String[]> records = new ArrayList<>();
+            parse(csv, windowSize, record -> records.add(record.toStringArray()));
+            assertSameRecords(expected, records);
+        }
+    }
+
+    @Test
+    public void recordLongerThanWindowIsAnError() throws IOException {
+        File file = write("short\n" + String.join(",", Collections.nCopies(40, "long field")) + "\n");
+        try {
+            CsvParser.parse(file, 0, Long.MAX_VALUE, 64, record -> true);
+            fail("Expected the long record to be rejected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("longer than 64 bytes"));
+        }
+    }
+
+    @Test
+    public void getDoubleMatchesParseDouble() throws IOException {
+        String[] values = {
+                "0", "-0", "+0", "1", "-1", "+5", "0.1", "0.2", "0.3", "123.456", "-.5", ".5", "5.", "007", "  42  ",
+                "\t42", "86.22820143884881",
+                // Largest mantissas on either side of the exact fast path, 2^53
+                "900719925474099", "9007199254740991", "9007199254740992", "9007199254740993", "900719925474099.1",
+                "90071992547409.93", "0.9007199254740993", "12345678901234567890",
+                // Powers of ten on either side of 1e22, the largest exact double power
+                "1e22", "1e23", "10000000000000000000000", "100000000000000000000000",
+                "0.0000000000000000000001", "0.00000000000000000000001", "1.0000000000000000000000",
+                "1.7976931348623157e308", "1e309", "4.9e-324", "2.2250738585072014E-308", "1E5", "1e+5", "1e-5",
+                "1d", "1.5f", "0x1p3", "NaN", "-Infinity",
+                "", " ", ".", "-", "+", "e5", "1e", "1.2.3", "1-2", "abc", "12abc", "n/a", "--1", "1 2"};
+        StringBuilder text = new StringBuilder();
+        for (String value : values) {
+            text.append('"').append(value).append("\"\n");
+        }
+        Random random = new Random(32);
+        List<String> generated = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            String digits = Long.toString(Math.abs(random.nextLong()) >>> random.nextInt(64));
+            int point = random.nextInt(digits.length() + 1);
+            String value = (random.nextBoolean() ? "-" : "") + digits.substring(0, point) + "." + digits.substring(point);
+            if (random.nextInt(4) == 0) {
+                value = value + "0".repeat(random.nextInt(25));
+            }
+            generated.add(value);
+            text.append(value).append('\n');
+        }
+        List<String> all = new ArrayList<>(Arrays.asList(values));
+        all.addAll(generated);
+        List<Double> parsed = new ArrayList<>();
+        parse(text.toString(), Integer.MAX_VALUE, record -> parsed.add(record.getDouble(0)));
+        assertEquals(all.size(), parsed.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals("\"" + all.get(i) + "\"", Double.valueOf(parseDouble(all.get(i))), parsed.get(i));
+        }
+    }
+
+    @Test
+    public void getDoubleOfAbsentFieldIsNaN() throws IOException {
+        List<Double> parsed = new ArrayList<>();
+        parse("1\n", Integer.MAX_VALUE, record -> parsed.add(record.getDouble(3)));
+        assertEquals(1, parsed.size());
+        assertTrue(Double.isNaN(parsed.get(0)));
+    }
+
+    private static double parseDouble(String text) {
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String randomField(Random random) {
+        String[] pieces = {"a", "Bob", " ", ",", "\"", "\n", "\r\n", "42", "é", "x y"};
+        StringBuilder field = new StringBuilder();
+        int length = random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            field.append(pieces[random.nextInt(pieces.length)]);
+        }
+        return field.toString();
+    }
+
+    private static String encode(String field, Random random) {
+        boolean mustQuote = field.contains(",") || field.contains("\"") || field.contains("\n") || field.contains("\r");
+        // An unquoted empty single field would be a blank line, which the parser skips
+        if (mustQuote || field.isEmpty() || random.nextInt(3) == 0) {
+            return "\"" + field.replace("\"", "\"\"") + "\"";
+        }
+        return field;
+    }
+
+    private void assertRecords(String text, List<String[]> expected) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        parse(text, Integer.MAX_VALUE, record -> records.add(record.toStringArray()));
+        assertSameRecords(expected, records);
+    }
+
+    private static void assertSameRecords(List<String[]> expected, List<String[]> records) {
+        assertEquals(expected.size(), records.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals("record " + i, expected.get(i), records.get(i));
+        }
+    }
+
+    private void parse(String text, int windowSize, CsvParser.RecordHandler handler) throws IOException {
+        CsvParser.parse(write(text), 0, Long.MAX_VALUE, windowSize, handler);
+    }
+
+    private static List<String[]> collect(File file, long start) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        CsvParser.parse(file, start, record -> records.add(record.toStringArray()));
+        return records;
+    }
+
+    private File write(String text) throws IOException {
+        File file = folder.newFile();
+        Files.write(file.toPath(), text.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String[] row(String... fields) {
+        return fields;
+    }
+
+    private static List<String[]> rows(String[]... rows) {
+        return Arrays.asList(rows);
+    }
+}
@@ -0,0 +1,164 @@
+package test.data;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import javax.swing.RowSorter.SortKey;
+import javax.swing.SortOrder;
+import org.junit.Test;
+
+public class DatasetSorterTest {
+
+    private static final int NAME = 0;
+    private static final int GRADE = 1;
+    private static final int SCORE = 2;
+    private static final int HOURS = 3;
+    private static final int ID = 4;
+
+    @Test
+    public void noKeysKeepsDatasetOrder() {
+        StudentDataset dataset = dataset(100, new Random(1));
+        assertArrayEquals(IntStream.range(0, 100).toArray(),
+                DatasetSorter.sort(dataset, 100, Collections.<SortKey>emptyList(), null));
+        assertArrayEquals(IntStream.range(0, 100).toArray(),
+                DatasetSorter.sort(dataset, 100, keys(SCORE, SortOrder.UNSORTED), null));
+    }
+
+    @Test
+    public void missingNumbersSortLastInBothDirections() {
+        StudentDataset dataset = new StudentDataset(new String[]{"Score"}, new ColumnType[]{ColumnType.NUMBER});
+        for (String value : new String[]{"3", "", "1", "n/a", "2", "1", ""}) {
+            dataset.appendRow(new String[]{value});
+        }
+        assertArrayEquals(new int[]{2, 5, 4, 0, 1, 3, 6},
+                DatasetSorter.sort(dataset, 7, keys(0, SortOrder.ASCENDING), null));
+        assertArrayEquals(new int[]{0, 4, 2, 5, 1, 3, 6},
+                DatasetSorter.sort(dataset, 7, keys(0, SortOrder.DESCENDING), null));
+    }
+
+    @Test
+    public void singleKeysMatchStableSort() {
+        StudentDataset dataset = dataset(5000, new Random(2));
+        for (int column = 0; column <= ID; column++) {
+            for (SortOrder order : new SortOrder[]{SortOrder.ASCENDING, SortOrder.DESCENDING}) {
+                assertSorted(dataset, keys(column, order), null);
+            }
+        }
+    }
+
+    @Test
+    public void multipleKeysMatchStableSort() {
+        StudentDataset dataset = dataset(5000, new Random(3));
+        Random random = new Random(4);
+        for (int i = 0; i < 50; i++) {
+            List<SortKey> keys = new ArrayList<>();
+            int keyCount = 2 + random.nextInt(3);
+            for (int k = 0; k < keyCount; k++) {
+                keys.add(new SortKey(random.nextInt(HOURS + 1),
+                        random.nextBoolean() ? SortOrder.ASCENDING : SortOrder.DESCENDING));
+            }
+            assertSorted(dataset, keys, null);
+        }
+    }
+
+    @Test
+    public void keysBeyondIntCombinationsMatchStableSort() {
+        // Three unique keys give more combined ranks than fit in an int
+        StudentDataset dataset = dataset(3000, new Random(5));
+        List<SortKey> keys = Arrays.asList(new SortKey(ID, SortOrder.DESCENDING),
+                new SortKey(HOURS, SortOrder.ASCENDING), new SortKey(ID, SortOrder.ASCENDING));
+        assertSorted(dataset, keys, null);
+        keys = Arrays.asList(new SortKey(GRADE, SortOrder.ASCENDING), new SortKey(ID, SortOrder.ASCENDING),
+                new SortKey(SCORE, SortOrder.DESCENDING), new SortKey(ID, SortOrder.DESCENDING));
+        assertSorted(dataset, keys, null);
+    }
+
+    @Test
+    public void filteredRowsMatchStableSort() {
+        StudentDataset dataset = dataset(5000, new Random(6));
+        IntPredicate filter = DatasetSorter.containsFilter(dataset, "b");
+        assertSorted(dataset, Arrays.asList(new SortKey(GRADE, SortOrder.DESCENDING),
+                new SortKey(SCORE, SortOrder.ASCENDING)), filter);
+        assertSorted(dataset, keys(HOURS, SortOrder.DESCENDING), filter);
+        assertSorted(dataset, keys(ID, SortOrder.ASCENDING), row -> row % 3 == 0);
+    }
+
+    @Test
+    public void sortsOnlyTheGivenRowCount() {
+        StudentDataset dataset = dataset(1000, new Random(7));
+        int[] order = DatasetSorter.sort(dataset, 600, keys(SCORE, SortOrder.ASCENDING), null);
+        assertArrayEquals(expectedOrder(dataset, 600, keys(SCORE, SortOrder.ASCENDING), null), order);
+    }
+
+    private static void assertSorted(StudentDataset dataset, List<SortKey> keys, IntPredicate filter) {
+        int rowCount = dataset.getRowCount();
+        assertArrayEquals(keys.toString(), expectedOrder(dataset, rowCount, keys, filter),
+                DatasetSorter.sort(dataset, rowCount, keys, filter));
+    }
+
+    /**
+     * Sorts the rows one comparison at a time with the order {@link DatasetSorter} documents.
+     */
+    private static int[] expectedOrder(StudentDataset dataset, int rowCount, List<SortKey> keys, IntPredicate filter) {
+        Comparator<Integer> comparator = (a, b) -> 0;
+        for (SortKey key : keys) {
+            if (key.getSortOrder() != SortOrder.UNSORTED) {
+                comparator = comparator.thenComparing(keyComparator(dataset.getColumn(key.getColumn()),
+                        key.getSortOrder() == SortOrder.DESCENDING));
+            }
+        }
+        List<Integer> rows = new ArrayList<>();
+        for (int row = 0; row < rowCount; row++) {
+            if (filter == null || filter.test(row)) {
+                rows.add(row);
+            }
+        }
+        rows.sort(comparator);
+        return rows.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static Comparator<Integer> keyComparator(Column column, boolean descending) {
+        if (column instanceof NumberColumn) {
+            NumberColumn numbers = (NumberColumn) column;
+            return (a, b) -> {
+                double x = numbers.get(a);
+                double y = numbers.get(b);
+                if (Double.isNaN(x) || Double.isNaN(y)) {
+                    return Boolean.compare(Double.isNaN(x), Double.isNaN(y));
+                }
+                return descending ? Double.compare(y, x) : Double.compare(x, y);
+            };
+        }
+        Comparator<Integer> ascending = (a, b) -> ((String) column.getValue(a)).compareTo((String) column.getValue(b));
+        return descending ? ascending.reversed() : ascending;
+    }
+
+    private static List<SortKey> keys(int column, SortOrder order) {
+        return Collections.singletonList(new SortKey(column, order));
+    }
+
+    /**
+     * Returns rows with few distinct names, grades and scores, so most keys tie, and with missing,
+     * non-numeric and negative zero numbers among them.
+     */
+    private static StudentDataset dataset(int rows, Random random) {
+        String[] names = {"Ada", "ada", "Bob", "Cy", "", "Émile", "Zoë"};
+        String[] grades = {"A", "B", "C", "D", "F", ""};
+        String[] scores = {"", "n/a", "-0", "0", "12.5", "99", "100", "-3"};
+        StudentDataset dataset = new StudentDataset(new String[]{"Name", "Grade", "Score", "Hours", "Student ID"},
+                new ColumnType[]{ColumnType.TEXT, ColumnType.CATEGORY, ColumnType.NUMBER, ColumnType.NUMBER, ColumnType.TEXT});
+        for (int row = 0; row < rows; row++) {
+            String hours = random.nextInt(10) == 0 ? "" : String.valueOf(random.nextInt(4000) / 100.0);
+            dataset.appendRow(new String[]{names[random.nextInt(names.length)], grades[random.nextInt(grades.length)],
+                    scores[random.nextInt(scores.length)], hours, "S" + random.nextInt(1 << 30)});
+        }
+        return dataset;
+    }
+}
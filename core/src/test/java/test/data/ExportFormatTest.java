@@ -0,0 +1,25 @@
+package test.data;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ExportFormatTest {
+
+    @Test
+    public void appendsExtensionToOtherDots() {
+        assertEquals("grades.2024.csv", ExportFormat.CSV.fileName("grades.2024"));
+        assertEquals("term.v2.csv.gz", ExportFormat.CSV_GZIP.fileName("term.v2.csv"));
+        assertEquals("Students.csv", ExportFormat.CSV.fileName("Students"));
+        assertEquals(".profile.csv", ExportFormat.CSV.fileName(".profile"));
+    }
+
+    @Test
+    public void replacesTrailingExportExtension() {
+        assertEquals("term.v2.gacol", ExportFormat.COLUMNAR.fileName("term.v2.csv.gz"));
+        assertEquals("term.v2.csv", ExportFormat.CSV.fileName("term.v2.CSV.GZ"));
+        assertEquals("term.csv", ExportFormat.CSV.fileName("term.gacol"));
+        assertEquals("term.csv.gz", ExportFormat.CSV_GZIP.fileName("term.csv.gz"));
+        assertEquals("term.csv", ExportFormat.CSV.fileName("term.csv"));
+    }
+}
@@ -0,0 +1,169 @@
+package test.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SnapshotCacheTest {
+
+    private static final String CACHE_PROPERTY = "gradevsattendance.cache";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String previousCache;
+    private File cacheDirectory;
+    private File source;
+
+    @Before
+    public void setUp() throws IOException {
+        previousCache = System.getProperty(CACHE_PROPERTY);
+        cacheDirectory = folder.newFolder("cache");
+        System.setProperty(CACHE_PROPERTY, cacheDirectory.getPath());
+        source = folder.newFile("students.csv");
+        writeCsv(source, 300);
+    }
+
+    @After
+    public void tearDown() {
+        if (previousCache != null) {
+            System.setProperty(CACHE_PROPERTY, previousCache);
+        } else {
+            System.clearProperty(CACHE_PROPERTY);
+        }
+    }
+
+    @Test
+    public void loadRestoresSavedDataset() throws IOException {
+        StudentDataset parsed = StudentDataset.read(source);
+        SnapshotCache.save(source, parsed);
+
+        StudentDataset loaded = StudentDataset.forStudentSchema();
+        assertTrue(SnapshotCache.load(source, loaded));
+        assertSameValues(parsed, loaded);
+        assertEquals(parsed.countInvalidCells(), loaded.countInvalidCells());
+        assertEquals(parsed.getFields().attendance().getFlaggedRows(), loaded.getFields().attendance().getFlaggedRows());
+    }
+
+    @Test
+    public void projectedDatasetLoadsFromFullSnapshot() throws IOException {
+        StudentDataset parsed = StudentDataset.read(source);
+        SnapshotCache.save(source, parsed);
+
+        StudentDataset loaded = StudentDataset.forStudentSchema(StudentFields.GRADE, StudentFields.ATTENDANCE);
+        assertTrue(SnapshotCache.load(source, loaded));
+        assertEquals(parsed.getRowCount(), loaded.getRowCount());
+        for (int row = 0; row < parsed.getRowCount(); row++) {
+            assertEquals(parsed.getValue(row, parsed.findColumn(StudentFields.GRADE)), loaded.getValue(row, 0));
+            assertEquals(parsed.getValue(row, parsed.findColumn(StudentFields.ATTENDANCE)), loaded.getValue(row, 1));
+        }
+    }
+
+    @Test
+    public void missWithoutSnapshot() {
+        assertFalse(SnapshotCache.load(source, StudentDataset.forStudentSchema()));
+    }
+
+    @Test
+    public void appendedFileIsStale() throws IOException {
+        SnapshotCache.save(source, StudentDataset.read(source));
+        assertTrue(SnapshotCache.load(source, StudentDataset.forStudentSchema()));
+        long modified = source.lastModified();
+        Files.write(source.toPath(), row(300).getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertTrue(source.setLastModified(modified));
+
+        assertFalse(SnapshotCache.load(source, StudentDataset.forStudentSchema()));
+    }
+
+    @Test
+    public void rewriteKeepingSizeAndTimeIsStale() throws IOException {
+        SnapshotCache.save(source, StudentDataset.read(source));
+        assertTrue(SnapshotCache.load(source, StudentDataset.forStudentSchema()));
+        long length = source.length();
+        long modified = source.lastModified();
+        try (RandomAccessFile file = new RandomAccessFile(source, "rw")) {
+            // Turn the first data row's grade from A into B
+            String text = new String(Files.readAllBytes(source.toPath()), StandardCharsets.UTF_8);
+            file.seek(text.indexOf(",A,"));
+            file.write(",B,".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(length, source.length());
+        assertTrue(source.setLastModified(modified));
+
+        assertFalse(SnapshotCache.load(source, StudentDataset.forStudentSchema()));
+    }
+
+    @Test
+    public void touchedFileIsStale() throws IOException {
+        SnapshotCache.save(source, StudentDataset.read(source));
+        assertTrue(SnapshotCache.load(source, StudentDataset.forStudentSchema()));
+        assertTrue(source.setLastModified(source.lastModified() - 60000));
+
+        assertFalse(SnapshotCache.load(source, StudentDataset.forStudentSchema()));
+    }
+
+    @Test
+    public void corruptSnapshotIsMiss() throws IOException {
+        SnapshotCache.save(source, StudentDataset.read(source));
+        assertTrue(SnapshotCache.load(source, StudentDataset.forStudentSchema()));
+        File[] snapshots = cacheDirectory.listFiles();
+        assertEquals(1, snapshots.length);
+        try (RandomAccessFile file = new RandomAccessFile(snapshots[0], "rw")) {
+            file.setLength(file.length() / 2);
+        }
+
+        assertFalse(SnapshotCache.load(source, StudentDataset.forStudentSchema()));
+    }
+
+    @Test
+    public void saveKeepsMostRecentSnapshots() throws IOException {
+        for (int i = 0; i < SnapshotCache.MAX_SNAPSHOTS + 4; i++) {
+            File file = folder.newFile("students-" + i + ".csv");
+            writeCsv(file, 10);
+            SnapshotCache.save(file, StudentDataset.read(file));
+        }
+        assertEquals(SnapshotCache.MAX_SNAPSHOTS, cacheDirectory.listFiles().length);
+    }
+
+    private static void assertSameValues(StudentDataset expected, StudentDataset actual) {
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+        assertEquals(expected.getColumnCount(), actual.getColumnCount());
+        for (int column = 0; column < expected.getColumnCount(); column++) {
+            assertEquals(expected.getColumnName(column), actual.getColumnName(column));
+            for (int row = 0; row < expected.getRowCount(); row++) {
+                assertEquals("row " + row + ", " + expected.getColumnName(column),
+                        expected.getValue(row, column), actual.getValue(row, column));
+            }
+        }
+    }
+
+    private static void writeCsv(File file, int rows) throws IOException {
+        StringBuilder csv = new StringBuilder(String.join(",", StudentDataset.STUDENT_COLUMNS)).append('\n');
+        for (int i = 0; i < rows; i++) {
+            csv.append(row(i));
+        }
+        Files.write(file.toPath(), csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String row(int i) {
+        String[] grades = {"A", "B", "C", "D", "F"};
+        // Every seventh attendance is blank, every eleventh is not a number
+        String attendance = i % 7 == 0 ? "" : i % 11 == 0 ? "n/a" : String.valueOf(50 + i % 50 + 0.25);
+        return "S" + (1000 + i) + ",First" + i + ",\"Last, " + i + "\",s" + i + "@example.com,"
+                + (i % 2 == 0 ? "Male" : "Female") + "," + (18 + i % 7) + ",Dept" + (i % 4) + ","
+                + attendance + "," + (40 + i % 60) + ",70.5,80,90,5,60,75.25," + grades[i % 5] + ","
+                + (i % 30) + "," + (i % 2 == 0 ? "Yes" : "No") + ",Yes,None,Low," + (i % 10 + 1) + ",7.5\n";
+    }
+}
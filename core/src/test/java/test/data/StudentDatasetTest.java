@@ -0,0 +1,82 @@
+package test.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+import org.junit.Test;
+
+public class StudentDatasetTest {
+
+    @Test
+    public void snapshotIgnoresAppends() {
+        StudentDataset dataset = dataset(2000);
+        StudentDataset snapshot = dataset.snapshot();
+        StudentDataset expected = dataset.copy();
+        for (int row = 0; row < 3000; row++) {
+            // Enough new categories to widen the codes to ints
+            dataset.appendRow(new String[]{"S" + row, "Dept" + row, ""});
+        }
+        assertSameValues(expected, snapshot);
+    }
+
+    @Test
+    public void snapshotIgnoresEditsAndRemovals() {
+        StudentDataset dataset = dataset(2000);
+        StudentDataset snapshot = dataset.snapshot();
+        StudentDataset expected = dataset.copy();
+        BitSet flagged = snapshot.getNumberColumn("Attendance").getFlaggedRows();
+
+        dataset.removeRows(10, 500);
+        dataset.setValue(0, 0, "edited");
+        dataset.setValue(1, 1, "New Department");
+        dataset.setValue(2, 2, "n/a");
+        dataset.setValue(3, 2, "");
+        dataset.appendRow(new String[]{"late", "Dept0", "50"});
+
+        assertSameValues(expected, snapshot);
+        assertEquals(flagged, snapshot.getNumberColumn("Attendance").getFlaggedRows());
+        assertEquals(1511, dataset.getRowCount());
+        assertEquals("edited", dataset.getValue(0, 0));
+    }
+
+    @Test
+    public void laterSnapshotSeesEdits() {
+        StudentDataset dataset = dataset(100);
+        StudentDataset first = dataset.snapshot();
+        dataset.setValue(5, 2, "-1");
+        StudentDataset second = dataset.snapshot();
+        dataset.removeRows(0, 5);
+
+        assertFalse(first.getNumberColumn("Attendance").isFlagged(5));
+        assertTrue(second.getNumberColumn("Attendance").isFlagged(5));
+        assertEquals("-1", second.getValue(5, 2));
+        assertEquals("S5", second.getValue(5, 0));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void snapshotIsReadOnly() {
+        dataset(10).snapshot().setValue(0, 0, "x");
+    }
+
+    private static StudentDataset dataset(int rows) {
+        StudentDataset dataset = new StudentDataset(new String[]{"Student ID", "Department", "Attendance"},
+                new ColumnType[]{ColumnType.TEXT, ColumnType.CATEGORY, ColumnType.NUMBER});
+        for (int row = 0; row < rows; row++) {
+            String attendance = row % 9 == 0 ? "" : row % 13 == 0 ? "absent" : String.valueOf(row % 100);
+            dataset.appendRow(new String[]{"S" + row, "Dept" + row % 7, attendance});
+        }
+        return dataset;
+    }
+
+    private static void assertSameValues(StudentDataset expected, StudentDataset actual) {
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+        for (int column = 0; column < expected.getColumnCount(); column++) {
+            for (int row = 0; row < expected.getRowCount(); row++) {
+                assertEquals("row " + row + ", " + expected.getColumnName(column),
+                        expected.getValue(row, column), actual.getValue(row, column));
+            }
+        }
+    }
+}
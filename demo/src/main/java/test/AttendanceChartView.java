@@ -0,0 +1,247 @@
+package test;
+
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.JTabbedPane;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+import java.awt.BorderLayout;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import org.jfree.chart.ChartMouseEvent;
+import org.jfree.chart.ChartMouseListener;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.entity.CategoryItemEntity;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.data.Range;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.xy.XYSeriesCollection;
+import test.analysis.DensityGrid;
+import test.analysis.DensitySource;
+import test.analysis.DistributionSummary;
+import test.chart.ChartBackend;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * JFreeChart {@link ChartBackend}: a long-lived panel showing the attendance bar chart and, on
+ * further tabs, the attendance distribution of each grade and the density of students by
+ * attendance and score. The charts and their datasets are created
+ * once and updated in place, and each update is applied with dataset notifications off, so a whole
+ * refresh or animation frame costs one redraw however many series change.
+ * <p>
+ * Animations are driven by elapsed time: every frame, at most one per {@link #FRAME_MILLIS}, shows
+ * the values eased from where they started to their targets over {@link #ANIMATION_MILLIS}. Missed
+ * frames are skipped rather than queued, and new values that arrive mid-animation become its target.
+ * <p>
+ * The density chart never holds a point per student. It asks its {@link DensitySource} for a grid
+ * over the range in view with a cell per {@link #CELL_PIXELS} pixels, and asks again once zooming,
+ * panning or resizing has paused for {@link #REBIN_MILLIS}, so zooming in brings back detail. The
+ * grid is binned on a background thread, one at a time: a request made meanwhile is binned when the
+ * running one ends, which drops its now outdated grid. While the tab is hidden nothing is binned
+ * until it is shown again.
+ */
+class AttendanceChartView extends JPanel implements ChartBackend {
+
+    static final int FRAME_MILLIS = 16;
+    static final int ANIMATION_MILLIS = 1000;
+    static final int CELL_PIXELS = 3;
+    static final int MIN_CELLS = 100;
+    static final int REBIN_MILLIS = 150;
+
+    private final DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+    private final JFreeChart chart = AttendanceCharts.createBarChart(dataset);
+    private final ChartPanel chartPanel = new ChartPanel(chart);
+    private final XYSeriesCollection histogramDataset = new XYSeriesCollection();
+    private final JFreeChart histogramChart = AttendanceCharts.createHistogramChart(histogramDataset);
+    private final JFreeChart densityChart = AttendanceCharts.createDensityChart();
+    private final ChartPanel densityPanel = new ChartPanel(densityChart);
+    private final Timer animationTimer = new Timer(FRAME_MILLIS, e -> showFrame());
+    private final Timer rebinTimer = new Timer(REBIN_MILLIS, e -> rebin());
+    private final JTabbedPane tabs = new JTabbedPane();
+    private final Map<String, Double> startValues = new HashMap<>();
+    private Map<String, Double> targetValues = new HashMap<>();
+    private long animationStart;
+    private DensitySource densitySource;
+    private SwingWorker<DensityGrid, Void> rebinWorker;
+    private boolean densityStale;
+
+    AttendanceChartView() {
+        super(new BorderLayout());
+        tabs.addTab("Averages", chartPanel);
+        tabs.addTab("Distribution", new ChartPanel(histogramChart));
+        tabs.addTab("Scatter", densityPanel);
+        tabs.addChangeListener(e -> {
+            if (densityStale && tabs.getSelectedComponent() == densityPanel) {
+                rebin();
+            }
+        });
+        add(tabs, BorderLayout.CENTER);
+        animationTimer.setCoalesce(true);
+
+        rebinTimer.setRepeats(false);
+        XYPlot densityPlot = densityChart.getXYPlot();
+        densityPlot.getDomainAxis().addChangeListener(e -> rebinTimer.restart());
+        densityPlot.getRangeAxis().addChangeListener(e -> rebinTimer.restart());
+        densityPanel.setMouseWheelEnabled(true);
+        densityPanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                rebinTimer.restart();
+            }
+        });
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return this;
+    }
+
+    /**
+     * Shows the given averages, or makes them the target of a running animation.
+     */
+    @Override
+    public void setValues(Map<String, Double> values) {
+        targetValues = new HashMap<>(values);
+        if (!animationTimer.isRunning()) {
+            apply(targetValues);
+        }
+    }
+
+    /**
+     * Shows the histograms and correlation of {@code distribution} on the distribution tab.
+     */
+    @Override
+    public void setDistribution(DistributionSummary distribution) {
+        histogramChart.setNotify(false);
+        try {
+            AttendanceCharts.setDistribution(histogramChart, histogramDataset, distribution);
+        } finally {
+            histogramChart.setNotify(true);
+        }
+    }
+
+    /**
+     * Bins the density chart's range in view from {@code source}, in the background and once the
+     * tab is shown, and again as the view changes.
+     */
+    @Override
+    public void setDensitySource(DensitySource source) {
+        densitySource = source;
+        rebin();
+    }
+
+    private void rebin() {
+        rebinTimer.stop();
+        if (densitySource == null) {
+            return;
+        }
+        densityStale = true;
+        if (tabs.getSelectedComponent() != densityPanel || rebinWorker != null) {
+            // Binned when the tab is shown or the running pass ends
+            return;
+        }
+        densityStale = false;
+        DensitySource source = densitySource;
+        XYPlot plot = densityChart.getXYPlot();
+        Range attendance = plot.getDomainAxis().getRange();
+        Range score = plot.getRangeAxis().getRange();
+        // The panel is a little larger than the plot area, so this errs toward finer cells
+        int columns = Math.max(MIN_CELLS, densityPanel.getWidth() / CELL_PIXELS);
+        int rows = Math.max(MIN_CELLS, densityPanel.getHeight() / CELL_PIXELS);
+        SwingWorker<DensityGrid, Void> worker = new SwingWorker<DensityGrid, Void>() {
+            @Override
+            protected DensityGrid doInBackground() {
+                try (Timing timing = Metrics.start("Bin Density")) {
+                    DensityGrid grid = source.getGrid(attendance.getLowerBound(), attendance.getUpperBound(),
+                            score.getLowerBound(), score.getUpperBound(), columns, rows);
+                    timing.rows(grid.getTotal());
+                    return grid;
+                }
+            }
+
+            @Override
+            protected void done() {
+                rebinWorker = null;
+                if (densityStale) {
+                    rebin();
+                    return;
+                }
+                DensityGrid grid;
+                try {
+                    grid = get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    // Without a score column there is nothing to plot
+                    grid = null;
+                }
+                AttendanceCharts.setDensity(densityChart, grid);
+            }
+        };
+        rebinWorker = worker;
+        worker.execute();
+    }
+
+    @Override
+    public void addGradeSelectionListener(Consumer<String> listener) {
+        chartPanel.addChartMouseListener(new ChartMouseListener() {
+            @Override
+            public void chartMouseClicked(ChartMouseEvent event) {
+                // Each grade is its own series, so the clicked bar's row key is the grade
+                if (event.getEntity() instanceof CategoryItemEntity) {
+                    listener.accept(String.valueOf(((CategoryItemEntity) event.getEntity()).getRowKey()));
+                }
+            }
+
+            @Override
+            public void chartMouseMoved(ChartMouseEvent event) {
+            }
+        });
+    }
+
+    /**
+     * Grows every bar from zero to the given averages.
+     */
+    @Override
+    public void animate(Map<String, Double> values) {
+        startValues.clear();
+        for (String grade : values.keySet()) {
+            startValues.put(grade, 0.0);
+        }
+        targetValues = new HashMap<>(values);
+        animationStart = System.nanoTime();
+        apply(startValues);
+        animationTimer.restart();
+    }
+
+    private void showFrame() {
+        double t = Math.min(1.0, (System.nanoTime() - animationStart) / (ANIMATION_MILLIS * 1e6));
+        double eased = 1 - Math.pow(1 - t, 3);
+        Map<String, Double> frame = new HashMap<>();
+        for (Map.Entry<String, Double> entry : targetValues.entrySet()) {
+            double start = startValues.getOrDefault(entry.getKey(), 0.0);
+            frame.put(entry.getKey(), start + (entry.getValue() - start) * eased);
+        }
+        apply(frame);
+        if (t >= 1.0) {
+            animationTimer.stop();
+        }
+    }
+
+    private void apply(Map<String, Double> values) {
+        dataset.setNotify(false);
+        try {
+            AttendanceCharts.setValues(dataset, values);
+        } finally {
+            // Turning notification back on fires one change event, which redraws the chart once
+            dataset.setNotify(true);
+        }
+    }
+}
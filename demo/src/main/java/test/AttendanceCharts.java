@@ -0,0 +1,303 @@
+package test;
+
+import java.awt.Color;
+import java.awt.Paint;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.LegendItem;
+import org.jfree.chart.LegendItemCollection;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.plot.CategoryPlot;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.category.BarRenderer;
+import org.jfree.chart.renderer.category.LineAndShapeRenderer;
+import org.jfree.chart.renderer.xy.XYLineAndShapeRenderer;
+import org.jfree.chart.title.TextTitle;
+import org.jfree.data.Range;
+import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+import test.analysis.AttendanceDistribution;
+import test.analysis.CohortComparison;
+import test.analysis.Correlation;
+import test.analysis.DensityGrid;
+import test.analysis.DistributionAggregator;
+import test.analysis.DistributionSummary;
+import test.analysis.GradeAggregator;
+import test.analysis.Histogram;
+
+/**
+ * Builds the "Average Attendance (%) by Grade" bar chart, both for the window and for PNG export,
+ * the attendance distribution chart, the attendance vs. score density chart and the chart of each
+ * grade's attendance across terms. Each grade is a series, and its color follows the grade rather
+ * than the series index, so series can be added and removed in place.
+ */
+final class AttendanceCharts {
+
+    static final String CATEGORY = "Attendance";
+
+    private static final int MIN_DENSITY_ALPHA = 60;
+
+    private static final Map<String, Color> GRADE_COLORS = new HashMap<>();
+
+    static {
+        GRADE_COLORS.put("A", Color.BLUE);
+        GRADE_COLORS.put("B", Color.GREEN);
+        GRADE_COLORS.put("C", Color.YELLOW);
+        GRADE_COLORS.put("D", Color.RED);
+        GRADE_COLORS.put("F", Color.MAGENTA);
+    }
+
+    private AttendanceCharts() {
+    }
+
+    static JFreeChart createBarChart(Map<String, Double> attendanceAverages) {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        setValues(dataset, attendanceAverages);
+        return createBarChart(dataset);
+    }
+
+    /**
+     * Creates the chart over {@code dataset}, which keeps driving it after later changes.
+     */
+    static JFreeChart createBarChart(DefaultCategoryDataset dataset) {
+        JFreeChart chart = ChartFactory.createBarChart(
+                "Average Attendance (%) by Grade",
+                "Grade",
+                "Average Attendance (%)",
+                dataset,
+                PlotOrientation.VERTICAL,
+                true,
+                true,
+                false
+        );
+
+        CategoryPlot plot = chart.getCategoryPlot();
+        plot.setRenderer(new BarRenderer() {
+            @Override
+            public Paint lookupSeriesPaint(int series) {
+                // Default to gray if grade not found
+                return gradeColor(dataset.getRowKey(series));
+            }
+        });
+        plot.getRangeAxis().setRange(0.0, 100.0);
+        return chart;
+    }
+
+    /**
+     * Makes the dataset hold one series per grade with the given values, updating existing series in
+     * place and removing grades that are no longer present.
+     */
+    static void setValues(DefaultCategoryDataset dataset, Map<String, Double> values) {
+        List<Comparable<?>> stale = new ArrayList<>();
+        for (Object grade : dataset.getRowKeys()) {
+            if (!values.containsKey(grade)) {
+                stale.add((Comparable<?>) grade);
+            }
+        }
+        for (Comparable<?> grade : stale) {
+            dataset.removeRow(grade);
+        }
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            Number current = dataset.getRowIndex(entry.getKey()) >= 0 ? dataset.getValue(entry.getKey(), CATEGORY) : null;
+            if (current == null || current.doubleValue() != entry.getValue()) {
+                dataset.setValue(entry.getValue(), entry.getKey(), CATEGORY);
+            }
+        }
+    }
+
+    /**
+     * Creates a chart of the share of each grade's students per attendance bin over
+     * {@code dataset}, which keeps driving it after later changes.
+     */
+    static JFreeChart createHistogramChart(XYSeriesCollection dataset) {
+        JFreeChart chart = ChartFactory.createXYLineChart(
+                "Attendance Distribution by Grade",
+                "Attendance (%)",
+                "Students (%)",
+                dataset,
+                PlotOrientation.VERTICAL,
+                true,
+                true,
+                false
+        );
+
+        XYPlot plot = chart.getXYPlot();
+        plot.setRenderer(new XYLineAndShapeRenderer(true, false) {
+            @Override
+            public Paint lookupSeriesPaint(int series) {
+                return gradeColor(dataset.getSeriesKey(series));
+            }
+        });
+        plot.getDomainAxis().setRange(0.0, 100.0);
+        chart.addSubtitle(new TextTitle(""));
+        return chart;
+    }
+
+    /**
+     * Replaces the histogram series of {@code chart}'s dataset and its correlation subtitle with those
+     * of {@code distribution}. The caller batches the changes by turning off chart notification.
+     */
+    static void setDistribution(JFreeChart chart, XYSeriesCollection dataset, DistributionSummary distribution) {
+        for (int i = dataset.getSeriesCount() - 1; i >= 0; i--) {
+            if (!distribution.getGrades().containsKey(String.valueOf(dataset.getSeriesKey(i)))) {
+                dataset.removeSeries(i);
+            }
+        }
+        for (Map.Entry<String, AttendanceDistribution> entry : distribution.getGrades().entrySet()) {
+            int index = dataset.indexOf(entry.getKey());
+            XYSeries series = index >= 0 ? dataset.getSeries(index) : new XYSeries(entry.getKey(), true, false);
+            Histogram histogram = entry.getValue().getHistogram();
+            double total = Math.max(1, histogram.getTotal());
+            for (int bin = 0; bin < histogram.getBinCount(); bin++) {
+                double center = histogram.getBinStart(bin) + histogram.getBinWidth() / 2;
+                series.addOrUpdate(center, histogram.getCount(bin) * 100.0 / total);
+            }
+            if (index < 0) {
+                dataset.addSeries(series);
+            }
+        }
+        Correlation correlation = distribution.getCorrelation();
+        TextTitle subtitle = null;
+        for (int i = 0; i < chart.getSubtitleCount(); i++) {
+            if (chart.getSubtitle(i) instanceof TextTitle) {
+                subtitle = (TextTitle) chart.getSubtitle(i);
+            }
+        }
+        subtitle.setText(String.format("Attendance vs. %s: Pearson r = %.3f, Spearman rho = %.3f",
+                DistributionAggregator.SCORE_COLUMN, correlation.getPearson(), correlation.getSpearman()));
+    }
+
+    /**
+     * Creates an empty chart of attendance against score drawn by a {@link DensityPlot}. Both axes
+     * fall back to the percent range when auto-ranged, since the plot has no datasets to range over.
+     */
+    static JFreeChart createDensityChart() {
+        NumberAxis attendanceAxis = new NumberAxis(GradeAggregator.ATTENDANCE_COLUMN);
+        NumberAxis scoreAxis = new NumberAxis(DistributionAggregator.SCORE_COLUMN);
+        for (NumberAxis axis : new NumberAxis[] {attendanceAxis, scoreAxis}) {
+            axis.setDefaultAutoRange(new Range(DensityGrid.MIN_PERCENT, DensityGrid.MAX_PERCENT));
+            axis.setLowerMargin(0.0);
+            axis.setUpperMargin(0.0);
+            axis.setAutoRangeIncludesZero(false);
+        }
+        DensityPlot plot = new DensityPlot(attendanceAxis, scoreAxis);
+        plot.setDomainPannable(true);
+        plot.setRangePannable(true);
+
+        LegendItemCollection legend = new LegendItemCollection();
+        for (String grade : GradeAggregator.GRADES) {
+            legend.add(new LegendItem(grade, gradeColor(grade)));
+        }
+        legend.add(new LegendItem("Other", gradeColor(null)));
+        plot.setFixedLegendItems(legend);
+
+        JFreeChart chart = new JFreeChart("Attendance vs. Score by Grade", JFreeChart.DEFAULT_TITLE_FONT, plot, true);
+        chart.addSubtitle(new TextTitle(""));
+        return chart;
+    }
+
+    /**
+     * Shows {@code grid} on a chart made by {@link #createDensityChart()}, with its size in the
+     * subtitle, or clears the chart if the grid is null. Each cell is the mix of its grades' colors,
+     * and more opaque the more students it holds, on a log scale so sparse cells stay visible.
+     */
+    static void setDensity(JFreeChart chart, DensityGrid grid) {
+        DensityPlot plot = (DensityPlot) chart.getPlot();
+        TextTitle subtitle = (TextTitle) chart.getSubtitle(chart.getSubtitleCount() - 1);
+        if (grid == null) {
+            subtitle.setText("");
+            plot.setGrid(null, null);
+            return;
+        }
+
+        Color[] colors = new Color[GradeAggregator.GRADES.length + 1];
+        for (int grade = 0; grade < colors.length; grade++) {
+            colors[grade] = gradeColor(grade < GradeAggregator.GRADES.length ? GradeAggregator.GRADES[grade] : null);
+        }
+        int columns = grid.getColumnCount();
+        int rows = grid.getRowCount();
+        double logMax = Math.log1p(Math.max(1, grid.getMaxCount()));
+        BufferedImage image = new BufferedImage(columns, rows, BufferedImage.TYPE_INT_ARGB);
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int count = grid.getCount(column, row);
+                if (count == 0) {
+                    continue;
+                }
+                double red = 0;
+                double green = 0;
+                double blue = 0;
+                for (int grade = 0; grade < colors.length; grade++) {
+                    int gradeCount = grid.getCount(grade < GradeAggregator.GRADES.length ? grade : -1, column, row);
+                    red += colors[grade].getRed() * gradeCount;
+                    green += colors[grade].getGreen() * gradeCount;
+                    blue += colors[grade].getBlue() * gradeCount;
+                }
+                int alpha = MIN_DENSITY_ALPHA + (int) ((255 - MIN_DENSITY_ALPHA) * Math.log1p(count) / logMax);
+                int argb = alpha << 24 | (int) (red / count) << 16 | (int) (green / count) << 8 | (int) (blue / count);
+                // Image rows run top down, grid rows bottom up
+                image.setRGB(column, rows - 1 - row, argb);
+            }
+        }
+        subtitle.setText(String.format("%,d students in view; cells of %.2f x %.2f, fullest holds %,d",
+                grid.getTotal(),
+                (grid.getMaxAttendance() - grid.getMinAttendance()) / columns,
+                (grid.getMaxScore() - grid.getMinScore()) / rows,
+                grid.getMaxCount()));
+        plot.setGrid(grid, image);
+    }
+
+    /**
+     * Creates a chart of each grade's average attendance across terms over {@code dataset}, which
+     * keeps driving it after later changes.
+     */
+    static JFreeChart createTrendChart(DefaultCategoryDataset dataset) {
+        JFreeChart chart = ChartFactory.createLineChart(
+                "Average Attendance (%) by Term",
+                "Term",
+                "Average Attendance (%)",
+                dataset,
+                PlotOrientation.VERTICAL,
+                true,
+                true,
+                false
+        );
+
+        CategoryPlot plot = chart.getCategoryPlot();
+        plot.setRenderer(new LineAndShapeRenderer(true, true) {
+            @Override
+            public Paint lookupSeriesPaint(int series) {
+                return gradeColor(dataset.getRowKey(series));
+            }
+        });
+        NumberAxis rangeAxis = (NumberAxis) plot.getRangeAxis();
+        rangeAxis.setAutoRangeIncludesZero(false);
+        return chart;
+    }
+
+    /**
+     * Makes {@code dataset} hold one series per grade with its average in each term of
+     * {@code comparison}. Terms without an average for a grade leave a gap in its line.
+     */
+    static void setTrends(DefaultCategoryDataset dataset, CohortComparison comparison) {
+        dataset.clear();
+        for (String grade : GradeAggregator.GRADES) {
+            for (int term = 0; term < comparison.getTerms().size(); term++) {
+                double average = comparison.getAverage(term, grade);
+                dataset.addValue(Double.isNaN(average) ? null : average, grade, comparison.getTerms().get(term));
+            }
+        }
+    }
+
+    private static Color gradeColor(Comparable<?> grade) {
+        // Default to gray if grade not found
+        return GRADE_COLORS.getOrDefault(String.valueOf(grade), Color.GRAY);
+    }
+}
@@ -0,0 +1,179 @@
+package test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.jfree.chart.ChartUtils;
+import test.analysis.GradeAggregator;
+import test.analysis.GradeReport;
+import test.analysis.GradeSummary;
+import test.analysis.ValidationAccumulator;
+import test.data.SnapshotCache;
+import test.data.StudentDataset;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * Headless entry point that runs the grade-vs-attendance analysis without opening a window.
+ * <pre>
+ * java -cp grade-attendance-analysis.jar test.BatchReport [-o DIR] [--chart] [--threads N] [--metrics FILE] FILE.csv...
+ * </pre>
+ * For every input file a directory named after the file is created under the output directory
+ * (default: the current directory) holding {@code GradevsAttendance.csv} and {@code summary.txt}
+ * with the averages and validation counts,
+ * and {@code chart.png} if {@code --chart} is given. With {@code --metrics}, the load, analysis
+ * and report timings of all files are written to FILE as JSON, as by the window's diagnostics panel.
+ * <p>
+ * Files are processed in parallel, and only the Grade and Attendance columns are decoded, or read
+ * from the file's {@link SnapshotCache} snapshot if the window has loaded it before. AWT is
+ * only touched when charts are requested. A file that fails is reported on stderr and the run
+ * continues; the exit status is 1 if any file failed and 2 on invalid arguments.
+ */
+public final class BatchReport {
+
+    private static final int CHART_WIDTH = 800;
+    private static final int CHART_HEIGHT = 400;
+
+    private BatchReport() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        File outputDirectory = new File(".");
+        boolean writeChart = false;
+        File metricsFile = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<File> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-o") && i + 1 < args.length) {
+                outputDirectory = new File(args[++i]);
+            } else if (arg.equals("--chart")) {
+                writeChart = true;
+            } else if (arg.equals("--threads") && i + 1 < args.length) {
+                try {
+                    threads = Integer.parseInt(args[++i]);
+                } catch (NumberFormatException e) {
+                    usage("Not a thread count: " + args[i]);
+                    return;
+                }
+            } else if (arg.equals("--metrics") && i + 1 < args.length) {
+                metricsFile = new File(args[++i]);
+            } else if (arg.startsWith("-")) {
+                usage("Unknown option: " + arg);
+                return;
+            } else {
+                inputs.add(new File(arg));
+            }
+        }
+        if (inputs.isEmpty()) {
+            usage("No input files");
+            return;
+        }
+        if (writeChart) {
+            System.setProperty("java.awt.headless", "true");
+        }
+
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+        List<Future<Integer>> results = new ArrayList<>();
+        Set<String> targetNames = new HashSet<>();
+        for (File input : inputs) {
+            // Inputs with the same file name from different directories get numbered report directories
+            String name = baseName(input);
+            for (int n = 2; !targetNames.add(name); n++) {
+                name = baseName(input) + "-" + n;
+            }
+            File target = new File(outputDirectory, name);
+            boolean chart = writeChart;
+            results.add(executor.submit(() -> process(input, target, chart)));
+        }
+        executor.shutdown();
+
+        long rows = 0;
+        int failures = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            try {
+                rows += results.get(i).get();
+            } catch (ExecutionException e) {
+                failures++;
+                System.err.println(inputs.get(i) + ": " + e.getCause());
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Processed %d of %d files, %d rows in %.2f s (%.0f rows/s)%n",
+                inputs.size() - failures, inputs.size(), rows, seconds, rows / Math.max(seconds, 1e-9));
+        if (metricsFile != null) {
+            try {
+                Metrics.writeJson(metricsFile);
+            } catch (IOException e) {
+                System.err.println(metricsFile + ": " + e);
+                failures++;
+            }
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Analyzes one file and writes its report into {@code target}.
+     *
+     * @return the number of data rows read
+     */
+    static int process(File input, File target, boolean writeChart) throws IOException {
+        StudentDataset dataset = StudentDataset.forStudentSchema(GradeAggregator.GRADE_COLUMN, GradeAggregator.ATTENDANCE_COLUMN);
+        try (Timing timing = Metrics.start("Load CSV")) {
+            // Files already opened in the window have a snapshot holding these columns
+            if (!SnapshotCache.load(input, dataset)) {
+                StudentDataset.read(input, dataset);
+            }
+            timing.rows(dataset.getRowCount()).bytes(input.length()).errors(dataset.countInvalidCells());
+        }
+        GradeSummary summary;
+        try (Timing timing = Metrics.start("Analyze")) {
+            summary = GradeAggregator.aggregate(dataset);
+            timing.rows(dataset.getRowCount()).errors(summary.getInvalidRows());
+        }
+        Map<String, Double> averages = summary.getAverages();
+
+        try (Timing timing = Metrics.start("Write Report")) {
+            Files.createDirectories(target.toPath());
+            try (Writer writer = Files.newBufferedWriter(new File(target, "GradevsAttendance.csv").toPath(), StandardCharsets.UTF_8)) {
+                GradeReport.writeCsv(writer, averages);
+            }
+            try (Writer writer = Files.newBufferedWriter(new File(target, "summary.txt").toPath(), StandardCharsets.UTF_8)) {
+                writer.write(GradeReport.formatSummary(averages));
+                writer.write("Rows: " + dataset.getRowCount() + ", skipped for invalid attendance: " + summary.getInvalidRows() + "\n");
+                writer.write("\n" + GradeReport.formatValidation(ValidationAccumulator.validate(dataset)));
+            }
+            if (writeChart) {
+                ChartUtils.saveChartAsPNG(new File(target, "chart.png"), AttendanceCharts.createBarChart(averages), CHART_WIDTH, CHART_HEIGHT);
+            }
+            timing.rows(averages.size());
+        }
+        return dataset.getRowCount();
+    }
+
+    private static String baseName(File input) {
+        String name = input.getName();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: test.BatchReport [-o DIR] [--chart] [--threads N] [--metrics FILE] FILE.csv...");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,292 @@
+package test;
+
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListModel;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JSplitPane;
+import javax.swing.JTable;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingWorker;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.data.category.DefaultCategoryDataset;
+import test.analysis.CohortComparison;
+import test.analysis.GradeAggregator;
+import test.data.DatasetCatalog;
+import test.data.SnapshotCache;
+import test.data.StudentDataset;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * Non-modal window comparing attendance by grade across terms. Each term is a dataset of a
+ * {@link DatasetCatalog}, loaded from a CSV export or copied from the data shown in the main window.
+ * The table lists every grade's average per term with its change from the term before, and the
+ * chart below draws each grade's trend. Terms are loaded and compared on a background thread.
+ */
+class CohortDialog extends JDialog {
+
+    private final DatasetCatalog catalog;
+    private final Supplier<StudentDataset> currentDataset;
+    private final DefaultListModel<String> termListModel = new DefaultListModel<>();
+    private final JList<String> termList = new JList<>(termListModel);
+    private final ComparisonModel comparisonModel = new ComparisonModel();
+    private final DefaultCategoryDataset trendDataset = new DefaultCategoryDataset();
+    private final JFreeChart trendChart = AttendanceCharts.createTrendChart(trendDataset);
+    private final JLabel statusLabel = new JLabel();
+    private final JButton addFileButton = new JButton("Add File...");
+    private final JButton addCurrentButton = new JButton("Add Current Data");
+    private final JButton removeButton = new JButton("Remove Term");
+
+    /**
+     * @param currentDataset supplies the dataset shown in the main window, or null while none can be
+     *                       added, as while a file is loading
+     */
+    CohortDialog(JFrame owner, DatasetCatalog catalog, Supplier<StudentDataset> currentDataset) {
+        super(owner, "Compare Terms", false);
+        this.catalog = catalog;
+        this.currentDataset = currentDataset;
+        setLayout(new BorderLayout());
+
+        JPanel buttons = new JPanel();
+        buttons.add(addFileButton);
+        buttons.add(addCurrentButton);
+        buttons.add(removeButton);
+        add(buttons, BorderLayout.NORTH);
+
+        termList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JScrollPane termScrollPane = new JScrollPane(termList);
+        termScrollPane.setPreferredSize(new Dimension(160, 0));
+        termScrollPane.setBorder(BorderFactory.createTitledBorder("Terms, oldest first"));
+        add(termScrollPane, BorderLayout.WEST);
+
+        JScrollPane tableScrollPane = new JScrollPane(new JTable(comparisonModel));
+        tableScrollPane.setPreferredSize(new Dimension(700, 130));
+        ChartPanel chartPanel = new ChartPanel(trendChart);
+        chartPanel.setPreferredSize(new Dimension(700, 320));
+        add(new JSplitPane(JSplitPane.VERTICAL_SPLIT, tableScrollPane, chartPanel), BorderLayout.CENTER);
+
+        statusLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        add(statusLabel, BorderLayout.SOUTH);
+
+        addFileButton.addActionListener(e -> addFile());
+        addCurrentButton.addActionListener(e -> addCurrent());
+        removeButton.addActionListener(e -> removeTerm());
+
+        for (String term : catalog.getNames()) {
+            termListModel.addElement(term);
+        }
+        if (catalog.size() > 0) {
+            compare(null, null, null);
+        } else {
+            statusLabel.setText("Add two or more terms to compare them.");
+        }
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    private void addFile() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV Files", "csv"));
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = fileChooser.getSelectedFile();
+        String name = askTermName(file.getName().replaceFirst("\\.[^.]*$", ""));
+        if (name != null) {
+            compare(name, file, null);
+        }
+    }
+
+    private void addCurrent() {
+        StudentDataset dataset = currentDataset.get();
+        if (dataset == null || dataset.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(this, "Load a CSV file in the main window first.");
+            return;
+        }
+        String name = askTermName("Current");
+        if (name != null) {
+            // The catalog takes over what it holds, while the main window keeps editing its data
+            compare(name, null, dataset.copy());
+        }
+    }
+
+    private void removeTerm() {
+        String term = termList.getSelectedValue();
+        if (term == null) {
+            JOptionPane.showMessageDialog(this, "Select a term to remove.");
+            return;
+        }
+        catalog.remove(term);
+        termListModel.removeElement(term);
+        compare(null, null, null);
+    }
+
+    private String askTermName(String suggested) {
+        String name = (String) JOptionPane.showInputDialog(this, "Term name:", "Add Term",
+                JOptionPane.PLAIN_MESSAGE, null, null, suggested);
+        if (name == null || name.trim().isEmpty()) {
+            return null;
+        }
+        name = name.trim();
+        if (catalog.get(name) != null) {
+            JOptionPane.showMessageDialog(this, "A term named " + name + " is already loaded.");
+            return null;
+        }
+        return name;
+    }
+
+    /**
+     * Adds the term {@code name}, read from {@code file} or else given as {@code dataset}, unless the
+     * name is null, and compares all terms in the background.
+     */
+    private void compare(String name, File file, StudentDataset dataset) {
+        setBusy(true);
+        statusLabel.setText(file != null ? "Loading " + file.getName() + "..." : "Comparing terms...");
+        SwingWorker<CohortComparison, Void> worker = new SwingWorker<CohortComparison, Void>() {
+            @Override
+            protected CohortComparison doInBackground() throws IOException {
+                if (name != null) {
+                    catalog.add(name, file != null ? loadTerm(file) : dataset);
+                }
+                try (Timing timing = Metrics.start("Compare Terms")) {
+                    CohortComparison comparison = CohortComparison.compute(catalog);
+                    long rows = 0;
+                    for (StudentDataset term : catalog.getDatasets().values()) {
+                        rows += term.getRowCount();
+                    }
+                    timing.rows(rows);
+                    return comparison;
+                }
+            }
+
+            @Override
+            protected void done() {
+                setBusy(false);
+                if (name != null && catalog.get(name) != null && !termListModel.contains(name)) {
+                    termListModel.addElement(name);
+                }
+                try {
+                    show(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    statusLabel.setText("");
+                    JOptionPane.showMessageDialog(CohortDialog.this, "Error comparing terms: "
+                            + (cause.getMessage() != null ? cause.getMessage() : cause.toString()));
+                }
+            }
+        };
+        worker.execute();
+    }
+
+    private static StudentDataset loadTerm(File file) throws IOException {
+        try (Timing timing = Metrics.start("Load Term")) {
+            StudentDataset dataset = StudentDataset.forStudentSchema();
+            if (!SnapshotCache.load(file, dataset)) {
+                StudentDataset.read(file, dataset);
+                SnapshotCache.save(file, dataset);
+            }
+            timing.rows(dataset.getRowCount()).bytes(file.length());
+            return dataset;
+        }
+    }
+
+    private void show(CohortComparison comparison) {
+        comparisonModel.setComparison(comparison);
+        trendChart.setNotify(false);
+        AttendanceCharts.setTrends(trendDataset, comparison);
+        trendChart.setNotify(true);
+        long students = 0;
+        for (int term = 0; term < comparison.getTerms().size(); term++) {
+            for (String grade : GradeAggregator.GRADES) {
+                students += comparison.getCount(term, grade);
+            }
+        }
+        statusLabel.setText(String.format("%d terms, %,d students with valid attendance", comparison.getTerms().size(), students));
+    }
+
+    private void setBusy(boolean busy) {
+        addFileButton.setEnabled(!busy);
+        addCurrentButton.setEnabled(!busy);
+        removeButton.setEnabled(!busy);
+    }
+
+    /**
+     * One row per grade: its average attendance in each term, and from the second term on the
+     * change from the term before.
+     */
+    private static final class ComparisonModel extends AbstractTableModel {
+
+        private CohortComparison comparison;
+
+        void setComparison(CohortComparison comparison) {
+            this.comparison = comparison;
+            fireTableStructureChanged();
+        }
+
+        private int termCount() {
+            return comparison != null ? comparison.getTerms().size() : 0;
+        }
+
+        @Override
+        public int getRowCount() {
+            return comparison != null ? GradeAggregator.GRADES.length : 0;
+        }
+
+        @Override
+        public int getColumnCount() {
+            // Grade, the first term's average, then an average and a change per later term
+            return termCount() == 0 ? 1 : 2 * termCount();
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            if (column == 0) {
+                return "Grade";
+            }
+            String term = comparison.getTerms().get(column / 2);
+            return isDelta(column) ? "\u0394 " + term : term;
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            String grade = GradeAggregator.GRADES[rowIndex];
+            if (columnIndex == 0) {
+                return grade;
+            }
+            int term = columnIndex / 2;
+            if (isDelta(columnIndex)) {
+                double delta = comparison.getDelta(term, grade);
+                return Double.isNaN(delta) ? "" : String.format("%+.2f", delta);
+            }
+            double average = comparison.getAverage(term, grade);
+            return Double.isNaN(average) ? "" : String.format("%.2f", average);
+        }
+
+        /**
+         * Term {@code t} has its average in column {@code 2t}, or 1 for the first term, and its
+         * change in column {@code 2t + 1}.
+         */
+        private static boolean isDelta(int column) {
+            return column > 1 && column % 2 == 1;
+        }
+    }
+}
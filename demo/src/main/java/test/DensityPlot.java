@@ -0,0 +1,62 @@
+package test;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.XYPlot;
+import test.analysis.DensityGrid;
+
+/**
+ * An {@link XYPlot} without datasets that draws a {@link DensityGrid} as one image behind its
+ * gridlines, stretched from the grid's range to the axes. Drawing costs the same however many
+ * students the grid counts, which is what lets the scatter view hold millions of rows.
+ */
+class DensityPlot extends XYPlot {
+
+    private DensityGrid grid;
+    private BufferedImage image;
+
+    DensityPlot(ValueAxis domainAxis, ValueAxis rangeAxis) {
+        super(null, domainAxis, rangeAxis, null);
+    }
+
+    DensityGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Shows {@code grid}, which may be null to clear the plot, and redraws.
+     */
+    void setGrid(DensityGrid grid, BufferedImage image) {
+        this.grid = grid;
+        this.image = image;
+        fireChangeEvent();
+    }
+
+    @Override
+    public void drawBackground(Graphics2D g2, Rectangle2D area) {
+        super.drawBackground(g2, area);
+        if (grid == null || image == null) {
+            return;
+        }
+        double left = getDomainAxis().valueToJava2D(grid.getMinAttendance(), area, getDomainAxisEdge());
+        double right = getDomainAxis().valueToJava2D(grid.getMaxAttendance(), area, getDomainAxisEdge());
+        double top = getRangeAxis().valueToJava2D(grid.getMaxScore(), area, getRangeAxisEdge());
+        double bottom = getRangeAxis().valueToJava2D(grid.getMinScore(), area, getRangeAxisEdge());
+
+        Shape savedClip = g2.getClip();
+        Object savedInterpolation = g2.getRenderingHint(RenderingHints.KEY_INTERPOLATION);
+        g2.clip(area);
+        // Keep cells crisp rather than blurring counts into their neighbours
+        g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR);
+        g2.drawImage(image, (int) Math.round(left), (int) Math.round(top),
+                (int) Math.round(right - left), (int) Math.round(bottom - top), null);
+        if (savedInterpolation != null) {
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, savedInterpolation);
+        }
+        g2.setClip(savedClip);
+    }
+}
@@ -0,0 +1,160 @@
+package test;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFileChooser;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import test.diagnostics.EdtMonitor;
+import test.diagnostics.Metrics;
+import test.diagnostics.OperationStats;
+
+/**
+ * Non-modal window listing the {@link Metrics} of every operation run so far, refreshed every
+ * {@link #REFRESH_MILLIS} while it is open, with the event dispatch thread's stalls below. The
+ * numbers can be reset and exported as the same JSON file that headless runs write.
+ */
+class DiagnosticsDialog extends JDialog {
+
+    static final int REFRESH_MILLIS = 1000;
+    private static final String[] COLUMNS = {"Operation", "Runs", "Total (ms)", "Max (ms)", "Last (ms)",
+            "Rows", "Rows/s", "MB/s", "Errors", "Allocated (MB)", "On EDT (ms)"};
+
+    private final StatsModel statsModel = new StatsModel();
+    private final JLabel edtLabel = new JLabel();
+    private final Timer refreshTimer = new Timer(REFRESH_MILLIS, e -> refresh());
+
+    DiagnosticsDialog(JFrame owner) {
+        super(owner, "Diagnostics", false);
+        setLayout(new BorderLayout());
+
+        JTable table = new JTable(statsModel);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(900, 220));
+        add(scrollPane, BorderLayout.CENTER);
+
+        JPanel bottom = new JPanel(new BorderLayout());
+        edtLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        bottom.add(edtLabel, BorderLayout.CENTER);
+        JPanel buttons = new JPanel();
+        JButton resetButton = new JButton("Reset");
+        JButton exportButton = new JButton("Export JSON...");
+        buttons.add(resetButton);
+        buttons.add(exportButton);
+        bottom.add(buttons, BorderLayout.EAST);
+        add(bottom, BorderLayout.SOUTH);
+
+        resetButton.addActionListener(e -> {
+            Metrics.reset();
+            refresh();
+        });
+        exportButton.addActionListener(e -> exportJson());
+
+        refresh();
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    @Override
+    public void setVisible(boolean visible) {
+        // Only poll the metrics while the window is shown
+        if (visible) {
+            refresh();
+            refreshTimer.start();
+        } else {
+            refreshTimer.stop();
+        }
+        super.setVisible(visible);
+    }
+
+    private void refresh() {
+        statsModel.setStats(Metrics.snapshot());
+        edtLabel.setText(String.format("Event dispatch thread: %d stalls over %d ms, %.0f ms blocked, longest %.0f ms%s",
+                EdtMonitor.getStallCount(), EdtMonitor.STALL_MILLIS, EdtMonitor.getBlockedNanos() / 1e6,
+                EdtMonitor.getMaxStallNanos() / 1e6, Metrics.isJfrAvailable() ? "; JFR events enabled" : ""));
+    }
+
+    private void exportJson() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setSelectedFile(new File("metrics.json"));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            Metrics.writeJson(fileChooser.getSelectedFile());
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error saving file: " + e.getMessage());
+        }
+    }
+
+    private static final class StatsModel extends AbstractTableModel {
+
+        private List<OperationStats> stats = new ArrayList<>();
+
+        void setStats(List<OperationStats> stats) {
+            this.stats = stats;
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return stats.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int rowIndex, int columnIndex) {
+            OperationStats row = stats.get(rowIndex);
+            switch (columnIndex) {
+                case 0:
+                    return row.getName();
+                case 1:
+                    return row.getCount();
+                case 2:
+                    return millis(row.getTotalNanos());
+                case 3:
+                    return millis(row.getMaxNanos());
+                case 4:
+                    return millis(row.getLastNanos());
+                case 5:
+                    return row.getRows();
+                case 6:
+                    return String.format("%.0f", row.getRowsPerSecond());
+                case 7:
+                    return String.format("%.1f", row.getBytesPerSecond() / (1 << 20));
+                case 8:
+                    return row.getErrors();
+                case 9:
+                    return String.format("%.1f", row.getAllocatedBytes() / (double) (1 << 20));
+                default:
+                    return millis(row.getEventThreadNanos());
+            }
+        }
+
+        private static String millis(long nanos) {
+            return String.format("%.1f", nanos / 1e6);
+        }
+    }
+}
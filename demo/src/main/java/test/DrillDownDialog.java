@@ -0,0 +1,98 @@
+package test;
+
+import javax.swing.BorderFactory;
+import javax.swing.JComboBox;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.table.TableModel;
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import test.data.DatasetIndex;
+import test.data.RowSubsetTableModel;
+
+/**
+ * Modal window listing the students that match a choice of category values, such as one grade in
+ * one department. Every category column with at most {@link #MAX_CHOICES} values gets a filter,
+ * and each change is answered from the {@link DatasetIndex} posting lists by intersecting bitmaps,
+ * so the list updates without scanning the rows.
+ */
+class DrillDownDialog extends JDialog {
+
+    static final int MAX_CHOICES = 50;
+    private static final String ANY = "(any)";
+
+    private final TableModel source;
+    private final DatasetIndex index;
+    private final Map<String, JComboBox<String>> filters = new LinkedHashMap<>();
+    private final JTable table = new JTable();
+    private final JLabel countLabel = new JLabel();
+
+    DrillDownDialog(JFrame owner, TableModel source, DatasetIndex index) {
+        super(owner, "Drill Down", true);
+        this.source = source;
+        this.index = index;
+        setLayout(new BorderLayout());
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        for (String column : index.getIndexedColumns()) {
+            List<String> values = index.getValues(column);
+            if (values.size() > MAX_CHOICES) {
+                continue;
+            }
+            JComboBox<String> filter = new JComboBox<>();
+            filter.addItem(ANY);
+            values.stream().sorted().forEach(filter::addItem);
+            filter.addActionListener(e -> refresh());
+            filters.put(column, filter);
+            filterPanel.add(new JLabel(column + ":"));
+            filterPanel.add(filter);
+        }
+        add(filterPanel, BorderLayout.NORTH);
+
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(900, 400));
+        add(scrollPane, BorderLayout.CENTER);
+        countLabel.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        add(countLabel, BorderLayout.SOUTH);
+
+        refresh();
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    /**
+     * Sets the filter of {@code column} to {@code value}, if the column has a filter.
+     */
+    void select(String column, String value) {
+        JComboBox<String> filter = filters.get(column);
+        if (filter != null) {
+            filter.setSelectedItem(value);
+        }
+    }
+
+    private void refresh() {
+        Map<String, String> criteria = new LinkedHashMap<>();
+        for (Map.Entry<String, JComboBox<String>> entry : filters.entrySet()) {
+            Object value = entry.getValue().getSelectedItem();
+            if (value != null && !ANY.equals(value)) {
+                criteria.put(entry.getKey(), (String) value);
+            }
+        }
+        BitSet rows = index.select(criteria);
+        int[] columns = new int[source.getColumnCount()];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = i;
+        }
+        table.setModel(new RowSubsetTableModel(source, rows.stream().toArray(), columns));
+        countLabel.setText(rows.cardinality() + " of " + index.getIndexedRows() + " students");
+    }
+}
@@ -0,0 +1,49 @@
+package test;
+
+import javax.swing.SwingWorker;
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+import test.data.DatasetExporter;
+import test.data.ExportFormat;
+import test.data.StudentDataset;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * Runs a {@link DatasetExporter} export off the event dispatch thread and reports its progress.
+ * Cancelling the worker abandons the export and leaves any existing target file untouched.
+ */
+class ExportWorker extends SwingWorker<Integer, Void> {
+
+    private final StudentDataset dataset;
+    private final BitSet excludedRows;
+    private final File file;
+    private final ExportFormat format;
+
+    ExportWorker(StudentDataset dataset, BitSet excludedRows, File file, ExportFormat format) {
+        this.dataset = dataset;
+        this.excludedRows = excludedRows;
+        this.file = file;
+        this.format = format;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    @Override
+    protected Integer doInBackground() throws IOException {
+        try (Timing timing = Metrics.start("Export")) {
+            int rows = DatasetExporter.export(dataset, excludedRows, file, format, percent -> {
+                if (isCancelled()) {
+                    throw new CancellationException();
+                }
+                setProgress(Math.min(percent, 100));
+            });
+            timing.rows(rows).bytes(file.length());
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package test;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import test.analysis.DensityGrid;
+import test.analysis.DistributionAccumulator;
+import test.analysis.DistributionSummary;
+import test.analysis.GradeAccumulator;
+import test.analysis.GradeSummary;
+import test.analysis.ValidationAccumulator;
+import test.analysis.ValidationSummary;
+import test.data.CsvParser;
+import test.data.CsvRecord;
+import test.data.FileTableModel;
+import test.data.StudentFields;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * Indexes a CSV file for a {@link FileTableModel} without blocking the event dispatch thread, so a
+ * file too large to load can be browsed while it is still being scanned. The same pass accumulates
+ * attendance by grade, which is the worker's result, its distribution, a fixed density grid of
+ * attendance against score and the invalid fields, and flags the rows whose attendance is missing,
+ * not a number or negative. Rows and progress are published in chunks as in
+ * {@link test.data.CsvLoadWorker}. The fields holding grade, attendance and score are the ones the
+ * model resolves from the file's header.
+ */
+class FileIndexWorker extends SwingWorker<GradeSummary, Void> {
+
+    private static final int CHUNK_SIZE = 1 << 16;
+    private static final int DENSITY_CELLS = 200;
+
+    private final FileTableModel tableModel;
+    private final GradeAccumulator accumulator = new GradeAccumulator();
+    private final DistributionAccumulator distribution = new DistributionAccumulator();
+    private ValidationAccumulator validation = new ValidationAccumulator();
+    private final DensityGrid density = new DensityGrid(DensityGrid.MIN_PERCENT, DensityGrid.MAX_PERCENT,
+            DensityGrid.MIN_PERCENT, DensityGrid.MAX_PERCENT, DENSITY_CELLS, DENSITY_CELLS);
+    private final BitSet flaggedRows = new BitSet();
+    private long totalBytes;
+    private boolean headerSkipped;
+    private int gradeField = -1;
+    private int attendanceField = -1;
+    private int scoreField = -1;
+
+    FileIndexWorker(FileTableModel tableModel) {
+        this.tableModel = tableModel;
+    }
+
+    @Override
+    protected GradeSummary doInBackground() throws IOException {
+        File file = tableModel.getFile();
+        totalBytes = Math.max(1, file.length());
+        try (Timing timing = Metrics.start("Index File")) {
+            CsvParser.parse(file, this::handleRecord);
+            timing.rows(tableModel.getIndexedRows()).bytes(file.length()).errors(flaggedRows.cardinality());
+        }
+        publishRows(tableModel.getIndexedRows());
+        if (!isCancelled()) {
+            setProgress(100);
+        }
+        return accumulator.toSummary();
+    }
+
+    private boolean handleRecord(CsvRecord record) {
+        tableModel.indexRecord(record);
+        if (!headerSkipped) {
+            headerSkipped = true;
+            StudentFields fields = tableModel.getFields();
+            gradeField = sourceField(fields.gradeIndex());
+            attendanceField = sourceField(fields.attendanceIndex());
+            scoreField = sourceField(fields.scoreIndex());
+            validation = new ValidationAccumulator(attendanceField, scoreField, gradeField);
+            return true;
+        }
+        double attendance = attendanceField >= 0 ? record.getDouble(attendanceField) : Double.NaN;
+        double score = scoreField >= 0 ? record.getDouble(scoreField) : Double.NaN;
+        String grade = gradeField >= 0 ? record.getString(gradeField) : "";
+        accumulator.add(grade, attendance);
+        distribution.add(grade, attendance, score);
+        density.add(attendance, score, DensityGrid.gradeIndex(grade));
+        validation.add(record, grade);
+        int rowCount = tableModel.getIndexedRows();
+        if (Double.isNaN(attendance) || attendance < 0) {
+            flaggedRows.set(rowCount - 1);
+        }
+        if (rowCount % CHUNK_SIZE == 0) {
+            publishRows(rowCount);
+            setProgress((int) Math.min(99, record.getEndOffset() * 100 / totalBytes));
+        }
+        return !isCancelled();
+    }
+
+    private int sourceField(int column) {
+        return column >= 0 ? tableModel.getSourceField(column) : -1;
+    }
+
+    /**
+     * Returns the rows whose attendance is missing, not a number or negative. Only complete once the
+     * worker is done.
+     */
+    BitSet getFlaggedRows() {
+        return flaggedRows;
+    }
+
+    /**
+     * Returns the attendance distributions and correlation of the file. Only complete once the worker
+     * is done.
+     */
+    DistributionSummary getDistribution() {
+        return distribution.toSummary();
+    }
+
+    /**
+     * Returns the density of the file's students over the whole percent range; the file is read only
+     * once, so zooming cannot re-bin it. Only complete once the worker is done.
+     */
+    DensityGrid getDensity() {
+        return density;
+    }
+
+    /**
+     * Returns the counts and samples of invalid fields in the file. Only complete once the worker is
+     * done.
+     */
+    ValidationSummary getValidation() {
+        return validation.toSummary();
+    }
+
+    private void publishRows(int count) {
+        SwingUtilities.invokeLater(() -> {
+            if (!isCancelled()) {
+                tableModel.publishRows(count);
+            }
+        });
+    }
+}
@@ -1,31 +1,99 @@
 package test;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileFilter;
 import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.event.TableModelEvent;
+import javax.swing.table.AbstractTableModel;
 import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.io.BufferedReader;
+import java.awt.event.ActionEvent;
+import java.awt.event.KeyEvent;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import org.jfree.chart.ChartFactory;
-import org.jfree.chart.ChartPanel;
-import org.jfree.chart.JFreeChart;
-import org.jfree.chart.plot.CategoryPlot;
-import org.jfree.chart.plot.PlotOrientation;
-import org.jfree.chart.renderer.category.BarRenderer;
-import org.jfree.data.category.DefaultCategoryDataset;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import test.analysis.Aggregate;
+import test.analysis.DensityGrid;
+import test.analysis.DistributionAggregator;
+import test.analysis.DistributionSummary;
+import test.analysis.GradeAggregator;
+import test.analysis.LiveGradeAggregator;
+import test.analysis.ValidationAccumulator;
+import test.analysis.ValidationSummary;
+import test.analysis.GradeReport;
+import test.analysis.GradeSummary;
+import test.analysis.GroupBy;
+import test.analysis.GroupByResult;
+import test.chart.ChartBackend;
+import test.data.ColumnType;
+import test.data.CsvLoadWorker;
+import test.data.DatasetCatalog;
+import test.data.DatasetDialogs;
+import test.data.DatasetIndex;
+import test.data.DatasetRowSorter;
+import test.data.DatasetTableModel;
+import test.data.ExportFormat;
+import test.data.FileTableModel;
+import test.data.NumberColumn;
+import test.data.SchemaMapping;
+import test.data.StudentDataset;
+import test.data.StudentFields;
+import test.diagnostics.EdtMonitor;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+import test.server.ReportServer;
 
 public class MP2MP3 extends JFrame {
 
+    private static final String NO_COLUMN = "(none)";
+    // Larger files are browsed from disk instead of being loaded into memory
+    private static final long BROWSE_THRESHOLD = 256L << 20;
+    private static final Color FLAGGED_BACKGROUND = new Color(255, 220, 220);
+    private static final int REFRESH_MILLIS = 250;
+
     private JTable dataTable;
-    private DefaultTableModel tableModel;
+    private DatasetTableModel tableModel;
+    private DatasetRowSorter rowSorter;
     private JPanel chartPanel;
+    private ChartBackend chartView;
     private Map<String, Double> attendanceAverages;
+    private SwingWorker<?, ?> fileWorker;
+    private FileTableModel fileModel;
+    private GradeSummary browseSummary;
+    private BitSet browseFlagged;
+    private DistributionSummary browseDistribution;
+    private ValidationSummary browseValidation;
+    private DensityGrid browseDensity;
+    private DistributionSummary distribution;
+    private SwingWorker<DistributionSummary, Void> distributionWorker;
+    private boolean distributionStale;
+    private JCheckBox highlightBox;
+    private LiveGradeAggregator liveAggregator;
+    private Timer refreshTimer;
+    private JCheckBox tailBox;
+    private DiagnosticsDialog diagnosticsDialog;
+    private final DatasetCatalog terms = new DatasetCatalog();
+    private CohortDialog cohortDialog;
+    private TailWorker tailWorker;
+    private File loadedFile;
+    private long loadedOffset;
+    private DatasetIndex datasetIndex;
+    private JCheckBox serveBox;
+    private ReportServer reportServer;
+    private boolean servedStale;
 
     public MP2MP3() {
         setTitle("Grade vs. Attendance Analysis");
@@ -34,15 +102,52 @@ public class MP2MP3 extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        String[] columnNames = {"Student ID", "First Name", "Last Name", "Email", "Gender", "Age", "Department", "Attendance (%)", "Midterm Score", "Final Score", "Assignment Avg", "Quizzes Avg", "Participation Score", "Projects Score", "Total Score", "Grade", "Study Hours", "Extracurricular", "Internet Access", "Parent Education", "Family Income", "Stress Level", "Sleep Hours"};
-        tableModel = new DefaultTableModel(columnNames, 0);
+        tableModel = new DatasetTableModel(StudentDataset.forStudentSchema());
         dataTable = new JTable(tableModel);
+        // Sort on the typed columns off the event dispatch thread rather than on displayed strings
+        rowSorter = new DatasetRowSorter(tableModel);
+        dataTable.setRowSorter(rowSorter);
 
-        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer();
-        centerRenderer.setHorizontalAlignment(SwingConstants.CENTER);
-        for (int i = 0; i < dataTable.getColumnCount(); i++) {
-            dataTable.getColumnModel().getColumn(i).setCellRenderer(centerRenderer);
-        }
+        // Keep the grade totals current as rows change and refresh a shown analysis and the served
+        // dataset at most every REFRESH_MILLIS, so a steady stream of appended rows does not redraw
+        // the chart or take a snapshot per chunk
+        liveAggregator = new LiveGradeAggregator(tableModel);
+        refreshTimer = new Timer(REFRESH_MILLIS, e -> {
+            refreshAnalysis();
+            refreshServedDataset();
+        });
+        refreshTimer.setRepeats(false);
+        tableModel.addTableModelListener(e -> {
+            if (e.getFirstRow() == TableModelEvent.HEADER_ROW) {
+                // The table rebuilds its columns after this listener runs
+                SwingUtilities.invokeLater(this::centerColumns);
+            }
+            if (e.getType() != TableModelEvent.INSERT) {
+                // Appended rows are indexed on the next lookup; edits and deletions need a rebuild
+                datasetIndex = null;
+            }
+            if (reportServer != null && reportServer.getDataset() != null) {
+                servedStale = true;
+                if (!refreshTimer.isRunning()) {
+                    refreshTimer.start();
+                }
+            }
+        });
+        liveAggregator.addChangeListener(e -> {
+            if (attendanceAverages != null && !refreshTimer.isRunning()) {
+                refreshTimer.start();
+            }
+        });
+
+        dataTable.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_DELETE, 0), "deleteRows");
+        dataTable.getActionMap().put("deleteRows", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                deleteSelectedRows();
+            }
+        });
+
+        centerColumns();
 
         JScrollPane scrollPane = new JScrollPane(dataTable);
         add(scrollPane, BorderLayout.CENTER);
@@ -51,16 +156,40 @@ public class MP2MP3 extends JFrame {
         JButton loadButton = new JButton("Load CSV");
         JButton analyzeButton = new JButton("Analyze");
         JButton downloadButton = new JButton("Download CSV");
+        JButton exportButton = new JButton("Export Data");
         JButton summaryButton = new JButton("Summary");
         JButton filterButton = new JButton("Missing Attendance");
         JButton animateButton = new JButton("Animate");
+        JButton groupByButton = new JButton("Group By");
+        JButton diagnosticsButton = new JButton("Diagnostics");
+        JButton findButton = new JButton("Find Student");
+        JButton drillDownButton = new JButton("Drill Down");
+        JButton compareButton = new JButton("Compare Terms");
+        JButton schemaButton = new JButton("Columns");
+        highlightBox = new JCheckBox("Highlight Missing");
+        tailBox = new JCheckBox("Live Tail");
+        serveBox = new JCheckBox("Serve JSON");
+        JTextField filterField = new JTextField(10);
+        filterField.setToolTipText("Show rows whose text contains this; press Enter to apply");
 
         buttonPanel.add(loadButton);
         buttonPanel.add(analyzeButton);
         buttonPanel.add(downloadButton);
+        buttonPanel.add(exportButton);
         buttonPanel.add(summaryButton);
         buttonPanel.add(filterButton);
         buttonPanel.add(animateButton);
+        buttonPanel.add(groupByButton);
+        buttonPanel.add(findButton);
+        buttonPanel.add(drillDownButton);
+        buttonPanel.add(compareButton);
+        buttonPanel.add(schemaButton);
+        buttonPanel.add(diagnosticsButton);
+        buttonPanel.add(highlightBox);
+        buttonPanel.add(tailBox);
+        buttonPanel.add(serveBox);
+        buttonPanel.add(new JLabel("Filter:"));
+        buttonPanel.add(filterField);
         add(buttonPanel, BorderLayout.NORTH);
 
         chartPanel = new JPanel();
@@ -69,38 +198,358 @@ public class MP2MP3 extends JFrame {
         loadButton.addActionListener(e -> loadCSV());
         analyzeButton.addActionListener(e -> analyzeData());
         downloadButton.addActionListener(e -> downloadCSV());
+        exportButton.addActionListener(e -> exportData());
         summaryButton.addActionListener(e -> showSummary());
         filterButton.addActionListener(e -> filterMissingAttendance());
         animateButton.addActionListener(e -> animateChart());
+        groupByButton.addActionListener(e -> showGroupBy());
+        diagnosticsButton.addActionListener(e -> showDiagnostics());
+        findButton.addActionListener(e -> findStudent());
+        drillDownButton.addActionListener(e -> showDrillDown(null, null));
+        compareButton.addActionListener(e -> showCohorts());
+        schemaButton.addActionListener(e -> editSchema());
+        highlightBox.addActionListener(e -> dataTable.repaint());
+        tailBox.addActionListener(e -> toggleTail());
+        serveBox.addActionListener(e -> toggleServer());
+        filterField.addActionListener(e -> filterRows(filterField.getText()));
+    }
+
+    private void centerColumns() {
+        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value, boolean isSelected, boolean hasFocus, int row, int column) {
+                super.getTableCellRendererComponent(table, value, isSelected, hasFocus, row, column);
+                if (!isSelected) {
+                    setBackground(isHighlighted(table.convertRowIndexToModel(row)) ? FLAGGED_BACKGROUND : table.getBackground());
+                }
+                return this;
+            }
+        };
+        centerRenderer.setHorizontalAlignment(SwingConstants.CENTER);
+        for (int i = 0; i < dataTable.getColumnCount(); i++) {
+            dataTable.getColumnModel().getColumn(i).setCellRenderer(centerRenderer);
+        }
     }
 
     private void loadCSV() {
+        if (isLoading()) {
+            return;
+        }
         JFileChooser fileChooser = new JFileChooser();
         FileNameExtensionFilter filter = new FileNameExtensionFilter("CSV Files", "csv");
         fileChooser.setFileFilter(filter);
+        fileChooser.setFileSelectionMode(JFileChooser.FILES_AND_DIRECTORIES);
+        fileChooser.setMultiSelectionEnabled(true);
         int returnValue = fileChooser.showOpenDialog(this);
         if (returnValue == JFileChooser.APPROVE_OPTION) {
-            File selectedFile = fileChooser.getSelectedFile();
-            try (BufferedReader reader = new BufferedReader(new FileReader(selectedFile))) {
-                tableModel.setRowCount(0);
-                String line;
-                boolean isHeader = true;
-                while ((line = reader.readLine()) != null) {
-                    if (isHeader) {
-                        isHeader = false;
-                        continue;
-                    }
-                    String[] values = line.split(",");
-                    tableModel.addRow(values);
-                }
+            stopTail();
+            loadedFile = null;
+            List<File> files;
+            try {
+                files = listCsvFiles(fileChooser.getSelectedFiles());
             } catch (IOException e) {
-                JOptionPane.showMessageDialog(this, "Error loading file: " + e.getMessage());
+                JOptionPane.showMessageDialog(this, "Error reading folder: " + e.getMessage());
+                return;
+            }
+            if (files.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "No CSV files were selected.");
+                return;
+            }
+            if (files.size() > 1) {
+                loadFiles(files);
+                return;
+            }
+            File selectedFile = files.get(0);
+            if (selectedFile.length() > BROWSE_THRESHOLD) {
+                browseCSV(selectedFile);
+                return;
+            }
+            showDataset();
+            StudentDataset dataset = StudentDataset.forStudentSchema();
+            tableModel.setDataset(dataset);
+            tableModel.setEditable(false);
+            attendanceAverages = null;
+            distribution = null;
+
+            CsvLoadWorker worker = new CsvLoadWorker(selectedFile, dataset, tableModel);
+            serveDataset(null);
+            runWithProgress(worker, "Loading " + selectedFile.getName(), this::getLoadedNote, () -> {
+                finishLoad(worker);
+                serveDataset(tableModel.getDataset());
+            });
+        }
+    }
+
+    private static List<File> listCsvFiles(File[] selected) throws IOException {
+        // Folders contribute the CSV files anywhere below them, in path order
+        List<File> files = new ArrayList<>();
+        for (File file : selected) {
+            if (file.isDirectory()) {
+                try (Stream<Path> paths = Files.walk(file.toPath())) {
+                    paths.filter(path -> Files.isRegularFile(path) && path.toString().toLowerCase().endsWith(".csv"))
+                            .sorted()
+                            .forEach(path -> files.add(path.toFile()));
+                }
+            } else {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    private void loadFiles(List<File> files) {
+        showDataset();
+        tableModel.setDataset(StudentDataset.forStudentSchema());
+        tableModel.setEditable(false);
+        attendanceAverages = null;
+        distribution = null;
+
+        MultiFileLoadWorker worker = new MultiFileLoadWorker(files);
+        serveDataset(null);
+        runWithProgress(worker, "Loading " + files.size() + " files", () -> "", () -> {
+            finishLoadFiles(worker);
+            serveDataset(tableModel.getDataset());
+        });
+    }
+
+    private void finishLoadFiles(MultiFileLoadWorker worker) {
+        tableModel.setEditable(true);
+        if (worker.isCancelled()) {
+            JOptionPane.showMessageDialog(this, "Loading cancelled.");
+            return;
+        }
+        try {
+            StudentDataset merged = worker.get();
+            if (merged != null) {
+                tableModel.setDataset(merged);
+                datasetIndex = worker.getIndex();
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            JOptionPane.showMessageDialog(this, "Error loading files: " + e.getCause().getMessage());
+            return;
+        }
+        if (!worker.getErrors().isEmpty()) {
+            // One report for the whole batch; the files that loaded stay loaded
+            DefaultTableModel report = new DefaultTableModel(new Object[]{"File", "Result"}, 0);
+            for (Map.Entry<File, Integer> entry : worker.getRowCounts().entrySet()) {
+                report.addRow(new Object[]{entry.getKey().getName(), entry.getValue() + " rows loaded"});
+            }
+            for (Map.Entry<File, String> entry : worker.getErrors().entrySet()) {
+                report.addRow(new Object[]{entry.getKey().getName(), "Error: " + entry.getValue()});
+            }
+            JTable reportTable = new JTable(report);
+            JScrollPane reportPane = new JScrollPane(reportTable);
+            reportPane.setPreferredSize(new Dimension(500, 200));
+            JOptionPane.showMessageDialog(this, reportPane,
+                    worker.getErrors().size() + " of " + (worker.getErrors().size() + worker.getRowCounts().size()) + " files could not be loaded",
+                    JOptionPane.WARNING_MESSAGE);
         }
     }
 
+    private void browseCSV(File file) {
+        // Only an index of row offsets is kept; the table decodes the rows it shows from the file
+        tableModel.setDataset(StudentDataset.forStudentSchema());
+        tableModel.setEditable(false);
+        attendanceAverages = null;
+        distribution = null;
+        browseSummary = null;
+        browseFlagged = null;
+        browseDistribution = null;
+        browseValidation = null;
+        browseDensity = null;
+        fileModel = new FileTableModel(file, SchemaMapping.getCurrent());
+        // The sorter only understands the dataset's model, so browsed files stay in file order
+        dataTable.setRowSorter(null);
+        dataTable.setModel(fileModel);
+        centerColumns();
+
+        FileIndexWorker worker = new FileIndexWorker(fileModel);
+        // Browsed files are not in memory, so there is nothing to serve
+        serveDataset(null);
+        runWithProgress(worker, "Loading " + file.getName(), this::getLoadedNote, () -> finishBrowse(worker));
+    }
+
+    private void showDataset() {
+        if (fileModel != null) {
+            fileModel = null;
+            browseSummary = null;
+            browseFlagged = null;
+            browseDistribution = null;
+            browseValidation = null;
+            browseDensity = null;
+            dataTable.setModel(tableModel);
+            dataTable.setRowSorter(rowSorter);
+            centerColumns();
+        }
+    }
+
+    private String getLoadedNote() {
+        return dataTable.getModel().getRowCount() + " rows loaded";
+    }
+
+    private void runWithProgress(SwingWorker<?, ?> worker, String title, Supplier<String> note, Runnable onDone) {
+        // Run file work on a worker thread and show progress with the option to cancel
+        fileWorker = worker;
+        DatasetDialogs.runWithProgress(this, worker, title, note, onDone);
+    }
+
+    private void finishLoad(CsvLoadWorker worker) {
+        tableModel.setEditable(true);
+        if (worker.isCancelled()) {
+            tableModel.setDataset(StudentDataset.forStudentSchema());
+            JOptionPane.showMessageDialog(this, "Loading cancelled.");
+            return;
+        }
+        try {
+            worker.get();
+            loadedFile = worker.getFile();
+            loadedOffset = worker.getEndOffset();
+            datasetIndex = worker.getIndex();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            JOptionPane.showMessageDialog(this, "Error loading file: " + e.getCause().getMessage());
+        }
+    }
+
+    private void toggleTail() {
+        if (!tailBox.isSelected()) {
+            stopTail();
+            return;
+        }
+        if (isLoading() || isBrowsing()) {
+            tailBox.setSelected(false);
+            return;
+        }
+        if (loadedFile == null || tableModel.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(this, "Please load a single CSV file to follow first.");
+            tailBox.setSelected(false);
+            return;
+        }
+        // Rows appended to the file from now on are added to the table and the live analysis
+        TailWorker worker = new TailWorker(loadedFile, loadedOffset, tableModel);
+        worker.addPropertyChangeListener(e -> {
+            if ("state".equals(e.getPropertyName()) && e.getNewValue() == SwingWorker.StateValue.DONE) {
+                finishTail(worker);
+            }
+        });
+        tailWorker = worker;
+        worker.execute();
+    }
+
+    private void toggleServer() {
+        if (!serveBox.isSelected()) {
+            if (reportServer != null) {
+                reportServer.close();
+                reportServer = null;
+            }
+            return;
+        }
+        int port = Integer.getInteger("report.port", ReportServer.DEFAULT_PORT);
+        try {
+            reportServer = new ReportServer(port);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Could not serve on port " + port + ": " + e.getMessage());
+            serveBox.setSelected(false);
+            return;
+        }
+        boolean loading = fileWorker != null && !fileWorker.isDone();
+        serveDataset(fileModel == null && !loading ? tableModel.getDataset() : null);
+        reportServer.start();
+        JOptionPane.showMessageDialog(this, "Serving JSON at http://localhost:" + reportServer.getPort()
+                + "/api/summary\nAlso /api/columns, /api/distribution, /api/validation and /api/groupby?keys=...&metric=...");
+    }
+
+    /**
+     * Serves a snapshot of {@code dataset}, which request threads can read while the table is
+     * appended to or edited; changes are served by {@link #refreshServedDataset()}.
+     */
+    private void serveDataset(StudentDataset dataset) {
+        servedStale = false;
+        if (reportServer != null) {
+            reportServer.setDataset(dataset != null ? dataset.snapshot() : null);
+        }
+    }
+
+    private void refreshServedDataset() {
+        // A dataset withdrawn while loading is served again when the load finishes
+        if (servedStale && reportServer != null && reportServer.getDataset() != null) {
+            serveDataset(tableModel.getDataset());
+        }
+    }
+
+    private void stopTail() {
+        if (tailWorker != null) {
+            tailWorker.cancel(true);
+            loadedOffset = tailWorker.getOffset();
+            tailWorker = null;
+        }
+        tailBox.setSelected(false);
+    }
+
+    private void finishTail(TailWorker worker) {
+        if (worker != tailWorker) {
+            // Stopped by stopTail, which already kept its offset
+            return;
+        }
+        tailWorker = null;
+        tailBox.setSelected(false);
+        loadedOffset = worker.getOffset();
+        try {
+            worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            loadedFile = null;
+            JOptionPane.showMessageDialog(this, "Stopped following file: " + e.getCause().getMessage());
+        }
+    }
+
+    private void finishBrowse(FileIndexWorker worker) {
+        if (worker.isCancelled()) {
+            showDataset();
+            tableModel.setEditable(true);
+            JOptionPane.showMessageDialog(this, "Loading cancelled.");
+            return;
+        }
+        try {
+            browseSummary = worker.get();
+            browseFlagged = worker.getFlaggedRows();
+            browseDistribution = worker.getDistribution();
+            browseValidation = worker.getValidation();
+            browseDensity = worker.getDensity();
+            dataTable.repaint();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            JOptionPane.showMessageDialog(this, "Error loading file: " + e.getCause().getMessage());
+        }
+    }
+
+    private boolean isLoading() {
+        if (fileWorker != null && !fileWorker.isDone()) {
+            JOptionPane.showMessageDialog(this, "Please wait for the current file operation to finish.");
+            return true;
+        }
+        return false;
+    }
+
+    private boolean isBrowsing() {
+        if (fileModel != null) {
+            JOptionPane.showMessageDialog(this, "This file is too large to load and is only browsed from disk.");
+            return true;
+        }
+        return false;
+    }
+
     private void analyzeData() {
-        if (tableModel.getRowCount() == 0) {
+        if (isLoading()) {
+            return;
+        }
+        if (dataTable.getModel().getRowCount() == 0) {
             JOptionPane.showMessageDialog(this, "No data to analyze. Please load a CSV file first.");
             return;
         }
@@ -108,96 +557,138 @@ public class MP2MP3 extends JFrame {
         // Process the data and create the chart
         attendanceAverages = processCSV();
         createChart(attendanceAverages);
+        if (!attendanceAverages.isEmpty()) {
+            updateDistribution();
+        }
 
         // Set the window to fullscreen
         setExtendedState(JFrame.MAXIMIZED_BOTH);
     }
 
     private Map<String, Double> processCSV() {
-        Map<String, GradeData> grades = new HashMap<>();
-        grades.put("A", new GradeData());
-        grades.put("B", new GradeData());
-        grades.put("C", new GradeData());
-        grades.put("D", new GradeData());
-        grades.put("F", new GradeData());
-
-        int attendanceIndex = -1;
-        int gradeIndex = -1;
-        for (int i = 0; i < tableModel.getColumnCount(); i++) {
-            String columnName = tableModel.getColumnName(i);
-            if (columnName.equalsIgnoreCase("Attendance (%)")) {
-                attendanceIndex = i;
-            } else if (columnName.equalsIgnoreCase("Grade")) {
-                gradeIndex = i;
-            }
+        try (Timing timing = Metrics.start("Analyze")) {
+            timing.rows(dataTable.getModel().getRowCount());
+            return processCSV(timing);
         }
+    }
 
-        if (attendanceIndex == -1 || gradeIndex == -1) {
+    private Map<String, Double> processCSV(Timing timing) {
+        if (fileModel != null) {
+            // Browsed files are summarized while they are indexed
+            if (browseSummary == null) {
+                JOptionPane.showMessageDialog(this, "The file could not be read completely.");
+                return new HashMap<>();
+            }
+            timing.errors(browseSummary.getInvalidRows());
+            return new HashMap<>(browseSummary.getAverages());
+        }
+        if (!liveAggregator.isAvailable()) {
             JOptionPane.showMessageDialog(this, "Invalid CSV format. Missing required columns.");
             return new HashMap<>();
         }
 
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            String grade = (String) tableModel.getValueAt(i, gradeIndex);
-            try {
-                double attendance = Double.parseDouble((String) tableModel.getValueAt(i, attendanceIndex));
-                if (grades.containsKey(grade)) {
-                    grades.get(grade).sum += attendance;
-                    grades.get(grade).count++;
+        // Invalid rows are counted as they change and reported by the Summary dialog, not per row here
+        timing.errors(liveAggregator.getInvalidRows());
+        return new HashMap<>(liveAggregator.getAverages());
+    }
+
+    private void refreshAnalysis() {
+        if (attendanceAverages != null && liveAggregator.isAvailable()) {
+            attendanceAverages = new HashMap<>(liveAggregator.getAverages());
+            createChart(attendanceAverages);
+            updateDistribution();
+        }
+    }
+
+    private void updateDistribution() {
+        if (fileModel != null) {
+            distribution = browseDistribution;
+            if (distribution != null) {
+                chartView.setDistribution(distribution);
+            }
+            if (browseDensity != null) {
+                chartView.setDensitySource(browseDensity.asSource());
+            }
+            return;
+        }
+        // The density chart bins in the background, so it gets a snapshot that later changes leave alone
+        StudentDataset dataset = tableModel.getDataset().snapshot();
+        chartView.setDensitySource(DensityGrid.sourceOf(dataset));
+        if (distributionWorker != null && !distributionWorker.isDone()) {
+            // Coalesce refreshes that arrive while a pass is running into one more pass
+            distributionStale = true;
+            return;
+        }
+        // Histograms and quantile sketches cannot be updated by deltas, so recompute them in one
+        // parallel pass off the event dispatch thread, over the same snapshot
+        SwingWorker<DistributionSummary, Void> worker = new SwingWorker<DistributionSummary, Void>() {
+            @Override
+            protected DistributionSummary doInBackground() {
+                try (Timing timing = Metrics.start("Distribution")) {
+                    timing.rows(dataset.getRowCount());
+                    return DistributionAggregator.aggregate(dataset);
                 }
-            } catch (NumberFormatException e) {
-                System.err.println("Invalid attendance value on row " + (i + 1));
             }
+
+            @Override
+            protected void done() {
+                if (distributionWorker != this) {
+                    return;
+                }
+                if (distributionStale) {
+                    distributionStale = false;
+                    updateDistribution();
+                    return;
+                }
+                try {
+                    distribution = get();
+                    chartView.setDistribution(distribution);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    // Missing columns are already reported by the averages
+                    distribution = null;
+                }
+            }
+        };
+        distributionWorker = worker;
+        worker.execute();
+    }
+
+    private void deleteSelectedRows() {
+        if (!tableModel.isEditable()) {
+            return;
         }
+        int[] selected = dataTable.getSelectedRows();
+        for (int i = 0; i < selected.length; i++) {
+            selected[i] = dataTable.convertRowIndexToModel(selected[i]);
+        }
+        Arrays.sort(selected);
 
-        Map<String, Double> attendanceAverages = new HashMap<>();
-        for (Map.Entry<String, GradeData> entry : grades.entrySet()) {
-            GradeData data = entry.getValue();
-            attendanceAverages.put(entry.getKey(), data.count > 0 ? data.sum / data.count : 0.0);
+        // Remove contiguous runs from the bottom up so earlier indices stay valid
+        int end = selected.length - 1;
+        while (end >= 0) {
+            int start = end;
+            while (start > 0 && selected[start - 1] == selected[start] - 1) {
+                start--;
+            }
+            tableModel.removeRows(selected[start], selected[end]);
+            end = start - 1;
         }
-        return attendanceAverages;
     }
 
     private void createChart(Map<String, Double> attendanceAverages) {
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        for (Map.Entry<String, Double> entry : attendanceAverages.entrySet()) {
-            dataset.addValue(entry.getValue(), entry.getKey(), "Attendance"); // Use grade as the series key
-        }
-    
-        JFreeChart chart = ChartFactory.createBarChart(
-                "Average Attendance (%) by Grade",
-                "Grade",
-                "Average Attendance (%)",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true,
-                true,
-                false
-        );
-    
-        CategoryPlot plot = chart.getCategoryPlot();
-        BarRenderer renderer = (BarRenderer) plot.getRenderer();
-    
-        // Assign different colors for each grade dynamically
-        Map<String, Color> gradeColors = new HashMap<>();
-        gradeColors.put("A", Color.BLUE);
-        gradeColors.put("B", Color.GREEN);
-        gradeColors.put("C", Color.YELLOW);
-        gradeColors.put("D", Color.RED);
-        gradeColors.put("F", Color.MAGENTA);
-    
-        for (int i = 0; i < dataset.getRowCount(); i++) {
-            String grade = (String) dataset.getRowKey(i);
-            renderer.setSeriesPaint(i, gradeColors.getOrDefault(grade, Color.GRAY)); // Default to gray if grade not found
-        }
-    
-        plot.getRangeAxis().setRange(0.0, 100.0);
-    
-        ChartPanel newChartPanel = new ChartPanel(chart);
-        chartPanel.removeAll();
-        chartPanel.setLayout(new BorderLayout());
-        chartPanel.add(newChartPanel, BorderLayout.CENTER);
-        chartPanel.validate();
+        try (Timing timing = Metrics.start("Chart")) {
+            if (chartView == null) {
+                chartView = new AttendanceChartView();
+                chartPanel.setLayout(new BorderLayout());
+                chartPanel.add(chartView.getComponent(), BorderLayout.CENTER);
+                chartView.addGradeSelectionListener(grade -> showDrillDown(GradeAggregator.GRADE_COLUMN, grade));
+                chartPanel.validate();
+            }
+            chartView.setValues(attendanceAverages);
+            timing.rows(attendanceAverages.size());
+        }
     }
 
     private void downloadCSV() {
@@ -211,28 +702,81 @@ public class MP2MP3 extends JFrame {
         int returnValue = fileChooser.showSaveDialog(this);
         if (returnValue == JFileChooser.APPROVE_OPTION) {
             File selectedFile = fileChooser.getSelectedFile();
-            try (FileWriter writer = new FileWriter(selectedFile)) {
-                writer.write("Grades,Average Attendance (%)\n");
-                for (Map.Entry<String, Double> entry : attendanceAverages.entrySet()) {
-                    writer.write(entry.getKey() + "," + String.format("%.3f", entry.getValue()) + "\n");
+            try (Timing timing = Metrics.start("Download CSV")) {
+                try (Writer writer = Files.newBufferedWriter(selectedFile.toPath(), StandardCharsets.UTF_8)) {
+                    GradeReport.writeCsv(writer, attendanceAverages);
                 }
-                writer.write("\n\n");
-                writer.write(getSummary());
-                JOptionPane.showMessageDialog(this, "CSV file saved successfully.");
+                timing.rows(attendanceAverages.size()).bytes(selectedFile.length());
             } catch (IOException e) {
                 JOptionPane.showMessageDialog(this, "Error saving file: " + e.getMessage());
+                return;
+            }
+            JOptionPane.showMessageDialog(this, "CSV file saved successfully.");
+        }
+    }
+
+    private void exportData() {
+        if (isLoading() || isBrowsing()) {
+            return;
+        }
+        if (tableModel.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(this, "No data to export. Please load a CSV file first.");
+            return;
+        }
+        JCheckBox cleanBox = new JCheckBox("Leave out rows with missing attendance");
+        export(tableModel.getDataset(), "Students", cleanBox);
+    }
+
+    /**
+     * Asks for a target file and format and exports the dataset in the background. If
+     * {@code cleanBox} is given it is offered in the file chooser, and rows with missing or invalid
+     * attendance are left out when it is selected.
+     */
+    private void export(StudentDataset dataset, String defaultName, JCheckBox cleanBox) {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setAcceptAllFileFilterUsed(false);
+        Map<FileFilter, ExportFormat> formats = new HashMap<>();
+        for (ExportFormat format : ExportFormat.values()) {
+            FileNameExtensionFilter filter = new FileNameExtensionFilter(format + " (*." + format.getExtension() + ")", format.getExtension());
+            formats.put(filter, format);
+            fileChooser.addChoosableFileFilter(filter);
+            if (format == ExportFormat.CSV) {
+                fileChooser.setFileFilter(filter);
             }
         }
+        if (cleanBox != null) {
+            fileChooser.setAccessory(cleanBox);
+        }
+        fileChooser.setSelectedFile(new File(defaultName + ".csv"));
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        ExportFormat format = formats.get(fileChooser.getFileFilter());
+        File file = fileChooser.getSelectedFile();
+        file = new File(file.getParentFile(), format.fileName(file.getName()));
+        // Rows appended or edited meanwhile are left out of the snapshot, and its flags cover
+        // exactly its rows
+        StudentDataset snapshot = dataset.snapshot();
+        NumberColumn attendanceColumn = snapshot.getFields().attendance();
+        BitSet excludedRows = cleanBox != null && cleanBox.isSelected() && attendanceColumn != null
+                ? attendanceColumn.getFlaggedRows() : null;
+        ExportWorker worker = new ExportWorker(snapshot, excludedRows, file, format);
+        runWithProgress(worker, "Exporting " + file.getName(), () -> "", () -> finishExport(worker));
     }
 
-    private String getSummary() {
-        StringBuilder summary = new StringBuilder("Summary:\n");
-        for (Map.Entry<String, Double> entry : attendanceAverages.entrySet()) {
-            summary.append("Students with grade ").append(entry.getKey())
-                    .append(" had an average attendance of ")
-                    .append(String.format("%.3f", entry.getValue())).append("%.\n");
+    private void finishExport(ExportWorker worker) {
+        if (worker.isCancelled()) {
+            JOptionPane.showMessageDialog(this, "Export cancelled.");
+            return;
+        }
+        try {
+            int rows = worker.get();
+            JOptionPane.showMessageDialog(this, rows + " rows exported to " + worker.getFile().getName() + ".");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            JOptionPane.showMessageDialog(this, "Error exporting file: " + e.getCause().getMessage());
         }
-        return summary.toString();
     }
 
     private void showSummary() {
@@ -240,69 +784,141 @@ public class MP2MP3 extends JFrame {
             JOptionPane.showMessageDialog(this, "Please analyze the data first.");
             return;
         }
-        JOptionPane.showMessageDialog(this, getSummary());
+        String summary = GradeReport.formatSummary(attendanceAverages);
+        if (distribution != null) {
+            summary += "\n" + GradeReport.formatDistribution(distribution);
+        }
+        ValidationSummary validation = fileModel != null ? browseValidation : ValidationAccumulator.validate(tableModel.getDataset());
+        if (validation != null) {
+            summary += "\n" + GradeReport.formatValidation(validation);
+        }
+        JTextArea summaryArea = new JTextArea(summary);
+        summaryArea.setEditable(false);
+        summaryArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        JOptionPane.showMessageDialog(this, new JScrollPane(summaryArea), "Summary", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /**
+     * Returns the rows whose attendance is missing, not a number or negative, or null if the data
+     * has no attendance column.
+     */
+    private BitSet getFlaggedRows() {
+        if (fileModel != null) {
+            return browseFlagged;
+        }
+        NumberColumn attendanceColumn = tableModel.getDataset().getFields().attendance();
+        return attendanceColumn != null ? attendanceColumn.getFlaggedRows() : null;
+    }
+
+    private boolean isHighlighted(int row) {
+        if (!highlightBox.isSelected()) {
+            return false;
+        }
+        if (fileModel != null) {
+            return browseFlagged != null && browseFlagged.get(row);
+        }
+        NumberColumn attendanceColumn = tableModel.getDataset().getFields().attendance();
+        return attendanceColumn != null && row < attendanceColumn.size() && attendanceColumn.isFlagged(row);
     }
 
     private void filterMissingAttendance() {
-        if (tableModel.getRowCount() == 0) {
+        if (isLoading()) {
+            return;
+        }
+        AbstractTableModel source = fileModel != null ? fileModel : tableModel;
+        if (source.getRowCount() == 0) {
             JOptionPane.showMessageDialog(this, "No data to filter. Please load a CSV file first.");
             return;
         }
 
-        int attendanceIndex = -1;
-        int studentIdIndex = -1;
-        int gradeIndex = -1;
+        // Rows are flagged while the file loads, so the view is built from the bitmap without parsing cells
+        Timing timing = Metrics.start("Filter Missing Attendance").rows(source.getRowCount());
+        BitSet flagged = getFlaggedRows();
+        timing.errors(flagged != null ? flagged.cardinality() : 0).close();
+        StudentFields fields = fileModel != null ? fileModel.getFields() : tableModel.getDataset().getFields();
+        DatasetDialogs.showMissingAttendance(this, source, fields, flagged);
+    }
 
-        for (int i = 0; i < tableModel.getColumnCount(); i++) {
-            String columnName = tableModel.getColumnName(i);
-            if (columnName.equalsIgnoreCase("Attendance (%)")) {
-                attendanceIndex = i;
-            } else if (columnName.equalsIgnoreCase("Student ID")) {
-                studentIdIndex = i;
-            } else if (columnName.equalsIgnoreCase("Grade")) {
-                gradeIndex = i;
-            }
+    private void showGroupBy() {
+        if (isLoading() || isBrowsing()) {
+            return;
         }
-
-        if (attendanceIndex == -1 || studentIdIndex == -1 || gradeIndex == -1) {
-            JOptionPane.showMessageDialog(this, "Required columns (Attendance (%), Student ID, Grade) not found.");
+        if (tableModel.getRowCount() == 0) {
+            JOptionPane.showMessageDialog(this, "No data to analyze. Please load a CSV file first.");
             return;
         }
 
-        DefaultTableModel missingDataModel = new DefaultTableModel(new String[]{"Student ID", "Grade"}, 0);
-
-        for (int i = 0; i < tableModel.getRowCount(); i++) {
-            Object attendanceValueObj = tableModel.getValueAt(i, attendanceIndex);
-            String attendanceValue = attendanceValueObj != null ? attendanceValueObj.toString().trim() : "";
-
-            try {
-                if (attendanceValue.isEmpty() || Double.parseDouble(attendanceValue) < 0) {
-                    Object studentId = tableModel.getValueAt(i, studentIdIndex);
-                    Object grade = tableModel.getValueAt(i, gradeIndex);
-                    missingDataModel.addRow(new Object[]{studentId, grade});
-                }
-            } catch (NumberFormatException e) {
-                Object studentId = tableModel.getValueAt(i, studentIdIndex);
-                Object grade = tableModel.getValueAt(i, gradeIndex);
-                missingDataModel.addRow(new Object[]{studentId, grade});
+        StudentDataset dataset = tableModel.getDataset();
+        List<String> keyColumns = new ArrayList<>();
+        List<String> metricColumns = new ArrayList<>();
+        for (int i = 0; i < dataset.getColumnCount(); i++) {
+            ColumnType type = dataset.getColumn(i).getType();
+            if (type == ColumnType.CATEGORY) {
+                keyColumns.add(dataset.getColumnName(i));
+            } else if (type == ColumnType.NUMBER) {
+                metricColumns.add(dataset.getColumnName(i));
             }
         }
+        List<String> secondKeyColumns = new ArrayList<>();
+        secondKeyColumns.add(NO_COLUMN);
+        secondKeyColumns.addAll(keyColumns);
 
-        if (missingDataModel.getRowCount() == 0) {
-            JOptionPane.showMessageDialog(this, "No missing attendance data found.");
+        JComboBox<String> keyBox = new JComboBox<>(keyColumns.toArray(new String[0]));
+        keyBox.setSelectedItem(GradeAggregator.GRADE_COLUMN);
+        JComboBox<String> secondKeyBox = new JComboBox<>(secondKeyColumns.toArray(new String[0]));
+        JComboBox<String> metricBox = new JComboBox<>(metricColumns.toArray(new String[0]));
+        metricBox.setSelectedItem(GradeAggregator.ATTENDANCE_COLUMN);
+        JComboBox<Aggregate> aggregateBox = new JComboBox<>(Aggregate.values());
+        aggregateBox.setSelectedItem(Aggregate.MEAN);
+        JSpinner percentileSpinner = new JSpinner(new SpinnerNumberModel(90.0, 0.0, 100.0, 5.0));
+
+        JPanel form = new JPanel(new GridLayout(0, 2, 5, 5));
+        form.add(new JLabel("Group by:"));
+        form.add(keyBox);
+        form.add(new JLabel("Then by:"));
+        form.add(secondKeyBox);
+        form.add(new JLabel("Metric:"));
+        form.add(metricBox);
+        form.add(new JLabel("Function:"));
+        form.add(aggregateBox);
+        form.add(new JLabel("Percentile:"));
+        form.add(percentileSpinner);
+        int option = JOptionPane.showConfirmDialog(this, form, "Group By", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
+        if (option != JOptionPane.OK_OPTION) {
             return;
         }
 
-        JTable missingDataTable = new JTable(missingDataModel);
-        DefaultTableCellRenderer centerRenderer2 = new DefaultTableCellRenderer();
-        centerRenderer2.setHorizontalAlignment(SwingConstants.CENTER);
-        for (int i = 0; i < missingDataTable.getColumnCount(); i++) {
-            missingDataTable.getColumnModel().getColumn(i).setCellRenderer(centerRenderer2);
+        List<String> keys = new ArrayList<>();
+        keys.add((String) keyBox.getSelectedItem());
+        if (!NO_COLUMN.equals(secondKeyBox.getSelectedItem())) {
+            keys.add((String) secondKeyBox.getSelectedItem());
+        }
+        String metric = (String) metricBox.getSelectedItem();
+        Aggregate aggregate = (Aggregate) aggregateBox.getSelectedItem();
+        GroupByResult result = GroupBy.compute(dataset, keys.toArray(new String[0]), metric, aggregate,
+                (Double) percentileSpinner.getValue());
+
+        DefaultTableModel resultModel = new DefaultTableModel(
+                new String[]{String.join(" / ", keys), aggregate + " of " + metric, "Rows"}, 0);
+        for (int i = 0; i < result.size(); i++) {
+            resultModel.addRow(new Object[]{result.getLabel(i), String.format("%.3f", result.getValue(i)), result.getCount(i)});
+        }
+
+        JTable resultTable = new JTable(resultModel);
+        DefaultTableCellRenderer centerRenderer = new DefaultTableCellRenderer();
+        centerRenderer.setHorizontalAlignment(SwingConstants.CENTER);
+        for (int i = 0; i < resultTable.getColumnCount(); i++) {
+            resultTable.getColumnModel().getColumn(i).setCellRenderer(centerRenderer);
         }
 
-        JScrollPane scrollPane2 = new JScrollPane(missingDataTable);
-        scrollPane2.setPreferredSize(new Dimension(400, 200));
-        JOptionPane.showMessageDialog(this, scrollPane2, "Missing Attendance Data", JOptionPane.INFORMATION_MESSAGE);
+        JScrollPane scrollPane = new JScrollPane(resultTable);
+        scrollPane.setPreferredSize(new Dimension(500, 300));
+        Object[] options = {"OK", "Export..."};
+        int choice = JOptionPane.showOptionDialog(this, scrollPane, "Group By Results", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.INFORMATION_MESSAGE, null, options, options[0]);
+        if (choice == 1 && !isLoading()) {
+            export(result.toDataset(), "GroupBy", null);
+        }
     }
 
     private void animateChart() {
@@ -310,87 +926,116 @@ public class MP2MP3 extends JFrame {
             JOptionPane.showMessageDialog(this, "Please analyze the data first.");
             return;
         }
-    
-        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
-        for (String grade : attendanceAverages.keySet()) {
-            dataset.addValue(0, "Attendance", grade); // Start with 0 for animation
-        }
-    
-        JFreeChart chart = ChartFactory.createBarChart(
-                "Average Attendance (%) by Grade",
-                "Grade",
-                "Average Attendance (%)",
-                dataset,
-                PlotOrientation.VERTICAL,
-                true,
-                true,
-                false
-        );
-    
-        CategoryPlot plot = chart.getCategoryPlot();
-    
-        // Custom renderer to assign colors dynamically based on the grade
-        BarRenderer renderer = new BarRenderer() {
-            private final Map<String, Color> gradeColors = new HashMap<String, Color>() {{
-                put("A", Color.BLUE);
-                put("B", Color.GREEN);
-                put("C", Color.YELLOW);
-                put("D", Color.RED);
-                put("F", Color.MAGENTA);
-            }};
-    
-            @Override
-            public Paint getItemPaint(int row, int column) {
-                String grade = (String) dataset.getColumnKey(column);
-                return gradeColors.getOrDefault(grade, Color.GRAY); // Default to gray if grade not found
-            }
-        };
-    
-        plot.setRenderer(renderer);
-        plot.getRangeAxis().setRange(0.0, 100.0);
-    
-        ChartPanel newChartPanel = new ChartPanel(chart);
-        chartPanel.removeAll();
-        chartPanel.setLayout(new BorderLayout());
-        chartPanel.add(newChartPanel, BorderLayout.CENTER);
-        chartPanel.validate();
-    
-        // Use a Timer to animate the bars
-        Timer timer = new Timer(50, null);
-        final Map<String, Double> currentValues = new HashMap<>();
-        for (String grade : attendanceAverages.keySet()) {
-            currentValues.put(grade, 0.0); // Start with 0
-        }
-    
-        timer.addActionListener(e -> {
-            boolean done = true;
-            for (String grade : attendanceAverages.keySet()) {
-                double targetValue = attendanceAverages.get(grade);
-                double currentValue = currentValues.get(grade);
-                if (currentValue < targetValue) {
-                    currentValue = Math.min(currentValue + 1, targetValue); // Increment by 1
-                    currentValues.put(grade, currentValue);
-                    dataset.setValue(currentValue, "Attendance", grade);
-                    done = false;
-                }
+        createChart(attendanceAverages);
+        chartView.animate(attendanceAverages);
+    }
+
+    /**
+     * Returns the index of the loaded dataset, covering rows appended since it was built, or null
+     * while a file is browsed from disk.
+     */
+    private DatasetIndex getIndex() {
+        if (fileModel != null) {
+            return null;
+        }
+        StudentDataset dataset = tableModel.getDataset();
+        if (datasetIndex == null || datasetIndex.getDataset() != dataset) {
+            try (Timing timing = Metrics.start("Build Index")) {
+                datasetIndex = new DatasetIndex(dataset);
+                timing.rows(datasetIndex.getIndexedRows());
             }
-            if (done) {
-                timer.stop(); // Stop the timer when all bars reach their target values
+        } else {
+            datasetIndex.appendRows();
+        }
+        return datasetIndex;
+    }
+
+    private void findStudent() {
+        if (isLoading()) {
+            return;
+        }
+        DatasetIndex index = getIndex();
+        if (index == null) {
+            JOptionPane.showMessageDialog(this, "Search needs the file to be loaded into memory.");
+            return;
+        }
+        String studentId = JOptionPane.showInputDialog(this, DatasetIndex.KEY_COLUMN + ":", "Find Student", JOptionPane.QUESTION_MESSAGE);
+        if (studentId == null || studentId.trim().isEmpty()) {
+            return;
+        }
+        int[] rows = index.findRows(studentId.trim());
+        if (rows.length == 0) {
+            JOptionPane.showMessageDialog(this, "No student with ID " + studentId.trim() + ".");
+            return;
+        }
+        dataTable.clearSelection();
+        int firstViewRow = -1;
+        for (int row : rows) {
+            int viewRow = dataTable.convertRowIndexToView(row);
+            if (viewRow >= 0) {
+                dataTable.addRowSelectionInterval(viewRow, viewRow);
+                firstViewRow = firstViewRow < 0 ? viewRow : Math.min(firstViewRow, viewRow);
             }
-        });
-    
-        timer.start();
+        }
+        if (firstViewRow < 0) {
+            JOptionPane.showMessageDialog(this, "Student " + studentId.trim() + " is hidden by the filter.");
+            return;
+        }
+        dataTable.scrollRectToVisible(dataTable.getCellRect(firstViewRow, 0, true));
+    }
+
+    private void filterRows(String text) {
+        if (isBrowsing()) {
+            return;
+        }
+        rowSorter.setFilterText(text);
+    }
+
+    private void showDrillDown(String column, String value) {
+        if (isLoading()) {
+            return;
+        }
+        DatasetIndex index = getIndex();
+        if (index == null) {
+            JOptionPane.showMessageDialog(this, "Drill-down needs the file to be loaded into memory.");
+            return;
+        }
+        DrillDownDialog dialog = new DrillDownDialog(this, tableModel, index);
+        if (column != null) {
+            dialog.select(column, value);
+        }
+        dialog.setVisible(true);
+        dialog.dispose();
+    }
+
+    private void showDiagnostics() {
+        if (diagnosticsDialog == null) {
+            diagnosticsDialog = new DiagnosticsDialog(this);
+        }
+        diagnosticsDialog.setVisible(true);
+    }
+
+    private void showCohorts() {
+        if (cohortDialog == null) {
+            cohortDialog = new CohortDialog(this, terms, () -> {
+                boolean loading = fileWorker != null && !fileWorker.isDone();
+                return fileModel == null && !loading ? tableModel.getDataset() : null;
+            });
+        }
+        cohortDialog.setVisible(true);
+    }
+
+    private void editSchema() {
+        SchemaDialog dialog = new SchemaDialog(this);
+        dialog.setVisible(true);
+        dialog.dispose();
     }
 
     public static void main(String[] args) {
+        EdtMonitor.start();
         SwingUtilities.invokeLater(() -> {
             MP2MP3 mp2 = new MP2MP3();
             mp2.setVisible(true);
         });
     }
-
-    static class GradeData {
-        double sum;
-        int count;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package test;
+
+import javax.swing.SwingWorker;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import test.data.CsvParser;
+import test.data.DatasetIndex;
+import test.data.SnapshotCache;
+import test.data.StudentDataset;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * Loads several CSV files without blocking the event dispatch thread and merges them into one
+ * dataset with a {@link #SOURCE_COLUMN} that names each row's file. Files are parsed into their own
+ * datasets concurrently on a pool of at most one thread per processor, using {@link SnapshotCache}
+ * as {@link test.data.CsvLoadWorker} does, and concatenated in the order given once all of them are done.
+ * <p>
+ * A file that cannot be read does not stop the others: its error is kept in {@link #getErrors()}
+ * and the merged dataset holds the files that loaded. Progress is the percentage of files done.
+ * The merged dataset's {@link DatasetIndex} is built before the worker finishes.
+ */
+class MultiFileLoadWorker extends SwingWorker<StudentDataset, Void> {
+
+    static final String SOURCE_COLUMN = "Source File";
+
+    private final List<File> files;
+    private final Map<File, String> errors = new LinkedHashMap<>();
+    private final Map<File, Integer> rowCounts = new LinkedHashMap<>();
+    private final AtomicInteger filesDone = new AtomicInteger();
+    private DatasetIndex index;
+
+    MultiFileLoadWorker(List<File> files) {
+        this.files = files;
+    }
+
+    @Override
+    protected StudentDataset doInBackground() throws InterruptedException {
+        StudentDataset merged;
+        try (Timing timing = Metrics.start("Load Files")) {
+            merged = loadAll();
+            if (merged != null) {
+                long bytes = 0;
+                for (File file : rowCounts.keySet()) {
+                    bytes += file.length();
+                }
+                timing.rows(merged.getRowCount()).bytes(bytes).errors(errors.size() + merged.countInvalidCells());
+            }
+        }
+        if (merged != null) {
+            try (Timing timing = Metrics.start("Build Index")) {
+                index = new DatasetIndex(merged);
+                timing.rows(index.getIndexedRows());
+            }
+        }
+        return merged;
+    }
+
+    private StudentDataset loadAll() throws InterruptedException {
+        int threads = Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<StudentDataset>> futures = new ArrayList<>();
+            for (File file : files) {
+                futures.add(pool.submit(() -> loadFile(file)));
+            }
+            List<StudentDataset> parts = new ArrayList<>();
+            List<String> labels = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                File file = files.get(i);
+                try {
+                    StudentDataset part = futures.get(i).get();
+                    if (part != null) {
+                        parts.add(part);
+                        labels.add(file.getName());
+                        rowCounts.put(file, part.getRowCount());
+                    }
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof NoSuchFileException) {
+                        errors.put(file, "File not found");
+                    } else {
+                        errors.put(file, cause.getMessage() != null ? cause.getMessage() : cause.toString());
+                    }
+                }
+            }
+            if (isCancelled() || parts.isEmpty()) {
+                return null;
+            }
+            return StudentDataset.concat(parts, labels, SOURCE_COLUMN);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private StudentDataset loadFile(File file) throws IOException {
+        if (isCancelled()) {
+            throw new CancellationException();
+        }
+        try {
+            StudentDataset dataset = StudentDataset.forStudentSchema();
+            if (!SnapshotCache.load(file, dataset)) {
+                boolean[] headerMapped = new boolean[1];
+                CsvParser.parse(file, record -> {
+                    if (headerMapped[0]) {
+                        dataset.appendRecord(record);
+                    } else {
+                        headerMapped[0] = true;
+                        dataset.mapHeader(record);
+                    }
+                    return !isCancelled();
+                });
+                if (isCancelled()) {
+                    throw new CancellationException();
+                }
+                SnapshotCache.save(file, dataset);
+            }
+            return dataset;
+        } finally {
+            setProgress(filesDone.incrementAndGet() * 100 / files.size());
+        }
+    }
+
+    /**
+     * Returns the error message of each file that could not be loaded, in the order given. Only
+     * complete once the worker is done.
+     */
+    Map<File, String> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Returns the index of the merged dataset, or null if no file loaded. Only complete once the
+     * worker is done.
+     */
+    DatasetIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the number of rows merged from each file that loaded, in the order given. Only
+     * complete once the worker is done.
+     */
+    Map<File, Integer> getRowCounts() {
+        return rowCounts;
+    }
+}
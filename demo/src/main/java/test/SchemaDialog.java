@@ -0,0 +1,80 @@
+package test;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JFrame;
+import javax.swing.JLabel;
+import javax.swing.JOptionPane;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextArea;
+import java.awt.BorderLayout;
+import java.awt.Font;
+import java.io.File;
+import java.io.IOException;
+import test.data.SchemaMapping;
+
+/**
+ * Modal editor for the {@link SchemaMapping} that decides which CSV header names fill which
+ * columns. Saving checks the text, writes it to the configuration file and applies it to the files
+ * loaded from then on; the data already shown is not read again.
+ */
+class SchemaDialog extends JDialog {
+
+    private final JTextArea textArea = new JTextArea(26, 70);
+
+    SchemaDialog(JFrame owner) {
+        super(owner, "Column Mapping", true);
+        setLayout(new BorderLayout());
+
+        File configFile = SchemaMapping.configFile();
+        JLabel hint = new JLabel("<html>One column per line: Column [: TYPE] = CSV header names. Names match "
+                + "ignoring case, spaces and punctuation.<br>Saved to " + configFile.getPath() + "</html>");
+        hint.setBorder(BorderFactory.createEmptyBorder(4, 8, 4, 8));
+        add(hint, BorderLayout.NORTH);
+
+        textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, textArea.getFont().getSize()));
+        textArea.setText(SchemaMapping.getCurrent().format());
+        textArea.setCaretPosition(0);
+        add(new JScrollPane(textArea), BorderLayout.CENTER);
+
+        JPanel buttons = new JPanel();
+        JButton saveButton = new JButton("Save");
+        JButton defaultsButton = new JButton("Restore Defaults");
+        JButton cancelButton = new JButton("Cancel");
+        buttons.add(saveButton);
+        buttons.add(defaultsButton);
+        buttons.add(cancelButton);
+        add(buttons, BorderLayout.SOUTH);
+
+        saveButton.addActionListener(e -> save(configFile));
+        defaultsButton.addActionListener(e -> {
+            textArea.setText(SchemaMapping.studentDefaults().format());
+            textArea.setCaretPosition(0);
+        });
+        cancelButton.addActionListener(e -> setVisible(false));
+
+        pack();
+        setLocationRelativeTo(owner);
+    }
+
+    private void save(File configFile) {
+        SchemaMapping mapping;
+        try {
+            mapping = SchemaMapping.parse(textArea.getText());
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(this, e.getMessage(), "Invalid Mapping", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        try {
+            mapping.write(configFile);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this, "Error saving file: " + e.getMessage());
+            return;
+        }
+        SchemaMapping.setCurrent(mapping);
+        JOptionPane.showMessageDialog(this, "The mapping applies to files loaded from now on.");
+        setVisible(false);
+    }
+}
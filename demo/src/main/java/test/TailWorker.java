@@ -0,0 +1,127 @@
+package test;
+
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import test.data.CsvParser;
+import test.data.DatasetTableModel;
+import test.data.StudentDataset;
+import test.diagnostics.Metrics;
+import test.diagnostics.Timing;
+
+/**
+ * Follows a CSV file that another program keeps appending to, and adds the new rows to the
+ * {@link StudentDataset} shown by a {@link DatasetTableModel}. The file's directory is watched with
+ * a {@link WatchService}, and whenever it changes, or at least every {@link #POLL_MILLIS}, only the
+ * bytes after the last offset read are parsed, up to the last complete record. A record that is
+ * still being written, including a quoted field whose line breaks have arrived but whose closing
+ * quote has not, is read once its own line break arrives.
+ * <p>
+ * New rows are parsed on the worker thread into a separate dataset, read from the same fields as
+ * the loaded rows, and appended on the event dispatch thread in chunks, so the table stays editable
+ * while the file is followed. The worker runs until it is cancelled and fails if the file shrinks,
+ * since its rows no longer match.
+ */
+class TailWorker extends SwingWorker<Void, Void> {
+
+    static final long POLL_MILLIS = 1000;
+    private static final int CHUNK_SIZE = 8192;
+
+    private final File file;
+    private final StudentDataset dataset;
+    private final DatasetTableModel tableModel;
+    private long offset;
+    // Offset of the last rows appended to the dataset; only used on the event dispatch thread
+    private long appendedOffset;
+    private StudentDataset pending;
+    private long parsedOffset;
+
+    /**
+     * Creates a worker that appends the records after byte {@code offset}, which must be the end of a
+     * record, to the table model's current dataset.
+     */
+    TailWorker(File file, long offset, DatasetTableModel tableModel) {
+        this.file = file;
+        this.offset = offset;
+        this.appendedOffset = offset;
+        this.tableModel = tableModel;
+        this.dataset = tableModel.getDataset();
+    }
+
+    @Override
+    protected Void doInBackground() throws IOException, InterruptedException {
+        Path path = file.toPath().toAbsolutePath();
+        Path directory = path.getParent();
+        try (WatchService watcher = directory.getFileSystem().newWatchService()) {
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            readAppended(path);
+            while (!isCancelled()) {
+                // Any change in the directory triggers a size check; the timeout covers file systems
+                // whose watch service only polls
+                WatchKey key = watcher.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    key.pollEvents();
+                    key.reset();
+                }
+                readAppended(path);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the file offset just past the last record appended to the dataset, where a later
+     * worker can continue. Must be called on the event dispatch thread.
+     */
+    long getOffset() {
+        return appendedOffset;
+    }
+
+    private void readAppended(Path path) throws IOException {
+        long size = Files.size(path);
+        if (size < offset) {
+            throw new IOException(file.getName() + " was truncated or replaced");
+        }
+        if (size == offset) {
+            return;
+        }
+        try (Timing timing = Metrics.start("Tail")) {
+            pending = dataset.emptyCopy();
+            parsedOffset = offset;
+            long records = CsvParser.parseComplete(file, offset, size, record -> {
+                pending.appendRecord(record);
+                parsedOffset = record.getEndOffset();
+                if (pending.getRowCount() == CHUNK_SIZE) {
+                    appendRows(pending, parsedOffset);
+                    pending = dataset.emptyCopy();
+                }
+                return !isCancelled();
+            });
+            if (records > 0 && !isCancelled()) {
+                appendRows(pending, parsedOffset);
+            }
+            pending = null;
+            timing.rows(records).bytes(parsedOffset - offset);
+        }
+        offset = parsedOffset;
+    }
+
+    private void appendRows(StudentDataset rows, long rowsEnd) {
+        // Rows and offset advance together on the event dispatch thread, so a worker cancelled there
+        // never leaves rows appended past the offset it reports
+        SwingUtilities.invokeLater(() -> {
+            if (!isCancelled() && tableModel.getDataset() == dataset) {
+                dataset.appendAll(rows);
+                tableModel.publishRows(dataset.getRowCount());
+                appendedOffset = rowsEnd;
+            }
+        });
+    }
+}